@@ -1,18 +1,25 @@
 package com.modernbank.transaction_service.api.client;
 
 import com.modernbank.transaction_service.api.request.ChatNotificationRequest;
+import com.modernbank.transaction_service.api.request.SendNotificationBulkRequest;
 import com.modernbank.transaction_service.api.request.SendNotificationRequest;
 import com.modernbank.transaction_service.api.response.BaseResponse;
+import com.modernbank.transaction_service.api.response.SendNotificationBulkResponse;
+import com.modernbank.transaction_service.config.NotificationClientConfiguration;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(value = "notification-service", url = "${feign.client.notification-service.url}")
+@FeignClient(value = "notification-service", url = "${feign.client.notification-service.url}",
+        configuration = NotificationClientConfiguration.class)
 public interface NotificationServiceClient {
 
     @PostMapping("${feign.client.notification-service.sendNotification}")
     BaseResponse sendNotification (@RequestBody SendNotificationRequest sendNotificationRequest);
 
+    @PostMapping("${feign.client.notification-service.sendNotificationBulk}")
+    SendNotificationBulkResponse sendNotifications (@RequestBody SendNotificationBulkRequest sendNotificationBulkRequest);
+
     @PostMapping("${feign.client.notification-service.sendChatNotification}")
     BaseResponse sendChatNotification (@RequestBody ChatNotificationRequest chatNotificationRequest);
 }
\ No newline at end of file
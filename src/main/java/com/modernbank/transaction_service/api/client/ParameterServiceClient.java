@@ -1,5 +1,6 @@
 package com.modernbank.transaction_service.api.client;
 
+import com.modernbank.transaction_service.api.request.LogErrorBulkRequest;
 import com.modernbank.transaction_service.api.request.LogErrorRequest;
 import com.modernbank.transaction_service.api.response.BaseResponse;
 import com.modernbank.transaction_service.api.response.GetAllErrorCodesResponse;
@@ -19,6 +20,9 @@ public interface ParameterServiceClient {
     @PostMapping(value = "${feign.client.parameter-service.logError}")
     BaseResponse logError(@RequestBody LogErrorRequest request);
 
+    @PostMapping(value = "${feign.client.parameter-service.logErrorBulk}")
+    BaseResponse logErrors(@RequestBody LogErrorBulkRequest request);
+
     @GetMapping(value = "${feign.client.parameter-service.getAllErrorCodes}")
     GetAllErrorCodesResponse getAllErrorCodes(@RequestParam("name") String serviceName);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.modernbank.transaction_service.api.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NotificationDeliveryResultDTO {
+
+    // SendNotificationBulkRequest.notifications içindeki sıra
+    private int index;
+
+    private boolean success;
+
+    private String errorMessage;
+}
@@ -0,0 +1,14 @@
+package com.modernbank.transaction_service.api.request;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogErrorBulkRequest {
+    private List<LogErrorRequest> errors;
+}
@@ -25,4 +25,8 @@ public class LogErrorRequest extends BaseRequest {
     private String stackTrace;    // Kısaltılmış stack trace
 
     private LocalDateTime timestamp;
+
+    private Long occurrenceCount;  // Toplulaştırılmış özetlerde pencere içindeki tekrar sayısı, tekil kayıtta null
+
+    private LocalDateTime firstOccurrence; // Toplulaştırılmış özetlerde ilk görülme zamanı
 }
\ No newline at end of file
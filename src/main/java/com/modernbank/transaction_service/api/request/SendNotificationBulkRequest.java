@@ -0,0 +1,15 @@
+package com.modernbank.transaction_service.api.request;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SendNotificationBulkRequest {
+
+    private List<SendNotificationRequest> notifications;
+}
@@ -1,5 +1,6 @@
 package com.modernbank.transaction_service.api.request;
 
+import com.modernbank.transaction_service.model.AccountSnapshot;
 import lombok.*;
 
 @Getter
@@ -30,4 +31,9 @@ public class TransferMoneyRequest extends BaseRequest{
     private String byAi;
 
     private Boolean isConfirmed;
+
+    // Doğrulama sırasında okunan hesapların imzalı kopyası, consumer'lar süresi içinde tekrar okumaz
+    private AccountSnapshot senderSnapshot;
+
+    private AccountSnapshot receiverSnapshot;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.modernbank.transaction_service.api.request;
 
+import com.modernbank.transaction_service.model.AccountSnapshot;
 import com.modernbank.transaction_service.model.enums.TransactionCategory;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,4 +13,7 @@ public class WithdrawAndDepositMoneyRequest extends BaseRequest {
     private TransactionCategory category;
 
     private double amount;
+
+    // Doğrulama sırasında okunan hesabın imzalı kopyası
+    private AccountSnapshot accountSnapshot;
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.modernbank.transaction_service.api.response;
+
+import com.modernbank.transaction_service.api.dto.NotificationDeliveryResultDTO;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class SendNotificationBulkResponse extends BaseResponse {
+    private List<NotificationDeliveryResultDTO> results;
+}
@@ -0,0 +1,89 @@
+package com.modernbank.transaction_service.aspect;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Puts the HTTP calls of selected Feign clients behind a Resilience4j circuit breaker.
+ * Connection errors and 5xx responses count as failures; while the breaker is OPEN calls fail
+ * fast with CallNotPermittedException instead of waiting for timeouts.
+ *
+ * Compensating calls (refunds, credit reversals) run through {@link #compensating(Runnable)} and bypass the
+ * breaker: failing them fast would leave the money on the wrong side, they are rare and may wait for the timeout.
+ *
+ * fraud-ml-service is not listed here, ResilientFraudMLService already guards it with @CircuitBreaker.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeignCircuitBreakerCapability implements Capability {
+
+    public static final String ACCOUNT_SERVICE_BREAKER = "accountService";
+
+    // Feign client adı -> circuit breaker adı
+    private static final Map<String, String> CLIENT_BREAKERS = Map.of(
+            "account-service", ACCOUNT_SERVICE_BREAKER);
+
+    // Feign çağrısı aynı thread'de çalışır, telafi işareti ThreadLocal ile taşınır
+    private static final ThreadLocal<Boolean> COMPENSATING = new ThreadLocal<>();
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    /**
+     * Runs the Feign calls of the given block outside the circuit breaker.
+     */
+    public static void compensating(Runnable call) {
+        COMPENSATING.set(Boolean.TRUE);
+        try {
+            call.run();
+        } finally {
+            COMPENSATING.remove();
+        }
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            String breakerName = CLIENT_BREAKERS.get(clientName(request));
+            if (breakerName == null || Boolean.TRUE.equals(COMPENSATING.get())) {
+                return client.execute(request, options);
+            }
+            return execute(circuitBreakerRegistry.circuitBreaker(breakerName), client, request, options);
+        };
+    }
+
+    private Response execute(CircuitBreaker circuitBreaker, Client client, Request request, Request.Options options)
+            throws IOException {
+        circuitBreaker.acquirePermission();
+        long start = circuitBreaker.getCurrentTimestamp();
+        try {
+            Response response = client.execute(request, options);
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            if (response.status() >= 500) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                        new IOException("HTTP " + response.status() + " from " + request.url()));
+            } else {
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            circuitBreaker.onError(circuitBreaker.getCurrentTimestamp() - start, circuitBreaker.getTimestampUnit(), e);
+            throw e;
+        }
+    }
+
+    private String clientName(Request request) {
+        if (request.requestTemplate() == null || request.requestTemplate().feignTarget() == null) {
+            return null;
+        }
+        return request.requestTemplate().feignTarget().name();
+    }
+}
@@ -0,0 +1,45 @@
+package com.modernbank.transaction_service.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Processing time of every @KafkaListener method, tagged by listener (Class.method) and outcome.
+ * Listeners that catch their own errors report "success"; thrown exceptions are tagged by class.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class KafkaListenerMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(org.springframework.kafka.annotation.KafkaListener)")
+    public Object timeKafkaListener(ProceedingJoinPoint joinPoint) throws Throwable {
+        String listener = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = "error";
+            exception = throwable.getClass().getSimpleName();
+            throw throwable;
+        } finally {
+            sample.stop(Timer.builder("kafka.listener.process")
+                    .description("Kafka listener method processing time")
+                    .tag("listener", listener)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -29,14 +29,20 @@ public class KafkaTraceAspect {
             }
         }
 
+        // KeyOrderedDispatcher gibi çağıranlar traceId'yi zaten set etmiş olabilir
+        String callerTraceId = MDC.get("traceId");
         if (traceId == null || traceId.isEmpty()) {
-            traceId = java.util.UUID.randomUUID().toString();
+            traceId = callerTraceId != null ? callerTraceId : java.util.UUID.randomUUID().toString();
         }
         MDC.put("traceId", traceId);
         try {
             return joinPoint.proceed();
         } finally {
-            MDC.remove("traceId");
+            if (callerTraceId != null) {
+                MDC.put("traceId", callerTraceId);
+            } else {
+                MDC.remove("traceId");
+            }
         }
     }
 }
\ No newline at end of file
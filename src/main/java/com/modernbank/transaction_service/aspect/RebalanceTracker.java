@@ -0,0 +1,133 @@
+package com.modernbank.transaction_service.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rebalance hook and metrics for the saga consumer groups.
+ *
+ * Responsibilities:
+ * - Flush in-flight producer sends before revoked partitions commit, so no next-hop send is lost or
+ *   left unacknowledged behind a committed offset
+ * - Time the revoke-to-assign window per group (kafka.consumer.rebalance)
+ * - Count revoked, assigned and lost partitions
+ * - Count redelivered records (offset already seen on this instance), tagged rebalance or retry
+ *
+ * Redeliveries are detected per instance; with static membership and cooperative-sticky assignment
+ * partitions normally return to the same pod, which is where they are counted.
+ */
+@Slf4j
+public class RebalanceTracker<K, V> implements ConsumerAwareRebalanceListener, RecordInterceptor<K, V>, BatchInterceptor<K, V> {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Runnable beforeRevokeCommit;
+
+    private final Map<Consumer<?, ?>, Timer.Sample> rebalanceStarted = new ConcurrentHashMap<>();
+
+    private final Map<TopicPartition, Long> lastSeenOffsets = new ConcurrentHashMap<>();
+
+    private final Set<TopicPartition> reassignedPartitions = ConcurrentHashMap.newKeySet();
+
+    public RebalanceTracker(MeterRegistry meterRegistry, Runnable beforeRevokeCommit) {
+        this.meterRegistry = meterRegistry;
+        this.beforeRevokeCommit = beforeRevokeCommit;
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        rebalanceStarted.putIfAbsent(consumer, Timer.start(meterRegistry));
+        try {
+            // Commit öncesi bekleyen send'ler broker'a yazılır, offset onlardan önce ilerlemez
+            beforeRevokeCommit.run();
+        } catch (Exception e) {
+            log.warn("Flushing producer before partition revoke failed: {}", e.getMessage());
+        }
+        partitionCounter("revoked", groupId(consumer), partitions.size());
+        log.info("Partitions revoked for group {}: {}", groupId(consumer), partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        String groupId = groupId(consumer);
+        Timer.Sample sample = rebalanceStarted.remove(consumer);
+        if (sample != null) {
+            sample.stop(Timer.builder("kafka.consumer.rebalance")
+                    .description("Time between partition revoke and the next assignment of a consumer")
+                    .tag("group", groupId)
+                    .register(meterRegistry));
+        }
+        for (TopicPartition partition : partitions) {
+            if (lastSeenOffsets.containsKey(partition)) {
+                reassignedPartitions.add(partition);
+            }
+        }
+        if (!partitions.isEmpty()) {
+            partitionCounter("assigned", groupId, partitions.size());
+            log.info("Partitions assigned for group {}: {}", groupId, partitions);
+        }
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        rebalanceStarted.remove(consumer);
+        partitionCounter("lost", groupId(consumer), partitions.size());
+        log.warn("Partitions lost for group {} without a clean revoke: {}", groupId(consumer), partitions);
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        track(record, consumer);
+        return record;
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        for (ConsumerRecord<K, V> record : records) {
+            track(record, consumer);
+        }
+        return records;
+    }
+
+    private void track(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Long lastSeen = lastSeenOffsets.get(partition);
+        if (lastSeen != null && record.offset() <= lastSeen) {
+            String cause = reassignedPartitions.contains(partition) ? "rebalance" : "retry";
+            meterRegistry.counter("kafka.consumer.redelivered",
+                    "group", groupId(consumer), "topic", record.topic(), "cause", cause).increment();
+            return;
+        }
+        lastSeenOffsets.put(partition, record.offset());
+        // Önceki en yüksek offset geçildi, bu partition için rebalance tekrarı bitti
+        reassignedPartitions.remove(partition);
+    }
+
+    private void partitionCounter(String event, String groupId, int count) {
+        meterRegistry.counter("kafka.consumer.rebalance.partitions", "group", groupId, "event", event).increment(count);
+    }
+
+    private String groupId(Consumer<?, ?> consumer) {
+        try {
+            return consumer.groupMetadata().groupId();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.modernbank.transaction_service.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.springframework.kafka.listener.BatchInterceptor;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Records how old a record is (now - record timestamp) when it reaches the listener.
+ * Rising age with flat lag means slow processing; rising age and lag means the group falls behind.
+ */
+public class RecordAgeInterceptor<K, V> implements RecordInterceptor<K, V>, BatchInterceptor<K, V> {
+
+    private final MeterRegistry meterRegistry;
+
+    public RecordAgeInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        recordAge(record, System.currentTimeMillis());
+        return record;
+    }
+
+    @Override
+    public ConsumerRecords<K, V> intercept(ConsumerRecords<K, V> records, Consumer<K, V> consumer) {
+        long now = System.currentTimeMillis();
+        for (ConsumerRecord<K, V> record : records) {
+            recordAge(record, now);
+        }
+        return records;
+    }
+
+    private void recordAge(ConsumerRecord<K, V> record, long now) {
+        if (record.timestamp() < 0) {
+            return;
+        }
+        Timer.builder("kafka.consumer.record.age")
+                .description("Time between record timestamp and listener invocation")
+                .tag("topic", record.topic())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofMillis(Math.max(0, now - record.timestamp())));
+    }
+}
@@ -0,0 +1,28 @@
+package com.modernbank.transaction_service.aspect;
+
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.RecordInterceptor;
+
+/**
+ * Binds the saga checkpoints of the consumed record to the listener thread for the duration of the record.
+ */
+public class SagaTimingInterceptor<K, V> implements RecordInterceptor<K, V> {
+
+    @Override
+    public ConsumerRecord<K, V> intercept(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        SagaTimingContext.bind(record.topic(), record.headers());
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<K, V> record, Consumer<K, V> consumer) {
+        SagaTimingContext.clear();
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        SagaTimingContext.clear();
+    }
+}
@@ -0,0 +1,41 @@
+package com.modernbank.transaction_service.aspect;
+
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.Map;
+
+/**
+ * Copies the saga checkpoints bound to the sending thread onto next-hop saga records,
+ * the same way TraceIdProducerInterceptor carries the trace id.
+ */
+public class SagaTimingProducerInterceptor implements ProducerInterceptor<String, Object> {
+
+    @Override
+    public ProducerRecord<String, Object> onSend(ProducerRecord<String, Object> producerRecord) {
+        if (SagaTimingContext.checkpointOf(producerRecord.topic()) == null) {
+            return producerRecord;
+        }
+        for (Map.Entry<String, Long> checkpoint : SagaTimingContext.current().entrySet()) {
+            SagaTimingContext.write(producerRecord.headers(), checkpoint.getKey(), checkpoint.getValue());
+        }
+        return producerRecord;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata recordMetadata, Exception e) {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public void configure(Map<String, ?> map) {
+
+    }
+}
@@ -0,0 +1,85 @@
+package com.modernbank.transaction_service.config;
+
+import com.modernbank.transaction_service.service.event.streams.AccountActivityTopology;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.KafkaStreamsInfrastructureCustomizer;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.streams.KafkaStreamsMicrometerListener;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Embedded Kafka Streams app for the per-account rolling aggregates of {@link AccountActivityTopology}.
+ *
+ * Responsibilities:
+ * - Run the topology in its own StreamsBuilderFactoryBean (application id transaction-aggregates.application-id)
+ * - Create the transaction-completed topic, keyed by accountId
+ * - Bind Kafka Streams client metrics to Micrometer
+ *
+ * Enabled with transaction-aggregates.enabled; without it FraudEvaluationServiceImpl keeps using the SQL
+ * aggregate. Daily limits (TransactionValidatorImpl) always use SQL, since the stream lags and misses
+ * transactions that are still pending.
+ */
+@Configuration
+@ConditionalOnProperty(name = "transaction-aggregates.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class AccountActivityStreamsConfiguration {
+
+    private final AccountActivityTopology accountActivityTopology;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.consumer.bootstrap-servers}")
+    private String kafkaBootstrapServers;
+
+    @Value("${transaction-aggregates.application-id:transaction-service-account-activity}")
+    private String applicationId;
+
+    @Value("${transaction-aggregates.num-stream-threads:1}")
+    private int numStreamThreads;
+
+    @Value("${transaction-aggregates.num-standby-replicas:0}")
+    private int numStandbyReplicas;
+
+    @Bean
+    public StreamsBuilderFactoryBean accountActivityStreams() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(StreamsConfig.APPLICATION_ID_CONFIG, applicationId);
+        configProps.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+        configProps.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        configProps.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, numStreamThreads);
+        // Standby kopyalar rebalance sonrası store'un hazır olmasını hızlandırır
+        configProps.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, numStandbyReplicas);
+
+        StreamsBuilderFactoryBean factoryBean = new StreamsBuilderFactoryBean(new KafkaStreamsConfiguration(configProps));
+        factoryBean.setInfrastructureCustomizer(new KafkaStreamsInfrastructureCustomizer() {
+            @Override
+            public void configureBuilder(StreamsBuilder builder) {
+                accountActivityTopology.build(builder);
+            }
+        });
+        factoryBean.addListener(new KafkaStreamsMicrometerListener(meterRegistry));
+        return factoryBean;
+    }
+
+    @Bean
+    public NewTopic transactionCompletedTopic(@Value("${transaction-aggregates.partitions:3}") int partitions,
+                                              @Value("${transaction-aggregates.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(accountActivityTopology.getTopic())
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+}
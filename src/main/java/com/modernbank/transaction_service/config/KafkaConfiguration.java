@@ -1,29 +1,69 @@
 package com.modernbank.transaction_service.config;
 
 import com.modernbank.transaction_service.api.request.*;
+import com.modernbank.transaction_service.aspect.RebalanceTracker;
+import com.modernbank.transaction_service.aspect.RecordAgeInterceptor;
+import com.modernbank.transaction_service.aspect.SagaTimingInterceptor;
+import com.modernbank.transaction_service.aspect.SagaTimingProducerInterceptor;
+import com.modernbank.transaction_service.aspect.TraceIdProducerInterceptor;
+import com.modernbank.transaction_service.model.TransactionCompletedEvent;
 import com.modernbank.transaction_service.model.TransactionErrorEvent;
+import com.modernbank.transaction_service.service.event.codec.TransferMoneyRequestBinaryDeserializer;
+import com.modernbank.transaction_service.service.event.codec.TransferMoneyRequestBinarySerializer;
+import com.modernbank.transaction_service.service.event.deadline.ExpiredRecordFilterStrategy;
+import com.modernbank.transaction_service.service.event.producer.ProducerMetricsListener;
+import com.modernbank.transaction_service.service.event.quarantine.PoisonPillQuarantine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.common.IsolationLevel;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.CompositeBatchInterceptor;
+import org.springframework.kafka.listener.CompositeRecordInterceptor;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.kafka.support.serializer.DelegatingByTopicSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.StringUtils;
 import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Pattern;
 
 @Configuration
 @EnableKafka
+@RequiredArgsConstructor
 @Slf4j
 public class KafkaConfiguration {
 
@@ -32,21 +72,184 @@ public class KafkaConfiguration {
     @Value("${spring.kafka.consumer.bootstrap-servers}")
     private String kafkaBootstrapServers;
 
+    @Value("${kafka.listener.withdraw-deposit.max-poll-records:500}")
+    private int withdrawAndDepositMaxPollRecords;
+
+    @Value("${kafka.producer.linger-ms:10}")
+    private int producerLingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int producerBatchSize;
+
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String producerCompressionType;
+
+    @Value("${kafka.saga.codec:json}")
+    private String sagaCodec;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${kafka.transfer.exactly-once.enabled:false}")
+    private boolean transferExactlyOnceEnabled;
+
+    @Value("${kafka.transfer.exactly-once.transaction-id-prefix:transaction-service-tx-}")
+    private String transferTransactionIdPrefix;
+
+    @Value("${kafka.listener.withdraw-deposit.concurrency:1}")
+    private int withdrawAndDepositConcurrency;
+
+    @Value("${kafka.listener.transfer.concurrency:1}")
+    private int transferConcurrency;
+
+    @Value("${kafka.listener.notification.concurrency:1}")
+    private int notificationConcurrency;
+
+    @Value("${kafka.listener.notification.batch-enabled:false}")
+    private boolean notificationBatchEnabled;
+
+    @Value("${kafka.listener.notification.bulk-size:100}")
+    private int notificationBulkSize;
+
+    @Value("${kafka.listener.notification.window-ms:200}")
+    private int notificationWindowMs;
+
+    @Value("${kafka.listener.notification.fetch-min-bytes:16384}")
+    private int notificationFetchMinBytes;
+
+    @Value("${kafka.listener.withdraw-from-atm.concurrency:1}")
+    private int withdrawFromATMConcurrency;
+
+    @Value("${kafka.listener.transfer-to-atm.concurrency:1}")
+    private int transferMoneyToATMConcurrency;
+
+    @Value("${kafka.listener.chat-notification.concurrency:1}")
+    private int chatNotificationConcurrency;
+
+    @Value("${kafka.listener.invoice.concurrency:1}")
+    private int invoiceConcurrency;
+
+    @Value("${kafka.listener.invoice.batch-enabled:false}")
+    private boolean invoiceBatchEnabled;
+
+    @Value("${kafka.listener.invoice.max-poll-records:50}")
+    private int invoiceMaxPollRecords;
+
+    @Value("${kafka.listener.multiplexed.concurrency:1}")
+    private int multiplexedConcurrency;
+
+    @Value("${kafka.rebalance.assignment-strategy:org.apache.kafka.clients.consumer.CooperativeStickyAssignor,org.apache.kafka.clients.consumer.RangeAssignor}")
+    private List<String> rebalanceAssignmentStrategy;
+
+    @Value("${kafka.rebalance.static-membership.enabled:false}")
+    private boolean staticMembershipEnabled;
+
+    @Value("${kafka.rebalance.static-membership.instance-id:}")
+    private String staticMembershipInstanceId;
+
+    @Value("${kafka.rebalance.static-membership.session-timeout-ms:60000}")
+    private int staticMembershipSessionTimeoutMs;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ProducerMetricsListener producerMetricsListener;
+
+    private final ExpiredRecordFilterStrategy expiredRecordFilterStrategy;
+
+    private final PoisonPillQuarantine poisonPillQuarantine;
+
+    // SHARED PRODUCER
+
+    /**
+     * Single idempotent producer shared by every KafkaTemplate: one set of broker connections,
+     * buffers and sender threads instead of one per payload type. Routing happens per send by topic.
+     */
     @Bean
-    public ProducerFactory<String, WithdrawAndDepositMoneyRequest> moneyWithdrawAndDepositProducerFactory() {
+    public ProducerFactory<String, Object> sharedProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType);
+        configProps.put(ProducerConfig.INTERCEPTOR_CLASSES_CONFIG,
+                List.of(TraceIdProducerInterceptor.class.getName(), SagaTimingProducerInterceptor.class.getName()));
+
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(configProps,
+                new StringSerializer(), sharedValueSerializer());
+        // Kafka client metriklerini (batch-size-avg, compression-rate-avg, ...) Micrometer'a bağla
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
+    }
+
+    /**
+     * Saga topics are internal to this service; with kafka.saga.codec=binary they are written with the compact
+     * binary codec, every other topic stays JSON. Consumers read both formats, so flip producers only after
+     * every instance runs a version with {@link TransferMoneyRequestBinaryDeserializer}.
+     */
+    private Serializer<Object> sharedValueSerializer() {
+        if (!"binary".equalsIgnoreCase(sagaCodec)) {
+            return new JsonSerializer<>();
+        }
+        Map<Pattern, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(Pattern.compile("(start|update|finalize)-transfer-money"), new TransferMoneyRequestBinarySerializer());
+        return new DelegatingByTopicSerializer(delegates, new JsonSerializer<>());
+    }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+    @SuppressWarnings("unchecked")
+    private <V> KafkaTemplate<String, V> sharedKafkaTemplate() {
+        ProducerFactory<String, V> producerFactory = (ProducerFactory<String, V>) (ProducerFactory<String, ?>) sharedProducerFactory();
+        KafkaTemplate<String, V> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        kafkaTemplate.setProducerListener((ProducerListener<String, V>) (ProducerListener<String, ?>) producerMetricsListener);
+        kafkaTemplate.setProducerInterceptor((ProducerInterceptor<String, V>) (ProducerInterceptor<String, ?>) producerMetricsListener);
+        return kafkaTemplate;
+    }
+
+    /**
+     * Transactional copy of the shared producer for the transfer saga. The transfer containers run every
+     * record in a Kafka transaction of this factory, so the next-hop send and the consumed offset are
+     * committed atomically (consume-process-produce). Producers are created lazily, the factory costs
+     * nothing while kafka.transfer.exactly-once.enabled is off.
+     */
+    @Bean
+    public ProducerFactory<String, Object> exactlyOnceProducerFactory() {
+        return sharedProducerFactory().copyWithConfigurationOverride(
+                Map.of(ProducerConfig.TRANSACTIONAL_ID_CONFIG, transferTransactionIdPrefix));
+    }
+
+    @Bean
+    @SuppressWarnings("unchecked")
+    public KafkaTemplate<String, Object> exactlyOnceKafkaTemplate() {
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(exactlyOnceProducerFactory());
+        kafkaTemplate.setProducerListener((ProducerListener<String, Object>) (ProducerListener<String, ?>) producerMetricsListener);
+        kafkaTemplate.setProducerInterceptor(producerMetricsListener);
+        return kafkaTemplate;
+    }
+
+    // Outbox relay farklı tipte mesajları tek template ile yayınlar
+    @Bean
+    public KafkaTemplate<String, Object> outboxKafkaTemplate() {
+        return sharedKafkaTemplate();
+    }
+
+    // Retry topic ve DLT yönlendirmesi her tipten kaydı aynı template ile gönderir
+    @Bean
+    public KafkaTemplate<String, Object> retryTopicKafkaTemplate() {
+        return sharedKafkaTemplate();
+    }
+
+    // DLT replay kayıtları byte olarak geri yazar, JSON veya binary codec formatı aynen korunur
+    @Bean
+    public KafkaTemplate<byte[], byte[]> dltReplayKafkaTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(sharedProducerFactory().getConfigurationProperties(),
+                new ByteArraySerializer(), new ByteArraySerializer()));
     }
 
     @Bean
     public KafkaTemplate<String, WithdrawAndDepositMoneyRequest> moneyWithdrawAndDepositKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -60,15 +263,23 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.modernbank.transaction_service.api.request");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.WithdrawAndDepositMoneyRequest");
+        // Batch listener modunda tek poll ile alınacak kayıt sayısı
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, withdrawAndDepositMaxPollRecords);
+        applyRebalanceSettings(configProps);
 
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(WithdrawAndDepositMoneyRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(WithdrawAndDepositMoneyRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, WithdrawAndDepositMoneyRequest> moneyWithdrawAndDepositKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, WithdrawAndDepositMoneyRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(moneyWithdrawAndDepositConsumerFactory());
+        factory.setConcurrency(withdrawAndDepositConcurrency);
+        applyListenerThreadModel(factory);
+        applyRebalanceHandling(factory, List.of());
+        // Karantinadaki ve süresi geçmiş (X-Deadline) istekler listener'a gelmeden atılır
+        factory.setRecordFilterStrategy(quarantineAndDeadlineFilter());
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
@@ -76,21 +287,9 @@ public class KafkaConfiguration {
 
     // MONEY TRANSFER KAFKA
 
-    @Bean
-    public ProducerFactory<String, TransferMoneyRequest> moneyTransferProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
     @Bean
     public KafkaTemplate<String, TransferMoneyRequest> moneyTransferKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(moneyTransferProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -100,20 +299,39 @@ public class KafkaConfiguration {
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "transfer-group");
         configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        // Binary saga payload'larını çözer, diğerlerini JsonDeserializer'a bırakır
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, TransferMoneyRequestBinaryDeserializer.class);
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TransferMoneyRequest.class.getName());
         configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        if (transferExactlyOnceEnabled) {
+            // Abort edilen transaction'lardaki saga adımları okunmaz
+            configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG,
+                    IsolationLevel.READ_COMMITTED.toString().toLowerCase(Locale.ROOT));
+        }
+        applyRebalanceSettings(configProps);
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TransferMoneyRequest> moneyTransferKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, TransferMoneyRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(moneyTransferConsumerFactory());
+        factory.setConcurrency(transferConcurrency);
+        applyListenerThreadModel(factory);
+        // Saga checkpoint header'ları listener thread'ine bağlanır (uçtan uca latency ölçümü)
+        applyRebalanceHandling(factory, List.of(new SagaTimingInterceptor<>()));
+        factory.setRecordFilterStrategy(quarantineAndDeadlineFilter());
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(testTransferMoneyRequestErrorHandler());
+        if (transferExactlyOnceEnabled) {
+            // KafkaTransactionManager bean olarak tanımlanmaz, JPA transaction manager'ı @Transactional için kalır
+            factory.getContainerProperties().setTransactionManager(
+                    new KafkaTransactionManager<>(exactlyOnceProducerFactory()));
+            // Transaction modunda hatalar error handler yerine rollback processor'a gider, aynı retry kuralları uygulanır
+            factory.setAfterRollbackProcessor(transferAfterRollbackProcessor());
+        }
         return factory;
     }
 
@@ -122,7 +340,8 @@ public class KafkaConfiguration {
     public DefaultErrorHandler testTransferMoneyRequestErrorHandler() {
         FixedBackOff fixedBackOff = new FixedBackOff(2000L, 3);
 
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(fixedBackOff);
+        // Denemeleri tükenen veya tekrar denenmeyen kayıtlar karantinaya alınır
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(poisonPillQuarantine, fixedBackOff);
 
         errorHandler.addNotRetryableExceptions(
                 IllegalArgumentException.class,
@@ -134,23 +353,25 @@ public class KafkaConfiguration {
         return errorHandler;
     }
 
-    // Notification service kafka
+    private DefaultAfterRollbackProcessor<String, TransferMoneyRequest> transferAfterRollbackProcessor() {
+        DefaultAfterRollbackProcessor<String, TransferMoneyRequest> afterRollbackProcessor =
+                new DefaultAfterRollbackProcessor<>(poisonPillQuarantine, new FixedBackOff(2000L, 3));
 
-    @Bean
-    public ProducerFactory<String, SendNotificationRequest> notificationServiceProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        afterRollbackProcessor.addNotRetryableExceptions(
+                IllegalArgumentException.class,
+                NullPointerException.class,
+                org.springframework.kafka.support.serializer.DeserializationException.class,
+                com.modernbank.transaction_service.exception.NotFoundException.class
+        );
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return afterRollbackProcessor;
     }
 
+    // Notification service kafka
+
     @Bean
     public KafkaTemplate<String, SendNotificationRequest> notificationServiceKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(notificationServiceProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -164,15 +385,25 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.SendNotificationRequest");
+        if (notificationBatchEnabled) {
+            // Micro-batch: broker en az fetch-min-bytes birikene ya da window-ms dolana kadar bekler
+            configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, notificationBulkSize);
+            configProps.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, notificationFetchMinBytes);
+            configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, notificationWindowMs);
+        }
 
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(SendNotificationRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(SendNotificationRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, SendNotificationRequest> notificationKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, SendNotificationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(notificationServiceConsumerFactory());
+        factory.setConcurrency(notificationConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
@@ -180,21 +411,9 @@ public class KafkaConfiguration {
 
     // Withdraw From ATM Kafka
 
-    @Bean
-    public ProducerFactory<String, WithdrawFromATMRequest> withdrawFromATMServiceProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
     @Bean
     public KafkaTemplate<String, WithdrawFromATMRequest> withdrawFromATMServiceKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(withdrawFromATMServiceProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -208,14 +427,18 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.modernbank.transaction_service.api.request");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.WithdrawFromATMRequest");
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(WithdrawFromATMRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(WithdrawFromATMRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, WithdrawFromATMRequest> withdrawFromATMKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, WithdrawFromATMRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(withdrawFromATMServiceConsumerFactory());
+        factory.setConcurrency(withdrawFromATMConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
@@ -223,21 +446,9 @@ public class KafkaConfiguration {
 
     // Transfer money to atm Kafka
 
-    @Bean
-    public ProducerFactory<String, TransferMoneyATMRequest> transferMoneyToATMServiceProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
     @Bean
     public KafkaTemplate<String, TransferMoneyATMRequest> transferMoneyToATMServiceKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(transferMoneyToATMServiceProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -251,35 +462,27 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "com.modernbank.transaction_service.api.request");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.TransferMoneyATMRequest");
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(TransferMoneyATMRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(TransferMoneyATMRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, TransferMoneyATMRequest> transferMoneyToATMKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, TransferMoneyATMRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(transferMoneyToATMServiceConsumerFactory());
+        factory.setConcurrency(transferMoneyToATMConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
     }
 
     // Send Chat Notification KAFKA
-    @Bean
-    public ProducerFactory<String, ChatNotificationRequest> sendChatNotificationKafkaProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
     @Bean
     public KafkaTemplate<String, ChatNotificationRequest> sendChatNotificationKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(sendChatNotificationKafkaProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -294,35 +497,27 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.ChatNotificationRequest");
         configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(ChatNotificationRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(ChatNotificationRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, ChatNotificationRequest> sendChatNotificationKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, ChatNotificationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(sendChatNotificationKafkaConsumerFactory());
+        factory.setConcurrency(chatNotificationConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
     }
 
     // SEND GENERATE INVOICE KAFKA
-    @Bean
-    public ProducerFactory<String, DynamicInvoiceRequest> sendGenerateInvoiceKafkaProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        return new DefaultKafkaProducerFactory<>(configProps);
-    }
-
     @Bean
     public KafkaTemplate<String, DynamicInvoiceRequest> sendGenerateInvoiceKafkaTemplate() {
-        // KafkaTemplate<String, WithdrawAndDepositMoneyRequest> kafkaTemplate = new
-        // KafkaTemplate<>(moneyWithdrawAndDepositProducerFactory());
-        return new KafkaTemplate<>(sendGenerateInvoiceKafkaProducerFactory());
+        return sharedKafkaTemplate();
     }
 
     @Bean
@@ -336,21 +531,58 @@ public class KafkaConfiguration {
         configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE,
                 "com.modernbank.transaction_service.api.request.DynamicInvoiceRequest");
+        if (invoiceBatchEnabled) {
+            configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, invoiceMaxPollRecords);
+        }
         configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
-                new JsonDeserializer<>(DynamicInvoiceRequest.class));
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(new JsonDeserializer<>(DynamicInvoiceRequest.class))));
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, DynamicInvoiceRequest> sendGenerateInvoiceKafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, DynamicInvoiceRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(sendGenerateInvoiceKafkaConsumerFactory());
+        factory.setConcurrency(invoiceConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
         // DefaultErrorHandler ile ilişkilendir
         factory.setCommonErrorHandler(defaultErrorHandler());
         return factory;
     }
 
 
+    // MULTIPLEXED LOW-VOLUME KAFKA
+
+    /**
+     * One consumer for chat, invoice, error and ATM topics. Values stay raw JSON bytes here and are bound
+     * to the handler's type by MultiplexedHandlerRegistry, since a single deserializer cannot serve them all.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> multiplexedConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "low-volume-multiplexed-group");
+        // Grup ilk açıldığında offset'i yoktur; latest ile aradaki kayıtlar atlanırdı
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return withClientMetrics(new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ByteArrayDeserializer()));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> multiplexedKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(multiplexedConsumerFactory());
+        factory.setConcurrency(multiplexedConcurrency);
+        applyListenerThreadModel(factory);
+        applyListenerMetrics(factory);
+        factory.setRecordFilterStrategy(poisonPillQuarantine);
+        factory.setCommonErrorHandler(defaultErrorHandler());
+        return factory;
+    }
+
+
     // ==================== FRAUD DECISION KAFKA ====================
 
 
@@ -363,22 +595,117 @@ public class KafkaConfiguration {
     public DefaultErrorHandler defaultErrorHandler() {
         FixedBackOff fixedBackOff = new FixedBackOff(3000L, 0);
 
-        return new DefaultErrorHandler(fixedBackOff);
+        return new DefaultErrorHandler(poisonPillQuarantine, fixedBackOff);
     }
 
-    // ==================== ERROR HANDLER TOPIC ====================
+    // ==================== POISON-PILL QUARANTINE ====================
 
     @Bean
-    public ProducerFactory<String, TransactionErrorEvent> errorEventProducerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    @ConditionalOnProperty(name = "kafka.quarantine.enabled", havingValue = "true")
+    public NewTopic quarantineTopic(@Value("${kafka.topics.quarantine:transaction-service.quarantine}") String topic,
+                                    @Value("${kafka.quarantine.partitions:3}") int partitions,
+                                    @Value("${kafka.quarantine.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
     }
 
+    // ==================== ERROR HANDLER TOPIC ====================
+
     @Bean
     public KafkaTemplate<String, TransactionErrorEvent> errorEventKafkaTemplate() {
-        return new KafkaTemplate<>(errorEventProducerFactory());
-    }
-}
\ No newline at end of file
+        return sharedKafkaTemplate();
+    }
+
+    // ==================== ACCOUNT ACTIVITY STREAM ====================
+
+    // transaction-completed kayıtları hesap bazlı rolling aggregate'leri besler (AccountActivityTopology)
+    @Bean
+    public KafkaTemplate<String, TransactionCompletedEvent> transactionCompletedKafkaTemplate() {
+        return sharedKafkaTemplate();
+    }
+
+    // Önce karantina (O(1) lookup), sonra deadline kontrolü
+    private RecordFilterStrategy<String, Object> quarantineAndDeadlineFilter() {
+        return record -> poisonPillQuarantine.filter(record) || expiredRecordFilterStrategy.filter(record);
+    }
+
+    private <V> ConsumerFactory<String, V> withClientMetrics(DefaultKafkaConsumerFactory<String, V> consumerFactory) {
+        // records-lag (partition bazında) dahil consumer client metriklerini Micrometer'a bağla
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
+    }
+
+    /**
+     * Record-age histogram for both record and batch listeners of the factory.
+     */
+    private <V> void applyListenerMetrics(ConcurrentKafkaListenerContainerFactory<String, V> factory) {
+        RecordAgeInterceptor<String, V> recordAgeInterceptor = new RecordAgeInterceptor<>(meterRegistry);
+        factory.setRecordInterceptor(recordAgeInterceptor);
+        factory.setBatchInterceptor(recordAgeInterceptor);
+    }
+
+    /**
+     * Saga groups: record-age metrics plus {@link RebalanceTracker} as rebalance listener and interceptor.
+     * With static membership every container gets its own group.instance.id (pod id + listener id,
+     * the container appends -n per consumer thread), so a restart within the session timeout does not
+     * rebalance the group at all.
+     */
+    @SuppressWarnings("unchecked")
+    private <V> void applyRebalanceHandling(ConcurrentKafkaListenerContainerFactory<String, V> factory,
+                                            List<RecordInterceptor<String, V>> additionalRecordInterceptors) {
+        RecordAgeInterceptor<String, V> recordAgeInterceptor = new RecordAgeInterceptor<>(meterRegistry);
+        RebalanceTracker<String, V> rebalanceTracker = new RebalanceTracker<>(meterRegistry, moneyTransferKafkaTemplate()::flush);
+        List<RecordInterceptor<String, V>> recordInterceptors = new ArrayList<>(List.of(recordAgeInterceptor, rebalanceTracker));
+        recordInterceptors.addAll(additionalRecordInterceptors);
+        RecordInterceptor<String, V>[] delegates = (RecordInterceptor<String, V>[]) recordInterceptors.toArray(new RecordInterceptor<?, ?>[0]);
+        factory.setRecordInterceptor(new CompositeRecordInterceptor<>(delegates));
+        factory.setBatchInterceptor(new CompositeBatchInterceptor<>(recordAgeInterceptor, rebalanceTracker));
+        factory.getContainerProperties().setConsumerRebalanceListener(rebalanceTracker);
+
+        if (!staticMembershipEnabled || !StringUtils.hasText(staticMembershipInstanceId)) {
+            return;
+        }
+        factory.setContainerCustomizer((ConcurrentMessageListenerContainer<String, V> container) -> {
+            // Factory'nin Properties nesnesi tüm container'larda ortak, her container kendi kopyasını alır
+            Properties consumerProperties = new Properties();
+            consumerProperties.putAll(container.getContainerProperties().getKafkaConsumerProperties());
+            consumerProperties.setProperty(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG,
+                    groupInstanceId(staticMembershipInstanceId + "-" + container.getListenerId()));
+            container.getContainerProperties().setKafkaConsumerProperties(consumerProperties);
+        });
+    }
+
+    private void applyRebalanceSettings(Map<String, Object> configProps) {
+        // Cooperative-sticky: rebalance'ta sadece taşınan partition'lar durur; RangeAssignor eski pod'larla geçiş için listede kalır
+        configProps.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, rebalanceAssignmentStrategy);
+        if (staticMembershipEnabled && StringUtils.hasText(staticMembershipInstanceId)) {
+            configProps.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, staticMembershipSessionTimeoutMs);
+        }
+    }
+
+    private static String groupInstanceId(String value) {
+        // group.instance.id sadece [a-zA-Z0-9._-] kabul eder, otomatik listener id'leri '#' içerir
+        String sanitized = value.replaceAll("[^a-zA-Z0-9._-]", "_");
+        return sanitized.length() > 240 ? sanitized.substring(sanitized.length() - 240) : sanitized;
+    }
+
+    /**
+     * Custom factories do not go through Boot's container factory configurer, so the virtual thread
+     * mode (spring.threads.virtual.enabled) is applied to their consumer threads here.
+     */
+    private void applyListenerThreadModel(ConcurrentKafkaListenerContainerFactory<?, ?> factory) {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        if (!JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            log.warn("spring.threads.virtual.enabled is set but the runtime is Java {}; listeners keep platform threads",
+                    JavaVersion.getJavaVersion());
+            return;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-vt-");
+        executor.setVirtualThreads(true);
+        factory.getContainerProperties().setListenerTaskExecutor(executor);
+    }
+}
@@ -0,0 +1,173 @@
+package com.modernbank.transaction_service.config;
+
+import com.modernbank.transaction_service.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.support.serializer.DeserializationException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking retries for the Kafka listeners.
+ *
+ * Responsibilities:
+ * - Move failing records to delayed retry topics (topic-retry-1000, -10000, -60000 by default)
+ *   so the main partitions keep flowing instead of blocking on a FixedBackOff
+ * - Send records that exhausted their attempts, or failed with a non-retryable exception,
+ *   to the shared transaction DLT
+ * - Count every hop per source and destination topic, so each tier can be watched on its own
+ *
+ * Only listeners that let a failure escape are covered: notification, chat notification and single invoice
+ * rethrow retryable Feign failures (connection errors, timeouts, 5xx, see RemoteFailures) while retry topics are
+ * enabled, deposit-money-to-atm propagates its sender lookup. The withdraw/deposit, transfer saga and
+ * withdraw-from-ATM listeners catch every exception and compensate in place, a retry would replay a compensated
+ * record; they stay on the blocking error handlers of {@link KafkaConfiguration}, as do the batch listener modes
+ * and the multiplexed low-volume listener.
+ */
+@Configuration
+@ConditionalOnProperty(name = "kafka.retry-topic.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class KafkaRetryTopicConfiguration extends RetryTopicConfigurationSupport {
+
+    private final MeterRegistry meterRegistry;
+
+    private final KafkaTemplate<String, Object> retryTopicKafkaTemplate;
+
+    @Value("${kafka.retry-topic.attempts:4}")
+    private int attempts;
+
+    @Value("${kafka.retry-topic.initial-interval-ms:1000}")
+    private long initialIntervalMs;
+
+    @Value("${kafka.retry-topic.multiplier:10}")
+    private double multiplier;
+
+    @Value("${kafka.retry-topic.max-interval-ms:60000}")
+    private long maxIntervalMs;
+
+    @Value("${kafka.retry-topic.partitions:3}")
+    private int partitions;
+
+    @Value("${kafka.retry-topic.replication-factor:1}")
+    private short replicationFactor;
+
+    @Value("${kafka.topics.transaction-dlt:transaction-service.DLT}")
+    private String transactionDltTopic;
+
+    @Value("${kafka.topics.deposit-money-to-atm:deposit-money-to-atm}")
+    private String depositMoneyToAtmTopic;
+
+    @Value("${kafka.topics.notification:notification-service}")
+    private String notificationTopic;
+
+    @Value("${kafka.topics.chat-notification:chat-notification-service}")
+    private String chatNotificationTopic;
+
+    @Value("${kafka.topics.invoice:send-invoice-service}")
+    private String invoiceTopic;
+
+    @Bean
+    public NewTopic transactionDeadLetterTopic() {
+        return TopicBuilder.name(transactionDltTopic)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "kafka.listener.multiplexed.enabled", havingValue = "false", matchIfMissing = true)
+    public RetryTopicConfiguration transferMoneyToATMRetryTopicConfiguration() {
+        return retryTopicBuilder("transferMoneyToATMKafkaListenerContainerFactory")
+                .includeTopic(depositMoneyToAtmTopic)
+                // Gönderen hesap sorgusu try dışında, yalnızca o çağrının hataları buraya ulaşır
+                .notRetryOn(List.of(
+                        IllegalArgumentException.class,
+                        NullPointerException.class,
+                        DeserializationException.class,
+                        NotFoundException.class))
+                .create(retryTopicKafkaTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "kafka.listener.notification.batch-enabled", havingValue = "false", matchIfMissing = true)
+    public RetryTopicConfiguration notificationRetryTopicConfiguration() {
+        return retryTopicBuilder("notificationKafkaListenerContainerFactory")
+                .includeTopic(notificationTopic)
+                .create(retryTopicKafkaTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "kafka.listener.multiplexed.enabled", havingValue = "false", matchIfMissing = true)
+    public RetryTopicConfiguration chatNotificationRetryTopicConfiguration() {
+        return retryTopicBuilder("sendChatNotificationKafkaListenerContainerFactory")
+                .includeTopic(chatNotificationTopic)
+                .create(retryTopicKafkaTemplate);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!${kafka.listener.invoice.batch-enabled:false} && !${kafka.listener.multiplexed.enabled:false}")
+    public RetryTopicConfiguration invoiceRetryTopicConfiguration() {
+        return retryTopicBuilder("sendGenerateInvoiceKafkaListenerContainerFactory")
+                .includeTopic(invoiceTopic)
+                .create(retryTopicKafkaTemplate);
+    }
+
+    @Override
+    protected Consumer<DeadLetterPublishingRecovererFactory> configureDeadLetterPublishingContainerFactory() {
+        return factory -> {
+            // Retry topic'lerin partition sayısı ana topic'ten farklı olabilir, partition'ı key belirlesin
+            factory.setPartitionResolver((record, topic) -> null);
+            factory.setDeadLetterPublisherCreator((templateResolver, destinationResolver) ->
+                    new DeadLetterPublishingRecoverer(templateResolver,
+                            (record, exception) -> resolveDestination(record, exception, destinationResolver.apply(record, exception))));
+        };
+    }
+
+    private RetryTopicConfigurationBuilder retryTopicBuilder(String listenerFactoryBeanName) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialIntervalMs, multiplier, maxIntervalMs)
+                .autoCreateTopics(true, partitions, replicationFactor)
+                .listenerFactory(listenerFactoryBeanName)
+                // Topic başına DLT yerine tüm hatalar ortak transaction DLT'ye yönlendirilir
+                .doNotConfigureDlt();
+    }
+
+    private TopicPartition resolveDestination(ConsumerRecord<?, ?> record, Exception exception, TopicPartition next) {
+        TopicPartition destination = next != null ? next : new TopicPartition(transactionDltTopic, -1);
+        Counter.builder("kafka.retry.routed")
+                .description("Records moved from a topic to its next retry tier or to the DLT")
+                .tag("source", record.topic())
+                .tag("destination", destination.topic())
+                .register(meterRegistry)
+                .increment();
+        if (next == null) {
+            log.error("Record sent to DLT {}: topic={}, partition={}, offset={}, key={}, error={}",
+                    transactionDltTopic, record.topic(), record.partition(), record.offset(), record.key(),
+                    exception.getMessage());
+        } else {
+            log.warn("Record moved to retry topic {}: source={}, offset={}, key={}, error={}",
+                    destination.topic(), record.topic(), record.offset(), record.key(), exception.getMessage());
+        }
+        return destination;
+    }
+}
@@ -0,0 +1,43 @@
+package com.modernbank.transaction_service.config;
+
+import com.modernbank.transaction_service.exception.RemoteFailures;
+import feign.RetryableException;
+import feign.Retryer;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration of NotificationServiceClient. Not a @Configuration on purpose: it only applies to the
+ * client that names it and overrides the global retryer of {@link ApplicationConfiguration}.
+ *
+ * Sending a notification is not idempotent, so only connect failures are retried; a read timeout means the
+ * request may already have been delivered.
+ */
+public class NotificationClientConfiguration {
+
+    @Bean
+    public Retryer notificationRetryer() {
+        return new ConnectFailureRetryer(new Retryer.Default(100, 1000, 3));
+    }
+
+    static class ConnectFailureRetryer implements Retryer {
+
+        private final Retryer delegate;
+
+        ConnectFailureRetryer(Retryer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void continueOrPropagate(RetryableException e) {
+            if (!RemoteFailures.isConnectFailure(e)) {
+                throw e;
+            }
+            delegate.continueOrPropagate(e);
+        }
+
+        @Override
+        public Retryer clone() {
+            return new ConnectFailureRetryer(delegate.clone());
+        }
+    }
+}
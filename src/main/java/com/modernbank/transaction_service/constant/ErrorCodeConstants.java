@@ -86,6 +86,8 @@ public class ErrorCodeConstants {
 
     public static final String DYNAMIC_ATM_DEPOSIT_LIMIT_EXCEEDED = "DTSE-0012";
 
+    public static final String DYNAMIC_REQUEST_EXPIRED = "DTSE-0013";
+
 
     public static final String TECH_TRANSFER_ERROR = "TECH_ERR_TRANSFER_FLOW";
 
@@ -12,4 +12,8 @@ public class HeaderKey {
     public static final String CORRELATION_ID = "X-Correlation-Id";
 
     public static final String IDEMPOTENCY_KEY = "X-Idempotency-Key";
+
+    public static final String DEADLINE = "X-Deadline";
+
+    public static final String SAGA_CHECKPOINT_PREFIX = "X-Saga-At-";
 }
\ No newline at end of file
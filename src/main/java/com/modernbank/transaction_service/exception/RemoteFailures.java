@@ -0,0 +1,55 @@
+package com.modernbank.transaction_service.exception;
+
+import feign.FeignException;
+import feign.RetryableException;
+
+import java.net.ConnectException;
+
+/**
+ * Classifies remote call failures for the listeners that hand retryable ones to the Kafka retry topics.
+ */
+public final class RemoteFailures {
+
+    private RemoteFailures() {
+    }
+
+    /**
+     * Connection errors, timeouts and 5xx answers of a Feign client: another attempt later can succeed.
+     */
+    public static boolean isRetryable(Exception exception) {
+        // CustomFeignErrorDecoder gövdesiz 5xx cevaplarını da RetryableException olarak döner
+        if (exception instanceof RetryableException) {
+            return true;
+        }
+        if (exception instanceof FeignException feignException) {
+            return feignException.status() >= 500;
+        }
+        if (exception instanceof RemoteDirectException remoteDirectException) {
+            return remoteDirectException.getHttpStatus() >= 500;
+        }
+        return false;
+    }
+
+    /**
+     * The connection could not be opened, so the request never reached the remote service.
+     */
+    public static boolean isConnectFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The request was sent but no answer came back (read timeout, dropped connection): the remote side
+     * may have processed it, so resending a non-idempotent call can duplicate its effect.
+     */
+    public static boolean isOutcomeUnknown(Exception exception) {
+        // Cevap gelmişse status dolu olur; status yoksa ve bağlantı kurulduysa istek işlenmiş olabilir
+        return exception instanceof RetryableException retryableException
+                && retryableException.status() < 0
+                && !isConnectFailure(retryableException);
+    }
+}
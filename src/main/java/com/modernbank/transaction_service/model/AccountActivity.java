@@ -0,0 +1,42 @@
+package com.modernbank.transaction_service.model;
+
+import com.modernbank.transaction_service.model.enums.TransactionCategory;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-account totals of completed transactions inside one window bucket of the account activity
+ * stream, or the merged totals of several buckets.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class AccountActivity {
+
+    private long count;
+
+    // Kategori adı (TransactionCategory.name()) -> toplam tutar
+    private Map<String, Double> sums = new HashMap<>();
+
+    public AccountActivity add(TransactionCompletedEvent event) {
+        count++;
+        if (event.getCategory() != null) {
+            sums.merge(event.getCategory().name(), event.getAmount(), Double::sum);
+        }
+        return this;
+    }
+
+    public AccountActivity merge(AccountActivity other) {
+        count += other.getCount();
+        other.getSums().forEach((category, sum) -> sums.merge(category, sum, Double::sum));
+        return this;
+    }
+
+    public double sumOf(TransactionCategory category) {
+        return sums.getOrDefault(category.name(), 0.0);
+    }
+}
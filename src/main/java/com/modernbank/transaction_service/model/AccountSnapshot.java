@@ -0,0 +1,43 @@
+package com.modernbank.transaction_service.model;
+
+import com.modernbank.transaction_service.model.enums.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSnapshot {
+    // Şema versiyonu, imza bu versiyonun alan sırasına göre hesaplanır
+    private int version;
+
+    private String accountId;
+
+    private String iban;
+
+    private String userId;
+
+    private String accountName;
+
+    private String firstName;
+
+    private String secondName;
+
+    private String lastName;
+
+    private Currency currency;
+
+    // Doğrulama anındaki bakiye, sadece bilgi amaçlı; bakiye kontrolü her zaman taze veriyle yapılır
+    private double balance;
+
+    // Hesabın account-service'ten okunduğu an (epoch millis)
+    private long fetchedAt;
+
+    // HMAC-SHA256 (Base64), yukarıdaki alanların kanonik hali üzerinden
+    private String signature;
+}
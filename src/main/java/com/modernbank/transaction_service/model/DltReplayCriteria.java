@@ -0,0 +1,34 @@
+package com.modernbank.transaction_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DltReplayCriteria {
+    // Sadece eşleşen kayıtları sayar, hiçbir şey göndermez
+    private boolean dryRun;
+
+    // Exception sınıfı: tam ad (com.x.NotFoundException) veya kısa ad (NotFoundException)
+    private String errorType;
+
+    // Orijinal topic filtresi (örn. start-transfer-money)
+    private String originalTopic;
+
+    // DLT'ye düşme zamanı aralığı
+    private LocalDateTime from;
+
+    private LocalDateTime to;
+
+    private int ratePerSecond;
+
+    private int maxInFlight;
+}
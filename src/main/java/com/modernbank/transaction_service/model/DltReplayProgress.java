@@ -0,0 +1,24 @@
+package com.modernbank.transaction_service.model;
+
+import com.modernbank.transaction_service.model.enums.DltReplayState;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Builder
+public class DltReplayProgress {
+    private DltReplayState state;
+    private DltReplayCriteria criteria;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long scanned;
+    private long matched;
+    private long replayed;
+    private long failed;
+    private double throughputPerSecond;
+    private Map<String, Long> matchedByTopic;
+    private String lastError;
+}
@@ -0,0 +1,27 @@
+package com.modernbank.transaction_service.model;
+
+import com.modernbank.transaction_service.model.enums.TransactionCategory;
+import com.modernbank.transaction_service.model.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionCompletedEvent {
+    private String transactionId;
+
+    // Kafka key ile aynı, hesap bazlı aggregate'ler bu alana göre tutulur
+    private String accountId;
+
+    private TransactionCategory category;
+
+    private TransactionType type;
+
+    private double amount;
+}
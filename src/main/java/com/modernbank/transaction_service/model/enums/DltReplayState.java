@@ -0,0 +1,9 @@
+package com.modernbank.transaction_service.model.enums;
+
+public enum DltReplayState {
+    IDLE,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.modernbank.transaction_service.model.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    PUBLISHED,
+    FAILED
+}
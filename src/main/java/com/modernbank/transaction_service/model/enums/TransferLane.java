@@ -0,0 +1,18 @@
+package com.modernbank.transaction_service.model.enums;
+
+public enum TransferLane {
+    STANDARD("start-transfer-money"),
+    PRIORITY("start-transfer-money-priority"),
+    RECOVERY("start-transfer-money-recovery"),
+    AI("start-transfer-money-ai");
+
+    private final String topic;
+
+    TransferLane(String topic) {
+        this.topic = topic;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+}
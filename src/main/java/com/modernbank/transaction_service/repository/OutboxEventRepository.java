@@ -0,0 +1,43 @@
+package com.modernbank.transaction_service.repository;
+
+import com.modernbank.transaction_service.entity.OutboxEvent;
+import com.modernbank.transaction_service.model.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+        /**
+         * Next pending events in insertion order. The row lock makes relays on other instances wait
+         * instead of publishing the same rows (and keeps per-key order across instances).
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT e FROM OutboxEvent e WHERE e.status = :status ORDER BY e.id ASC")
+        List<OutboxEvent> findNextBatchForPublish(@Param("status") OutboxStatus status, Pageable pageable);
+
+        @Modifying
+        @Query("UPDATE OutboxEvent e SET e.status = :status, e.publishedAt = :publishedAt, e.attempts = e.attempts + 1 " +
+                        "WHERE e.id IN :ids")
+        int markPublished(
+                        @Param("ids") List<Long> ids,
+                        @Param("status") OutboxStatus status,
+                        @Param("publishedAt") LocalDateTime publishedAt);
+
+        @Modifying
+        @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.publishedAt < :threshold")
+        int deletePublishedBefore(
+                        @Param("status") OutboxStatus status,
+                        @Param("threshold") LocalDateTime threshold);
+
+        long countByStatus(OutboxStatus status);
+}
@@ -1,10 +1,12 @@
 package com.modernbank.transaction_service.repository;
 
 import com.modernbank.transaction_service.entity.Transaction;
+import com.modernbank.transaction_service.model.enums.InvoiceStatus;
 import com.modernbank.transaction_service.model.enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -68,6 +70,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
                         @Param("startTime") LocalDateTime startTime,
                         @Param("endTime") LocalDateTime endTime);
 
+        @Query("SELECT t FROM Transaction t WHERE t.accountId IN :accountIds " +
+                        "AND t.type IN :types " +
+                        "AND t.date BETWEEN :startTime AND :endTime")
+        List<Transaction> findRecentWithdrawDeposits(
+                        @Param("accountIds") List<String> accountIds,
+                        @Param("types") List<TransactionType> types,
+                        @Param("startTime") LocalDateTime startTime,
+                        @Param("endTime") LocalDateTime endTime);
+
         @Query("""
                             SELECT t FROM Transaction t
                             WHERE t.accountId IN :accountIds
@@ -104,4 +115,19 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
 
         @Query("SELECT COALESCE(AVG(t.amount), 0) FROM Transaction t WHERE t.accountId IN :accountIds")
         Double getAverageAmountByAccountIdIn(@Param("accountIds") List<String> accountIds);
+
+        /**
+         * Writes an invoice result only while the invoice is still open (no status or one of openStatuses)
+         * and no other invoice id is stored, so a late result never overrides the invoice-service callback.
+         */
+        @Modifying
+        @Query("UPDATE Transaction t SET t.invoiceStatus = :status, t.invoiceId = :invoiceId " +
+                        "WHERE t.id = :id " +
+                        "AND (t.invoiceStatus IS NULL OR t.invoiceStatus IN :openStatuses) " +
+                        "AND (t.invoiceId IS NULL OR t.invoiceId = :invoiceId)")
+        int updateOpenInvoiceStatus(
+                        @Param("id") String id,
+                        @Param("status") InvoiceStatus status,
+                        @Param("invoiceId") String invoiceId,
+                        @Param("openStatuses") List<InvoiceStatus> openStatuses);
 }
\ No newline at end of file
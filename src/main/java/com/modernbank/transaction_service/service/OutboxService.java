@@ -0,0 +1,14 @@
+package com.modernbank.transaction_service.service;
+
+public interface OutboxService {
+
+    /**
+     * Stores a Kafka message in the outbox, joining the caller's transaction if there is one.
+     */
+    void enqueue(String topic, String key, Object payload);
+
+    /**
+     * Stores a Kafka message with an explicit traceId (carried as "traceId" / X-Correlation-Id headers).
+     */
+    void enqueue(String topic, String key, Object payload, String traceId);
+}
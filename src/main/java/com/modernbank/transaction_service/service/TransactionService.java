@@ -4,8 +4,12 @@ import com.modernbank.transaction_service.api.request.UpdateTransactionInvoiceSt
 import com.modernbank.transaction_service.model.TransactionListModel;
 import com.modernbank.transaction_service.api.request.GetAllTransactionsRequest;
 
+import java.util.List;
+
 public interface TransactionService {
     TransactionListModel getAllTransactionsByAccountId(GetAllTransactionsRequest request);
 
     void updateTransactionInvoiceStatus (UpdateTransactionInvoiceStatus request);
+
+    int updateTransactionInvoiceStatuses(List<UpdateTransactionInvoiceStatus> requests);
 }
\ No newline at end of file
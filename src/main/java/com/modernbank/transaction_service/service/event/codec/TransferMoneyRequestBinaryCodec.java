@@ -0,0 +1,200 @@
+package com.modernbank.transaction_service.service.event.codec;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.model.AccountSnapshot;
+import com.modernbank.transaction_service.model.enums.Currency;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact, schema-versioned binary layout for {@link TransferMoneyRequest} on the internal saga topics
+ * (start-, update- and finalize-transfer-money).
+ *
+ * Layout (version 1):
+ * - magic byte (0xB7, never the first byte of a JSON document) and schema version
+ * - fields in fixed order, strings as varint(length + 1) followed by UTF-8 bytes (0 means null)
+ * - amount as 8 byte double, isConfirmed as one byte (0 = null, 1 = false, 2 = true)
+ *
+ * Version 2 appends senderSnapshot and receiverSnapshot, each as a presence byte followed by the snapshot
+ * fields. Requests without snapshots are still written as version 1 so older readers keep decoding them
+ * during a rolling upgrade. Version 3 drops tckn from the snapshot fields; version 2 payloads are still
+ * read and their tckn is skipped.
+ *
+ * New fields are only appended with a new version; readers reject versions newer than they know.
+ */
+public final class TransferMoneyRequestBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xB7;
+
+    public static final byte CURRENT_VERSION = 3;
+
+    private static final byte SNAPSHOT_VERSION = 2;
+
+    private static final byte SNAPSHOT_WITHOUT_TCKN_VERSION = 3;
+
+    private TransferMoneyRequestBinaryCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(TransferMoneyRequest request) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            boolean withSnapshots = request.getSenderSnapshot() != null || request.getReceiverSnapshot() != null;
+            out.writeByte(MAGIC);
+            out.writeByte(withSnapshots ? SNAPSHOT_WITHOUT_TCKN_VERSION : 1);
+            writeString(out, request.getSenderTransactionId());
+            writeString(out, request.getReceiverTransactionId());
+            writeString(out, request.getFromIBAN());
+            writeString(out, request.getToIBAN());
+            out.writeDouble(request.getAmount());
+            writeString(out, request.getDescription());
+            writeString(out, request.getToFirstName());
+            writeString(out, request.getToSecondName());
+            writeString(out, request.getToLastName());
+            writeString(out, request.getByAi());
+            out.writeByte(request.getIsConfirmed() == null ? 0 : (request.getIsConfirmed() ? 2 : 1));
+            writeString(out, request.getToken());
+            writeString(out, request.getUserId());
+            if (withSnapshots) {
+                writeSnapshot(out, request.getSenderSnapshot());
+                writeSnapshot(out, request.getReceiverSnapshot());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode TransferMoneyRequest", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TransferMoneyRequest decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readByte() != MAGIC) {
+                throw new SerializationException("Not a binary TransferMoneyRequest payload");
+            }
+            byte version = in.readByte();
+            if (version < 1 || version > CURRENT_VERSION) {
+                throw new SerializationException("Unsupported TransferMoneyRequest schema version: " + version);
+            }
+
+            TransferMoneyRequest request = new TransferMoneyRequest();
+            request.setSenderTransactionId(readString(in));
+            request.setReceiverTransactionId(readString(in));
+            request.setFromIBAN(readString(in));
+            request.setToIBAN(readString(in));
+            request.setAmount(in.readDouble());
+            request.setDescription(readString(in));
+            request.setToFirstName(readString(in));
+            request.setToSecondName(readString(in));
+            request.setToLastName(readString(in));
+            request.setByAi(readString(in));
+            byte confirmed = in.readByte();
+            request.setIsConfirmed(confirmed == 0 ? null : confirmed == 2);
+            request.setToken(readString(in));
+            request.setUserId(readString(in));
+            if (version >= SNAPSHOT_VERSION) {
+                request.setSenderSnapshot(readSnapshot(in, version));
+                request.setReceiverSnapshot(readSnapshot(in, version));
+            }
+            return request;
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode TransferMoneyRequest", e);
+        }
+    }
+
+    private static void writeSnapshot(DataOutputStream out, AccountSnapshot snapshot) throws IOException {
+        if (snapshot == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        writeVarInt(out, snapshot.getVersion());
+        writeString(out, snapshot.getAccountId());
+        writeString(out, snapshot.getIban());
+        writeString(out, snapshot.getUserId());
+        writeString(out, snapshot.getAccountName());
+        writeString(out, snapshot.getFirstName());
+        writeString(out, snapshot.getSecondName());
+        writeString(out, snapshot.getLastName());
+        writeString(out, snapshot.getCurrency() == null ? null : snapshot.getCurrency().name());
+        out.writeDouble(snapshot.getBalance());
+        out.writeLong(snapshot.getFetchedAt());
+        writeString(out, snapshot.getSignature());
+    }
+
+    private static AccountSnapshot readSnapshot(DataInputStream in, byte version) throws IOException {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        AccountSnapshot snapshot = new AccountSnapshot();
+        snapshot.setVersion(readVarInt(in));
+        snapshot.setAccountId(readString(in));
+        snapshot.setIban(readString(in));
+        snapshot.setUserId(readString(in));
+        snapshot.setAccountName(readString(in));
+        snapshot.setFirstName(readString(in));
+        snapshot.setSecondName(readString(in));
+        snapshot.setLastName(readString(in));
+        if (version < SNAPSHOT_WITHOUT_TCKN_VERSION) {
+            // Eski yazıcıların tckn alanı okunup atılır
+            readString(in);
+        }
+        String currency = readString(in);
+        try {
+            snapshot.setCurrency(currency == null ? null : Currency.valueOf(currency));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Unknown currency in account snapshot: " + currency, e);
+        }
+        snapshot.setBalance(in.readDouble());
+        snapshot.setFetchedAt(in.readLong());
+        snapshot.setSignature(readString(in));
+        return snapshot;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, utf8.length + 1);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length - 1];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint in TransferMoneyRequest payload");
+    }
+}
@@ -0,0 +1,61 @@
+package com.modernbank.transaction_service.service.event.codec;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Reads saga messages in either format: payloads starting with the binary magic byte are decoded with
+ * {@link TransferMoneyRequestBinaryCodec}, everything else goes to a JsonDeserializer. This keeps mixed
+ * producers working during a rolling deploy.
+ *
+ * Used as the ErrorHandlingDeserializer delegate, the JSON fallback is configured from the consumer
+ * properties (spring.json.value.default.type, ...).
+ */
+public class TransferMoneyRequestBinaryDeserializer implements Deserializer<TransferMoneyRequest> {
+
+    private final JsonDeserializer<TransferMoneyRequest> jsonFallback;
+
+    public TransferMoneyRequestBinaryDeserializer() {
+        this.jsonFallback = new JsonDeserializer<>();
+    }
+
+    public TransferMoneyRequestBinaryDeserializer(JsonDeserializer<TransferMoneyRequest> jsonFallback) {
+        this.jsonFallback = jsonFallback;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonFallback.configure(configs, isKey);
+    }
+
+    @Override
+    public TransferMoneyRequest deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (TransferMoneyRequestBinaryCodec.isBinary(data)) {
+            return TransferMoneyRequestBinaryCodec.decode(data);
+        }
+        return jsonFallback.deserialize(topic, data);
+    }
+
+    @Override
+    public TransferMoneyRequest deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (TransferMoneyRequestBinaryCodec.isBinary(data)) {
+            return TransferMoneyRequestBinaryCodec.decode(data);
+        }
+        return jsonFallback.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonFallback.close();
+    }
+}
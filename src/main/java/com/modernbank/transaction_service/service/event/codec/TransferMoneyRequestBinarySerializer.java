@@ -0,0 +1,18 @@
+package com.modernbank.transaction_service.service.event.codec;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes saga messages with {@link TransferMoneyRequestBinaryCodec}.
+ */
+public class TransferMoneyRequestBinarySerializer implements Serializer<TransferMoneyRequest> {
+
+    @Override
+    public byte[] serialize(String topic, TransferMoneyRequest data) {
+        if (data == null) {
+            return null;
+        }
+        return TransferMoneyRequestBinaryCodec.encode(data);
+    }
+}
@@ -3,8 +3,10 @@ package com.modernbank.transaction_service.service.event.consumer;
 import com.modernbank.transaction_service.api.client.NotificationServiceClient;
 import com.modernbank.transaction_service.api.request.ChatNotificationRequest;
 import com.modernbank.transaction_service.exception.ProcessFailedException;
+import com.modernbank.transaction_service.exception.RemoteFailures;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -14,14 +16,26 @@ import org.springframework.stereotype.Service;
 public class ChatNotificationServiceConsumer {
     private final NotificationServiceClient notificationServiceClient;
 
+    @Value("${kafka.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
+
+    // Multiplexed modda retry topic yok; hata paylaşılan container'ı bloklamasın
+    @Value("${kafka.listener.multiplexed.enabled:false}")
+    private boolean multiplexedEnabled;
+
     @KafkaListener(topics = "chat-notification-service",
             groupId = "chat-notification-service-group",
-            containerFactory = "sendChatNotificationKafkaListenerContainerFactory")
+            containerFactory = "sendChatNotificationKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.multiplexed.enabled:false}}")
     public void consumeChatNotification(ChatNotificationRequest request) {
         try {
             log.info("Received Chat Notification by userid: {}", request.getUserId());
             notificationServiceClient.sendChatNotification(request);
         } catch (Exception e) {
+            if (retryTopicEnabled && !multiplexedEnabled && RemoteFailures.isRetryable(e)) {
+                // Bağlantı hatası / 5xx: retry topic'e devredilir
+                throw e;
+            }
             log.error("Error: {} processing chat notification by userId: {}", e.getMessage(), request.getUserId());
         }
 
@@ -0,0 +1,153 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.aspect.FeignCircuitBreakerCapability;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pauses the listener containers that depend on a remote service while its circuit breaker is OPEN.
+ *
+ * Responsibilities:
+ * - accountService breaker (Feign account-service calls) pauses the withdraw/deposit, transfer saga and ATM topics
+ * - fraudMLService breaker pauses the topics listed in kafka.listener.circuit-breaker-pause.fraud-ml-service-topics
+ *   (empty by default, fraud scoring fails open)
+ * - Containers resume on HALF_OPEN so trial calls can close the breaker again
+ * - Pause count, paused state and pause duration are exported per breaker
+ *
+ * Retry topic containers of a paused topic (topic-retry-*) are paused as well.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CircuitBreakerContainerPauser {
+
+    static final String FRAUD_ML_SERVICE_BREAKER = "fraudMLService";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.listener.circuit-breaker-pause.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.listener.circuit-breaker-pause.account-service-topics:withdraw-money,deposit-money,start-transfer-money,start-transfer-money-priority,start-transfer-money-recovery,start-transfer-money-ai,update-transfer-money,finalize-transfer-money,withdraw-money-from-atm,deposit-money-to-atm}")
+    private List<String> accountServiceTopics;
+
+    @Value("${kafka.listener.circuit-breaker-pause.fraud-ml-service-topics:}")
+    private List<String> fraudMLServiceTopics;
+
+    private final Map<String, Timer.Sample> pausedSince = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pausedState = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        bind(FeignCircuitBreakerCapability.ACCOUNT_SERVICE_BREAKER, accountServiceTopics);
+        bind(FRAUD_ML_SERVICE_BREAKER, fraudMLServiceTopics);
+    }
+
+    private void bind(String breakerName, List<String> topics) {
+        Set<String> topicSet = new HashSet<>(topics);
+        topicSet.removeIf(String::isBlank);
+        if (topicSet.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger paused = pausedState.computeIfAbsent(breakerName, name -> new AtomicInteger());
+        Gauge.builder("kafka.listener.paused", paused, AtomicInteger::get)
+                .description("1 while listener containers are paused because the circuit breaker is open")
+                .tag("breaker", breakerName)
+                .register(meterRegistry);
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(breakerName);
+        circuitBreaker.getEventPublisher().onStateTransition(event -> onStateTransition(event, topicSet));
+        log.info("Listener containers for topics {} follow circuit breaker {}", topicSet, breakerName);
+    }
+
+    void onStateTransition(CircuitBreakerOnStateTransitionEvent event, Set<String> topics) {
+        String breakerName = event.getCircuitBreakerName();
+        switch (event.getStateTransition().getToState()) {
+            case OPEN, FORCED_OPEN -> pause(breakerName, topics);
+            case HALF_OPEN, CLOSED -> resume(breakerName, topics);
+            default -> {
+                // DISABLED / METRICS_ONLY: breaker çağrıları engellemez, container'lar çalışmaya devam eder
+                resume(breakerName, topics);
+            }
+        }
+    }
+
+    private void pause(String breakerName, Set<String> topics) {
+        if (pausedSince.putIfAbsent(breakerName, Timer.start(meterRegistry)) != null) {
+            return;
+        }
+        int count = 0;
+        for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getAllListenerContainers()) {
+            if (listensTo(container, topics) && !container.isPauseRequested()) {
+                container.pause();
+                count++;
+            }
+        }
+        pausedState.get(breakerName).set(1);
+        Counter.builder("kafka.listener.pauses")
+                .description("Listener container pauses caused by an open circuit breaker")
+                .tag("breaker", breakerName)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Circuit breaker {} is OPEN, paused {} listener containers for topics {}", breakerName, count, topics);
+    }
+
+    private void resume(String breakerName, Set<String> topics) {
+        Timer.Sample sample = pausedSince.remove(breakerName);
+        if (sample == null) {
+            return;
+        }
+        for (MessageListenerContainer container : kafkaListenerEndpointRegistry.getAllListenerContainers()) {
+            if (listensTo(container, topics) && container.isPauseRequested()) {
+                container.resume();
+            }
+        }
+        pausedState.get(breakerName).set(0);
+        long pausedNanos = sample.stop(Timer.builder("kafka.listener.paused.duration")
+                .description("How long listener containers stayed paused for an open circuit breaker")
+                .tag("breaker", breakerName)
+                .register(meterRegistry));
+        log.info("Circuit breaker {} left OPEN, resumed listener containers for topics {} after {}",
+                breakerName, topics, Duration.ofNanos(pausedNanos));
+    }
+
+    private boolean listensTo(MessageListenerContainer container, Set<String> topics) {
+        String[] containerTopics = container.getContainerProperties().getTopics();
+        if (containerTopics == null) {
+            return false;
+        }
+        return Arrays.stream(containerTopics).anyMatch(topic -> topics.contains(baseTopic(topic)));
+    }
+
+    private String baseTopic(String topic) {
+        int retrySuffix = topic.indexOf("-retry");
+        return retrySuffix > 0 ? topic.substring(0, retrySuffix) : topic;
+    }
+}
@@ -1,53 +1,156 @@
 package com.modernbank.transaction_service.service.event.consumer;
 
 import com.modernbank.transaction_service.api.client.ParameterServiceClient;
+import com.modernbank.transaction_service.api.request.LogErrorBulkRequest;
 import com.modernbank.transaction_service.api.request.LogErrorRequest;
 import com.modernbank.transaction_service.model.TransactionErrorEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Consumes transaction-errors and forwards them to parameter-service.
+ *
+ * Responsibilities:
+ * - Count every error event per (errorCode, errorType) for rate dashboards
+ * - When aggregation is enabled, fold identical events of one window into a single counted summary
+ *   and forward all summaries of the window with one bulk call (falls back to single calls)
+ * - Raise the critical alert for the first occurrence of a key in each window instead of every event
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ErrorMonitoringConsumer {
 
     private final ParameterServiceClient parameterServiceClient;
-    //private final MetricsService metricsService; // Prometheus/Grafana için
 
-    @KafkaListener(topics = "transaction-errors", groupId = "error-monitoring-group")
+    private final MeterRegistry meterRegistry;
+
+    @Value("${error-monitoring.aggregation.enabled:false}")
+    private boolean aggregationEnabled;
+
+    private final Map<ErrorKey, ErrorSummary> pendingSummaries = new ConcurrentHashMap<>();
+
+    @KafkaListener(topics = "transaction-errors", groupId = "error-monitoring-group",
+            autoStartup = "#{!${kafka.listener.multiplexed.enabled:false}}")
     public void handleErrorEvent(TransactionErrorEvent event) {
         log.info("Processing error event: {}", event);
         String traceId = MDC.get("traceId");
+        errorCounter(event).increment();
+
+        if (aggregationEnabled) {
+            aggregate(event, traceId);
+            return;
+        }
 
         try {
-            LogErrorRequest logErrorRequest = LogErrorRequest.builder()
-                    .traceId(traceId)
-                    .requestPath("POST /api/v1/transfer")
-                    .exceptionName(event.getErrorType())
-                    .serviceName("transaction-service")
-                    .errorCode(event.getErrorCode())
-                    .errorMessage(event.getErrorMessage())
-                    .stackTrace("No stack trace available.")
-                    .timestamp(event.getTimestamp())
-                    .build();
-            logErrorRequest.setUserId(event.getUserId());
-
-            parameterServiceClient.logError(logErrorRequest);
+            parameterServiceClient.logError(toLogErrorRequest(event, traceId));
         } catch (Exception e) {
             log.error("Failed to log error to parameter service", e);
         }
-//        metricsService.incrementErrorCounter(event.getErrorCode());
 
         if (isCriticalError(event.getErrorType())) {
             sendAlertToOpsTeam(event);
         }
     }
 
+    @Scheduled(fixedDelayString = "${error-monitoring.aggregation.window-ms:10000}",
+            initialDelayString = "${error-monitoring.aggregation.window-ms:10000}")
+    public void flushAggregatedErrors() {
+        if (pendingSummaries.isEmpty()) {
+            return;
+        }
+
+        List<LogErrorRequest> summaries = new ArrayList<>();
+        for (ErrorKey key : List.copyOf(pendingSummaries.keySet())) {
+            // remove atomik, arada gelen event bir sonraki pencere için yeni özet açar
+            ErrorSummary summary = pendingSummaries.remove(key);
+            if (summary != null) {
+                summaries.add(summary.toLogErrorRequest());
+            }
+        }
+        if (summaries.isEmpty()) {
+            return;
+        }
+
+        try {
+            parameterServiceClient.logErrors(LogErrorBulkRequest.builder().errors(summaries).build());
+            meterRegistry.counter("transaction.errors.forwarded", "mode", "bulk").increment(summaries.size());
+            log.info("Forwarded {} aggregated error summaries to parameter service", summaries.size());
+        } catch (Exception bulkException) {
+            log.warn("Bulk error log failed, falling back to single calls for {} summaries", summaries.size(), bulkException);
+            for (LogErrorRequest summary : summaries) {
+                try {
+                    parameterServiceClient.logError(summary);
+                    meterRegistry.counter("transaction.errors.forwarded", "mode", "single").increment();
+                } catch (Exception e) {
+                    meterRegistry.counter("transaction.errors.forwarded", "mode", "dropped").increment();
+                    log.error("Failed to log aggregated error to parameter service: errorCode={}, occurrences={}",
+                            summary.getErrorCode(), summary.getOccurrenceCount(), e);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // Kapanışta pencerede bekleyen özetler kaybolmasın
+        if (aggregationEnabled) {
+            flushAggregatedErrors();
+        }
+    }
+
+    private void aggregate(TransactionErrorEvent event, String traceId) {
+        ErrorKey key = new ErrorKey(event.getErrorCode(), event.getErrorType());
+        boolean[] firstInWindow = new boolean[1];
+        pendingSummaries.compute(key, (errorKey, summary) -> {
+            if (summary == null) {
+                firstInWindow[0] = true;
+                return new ErrorSummary(toLogErrorRequest(event, traceId));
+            }
+            summary.add(event, traceId);
+            return summary;
+        });
+
+        if (firstInWindow[0] && isCriticalError(event.getErrorType())) {
+            sendAlertToOpsTeam(event);
+        }
+    }
+
+    private LogErrorRequest toLogErrorRequest(TransactionErrorEvent event, String traceId) {
+        LogErrorRequest logErrorRequest = LogErrorRequest.builder()
+                .traceId(traceId)
+                .requestPath("POST /api/v1/transfer")
+                .exceptionName(event.getErrorType())
+                .serviceName("transaction-service")
+                .errorCode(event.getErrorCode())
+                .errorMessage(event.getErrorMessage())
+                .stackTrace("No stack trace available.")
+                .timestamp(event.getTimestamp())
+                .build();
+        logErrorRequest.setUserId(event.getUserId());
+        return logErrorRequest;
+    }
+
+    private Counter errorCounter(TransactionErrorEvent event) {
+        return meterRegistry.counter("transaction.errors",
+                "errorCode", String.valueOf(event.getErrorCode()),
+                "errorType", String.valueOf(event.getErrorType()));
+    }
+
     private boolean isCriticalError(String errorCode) {
         return List.of("TECHNICAL_ERROR", "SERVICE_UNAVAILABLE", "ROLLBACK_FAILED")
                 .contains(errorCode);
@@ -56,4 +159,52 @@ public class ErrorMonitoringConsumer {
     private void sendAlertToOpsTeam(TransactionErrorEvent event) {
         log.error("CRITICAL ERROR ALERT: {}", event);
     }
-}
\ No newline at end of file
+
+    private record ErrorKey(String errorCode, String errorType) {
+    }
+
+    /**
+     * Counted summary of one (errorCode, errorType) key inside the current window.
+     * Mutated only inside ConcurrentHashMap.compute, so no extra locking is needed.
+     */
+    private static final class ErrorSummary {
+
+        private final LogErrorRequest sample;
+
+        private long count = 1;
+
+        private LocalDateTime firstOccurrence;
+
+        private LocalDateTime lastOccurrence;
+
+        private ErrorSummary(LogErrorRequest sample) {
+            this.sample = sample;
+            this.firstOccurrence = sample.getTimestamp();
+            this.lastOccurrence = sample.getTimestamp();
+        }
+
+        private void add(TransactionErrorEvent event, String traceId) {
+            count++;
+            LocalDateTime timestamp = event.getTimestamp();
+            if (timestamp != null) {
+                if (firstOccurrence == null || timestamp.isBefore(firstOccurrence)) {
+                    firstOccurrence = timestamp;
+                }
+                if (lastOccurrence == null || timestamp.isAfter(lastOccurrence)) {
+                    lastOccurrence = timestamp;
+                    // En güncel örnek mesaj ve trace korunur
+                    sample.setErrorMessage(event.getErrorMessage());
+                    sample.setTraceId(traceId);
+                    sample.setUserId(event.getUserId());
+                }
+            }
+        }
+
+        private LogErrorRequest toLogErrorRequest() {
+            sample.setOccurrenceCount(count);
+            sample.setFirstOccurrence(firstOccurrence);
+            sample.setTimestamp(lastOccurrence);
+            return sample;
+        }
+    }
+}
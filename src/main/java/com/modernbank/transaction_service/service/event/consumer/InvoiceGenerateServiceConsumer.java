@@ -2,11 +2,18 @@ package com.modernbank.transaction_service.service.event.consumer;
 
 import com.modernbank.transaction_service.api.client.InvoiceServiceClient;
 import com.modernbank.transaction_service.api.request.DynamicInvoiceRequest;
+import com.modernbank.transaction_service.exception.RemoteFailures;
+import com.modernbank.transaction_service.service.event.pipeline.InvoiceGenerationPipeline;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -14,13 +21,41 @@ public class InvoiceGenerateServiceConsumer {
 
     private final InvoiceServiceClient invoiceServiceClient;
 
-    @KafkaListener(topics = "send-invoice-service", groupId = "send-invoice-group", containerFactory = "sendGenerateInvoiceKafkaListenerContainerFactory")
+    private final InvoiceGenerationPipeline invoiceGenerationPipeline;
+
+    @Value("${kafka.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
+
+    // Multiplexed modda retry topic yok; hata paylaşılan container'ı bloklamasın
+    @Value("${kafka.listener.multiplexed.enabled:false}")
+    private boolean multiplexedEnabled;
+
+    @KafkaListener(topics = "send-invoice-service", groupId = "send-invoice-group", containerFactory = "sendGenerateInvoiceKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.invoice.batch-enabled:false} && !${kafka.listener.multiplexed.enabled:false}}")
     public void consumeGenerateInvoice(DynamicInvoiceRequest request) {
         try{
             log.info("Received invoice generation request for this userId: " + request.getUserId());
             invoiceServiceClient.generateInvoice(request);
         }catch (Exception e){
+            if (retryTopicEnabled && !multiplexedEnabled && RemoteFailures.isRetryable(e)) {
+                // Bağlantı hatası / 5xx: retry topic'e devredilir
+                throw e;
+            }
             log.error("Error: {} while generating invoice for userId{}: ",e.getMessage(), request.getUserId());
         }
     }
-}
\ No newline at end of file
+
+    @KafkaListener(id = "invoiceBatchListener", topics = "send-invoice-service", groupId = "send-invoice-group",
+            containerFactory = "sendGenerateInvoiceKafkaListenerContainerFactory", batch = "true",
+            autoStartup = "#{${kafka.listener.invoice.batch-enabled:false} && !${kafka.listener.multiplexed.enabled:false}}")
+    public void consumeGenerateInvoiceBatch(List<ConsumerRecord<String, DynamicInvoiceRequest>> records) {
+        List<DynamicInvoiceRequest> requests = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, DynamicInvoiceRequest> record : records) {
+            if (record.value() != null) {
+                requests.add(record.value());
+            }
+        }
+        log.info("Received invoice generation batch: records={}", requests.size());
+        invoiceGenerationPipeline.process(requests);
+    }
+}
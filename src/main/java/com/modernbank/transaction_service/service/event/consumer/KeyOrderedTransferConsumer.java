@@ -0,0 +1,87 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.service.event.dispatcher.KeyOrderedDispatcher;
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch listener for the transfer saga topics, enabled with {@code kafka.listener.key-ordered.enabled}.
+ * Records of one poll are fanned out by {@link KeyOrderedDispatcher}, so a slow account-service call for
+ * one sender IBAN no longer blocks the other accounts on the same partition. The business logic stays in
+ * {@link TransactionServiceConsumer}; its record listeners do not start while this mode is active.
+ * With {@code kafka.transfer.credit-coalescing.enabled} the update-transfer-money records of a poll are
+ * credited per receiver IBAN in one call before the remaining records are dispatched.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KeyOrderedTransferConsumer {
+
+    private final TransactionServiceConsumer transactionServiceConsumer;
+
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+
+    @Value("${kafka.transfer.credit-coalescing.enabled:false}")
+    private boolean creditCoalescingEnabled;
+
+    @KafkaListener(id = "keyOrderedTransferListener",
+            topics = {"start-transfer-money", "update-transfer-money", "finalize-transfer-money"},
+            groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            batch = "true", autoStartup = "${kafka.listener.key-ordered.enabled:false}")
+    public void consumeTransferBatch(List<ConsumerRecord<String, TransferMoneyRequest>> records) {
+        log.info("Received transfer batch for key-ordered dispatch: size={}", records.size());
+        if (!creditCoalescingEnabled) {
+            keyOrderedDispatcher.dispatch(records, this::route);
+            return;
+        }
+
+        // update adımları alıcı IBAN'a göre tek bakiye güncellemesinde birleştirilir, diğerleri lane'lere dağıtılır
+        List<ConsumerRecord<String, TransferMoneyRequest>> credits = new ArrayList<>();
+        List<ConsumerRecord<String, TransferMoneyRequest>> others = new ArrayList<>();
+        for (ConsumerRecord<String, TransferMoneyRequest> record : records) {
+            (record.value() != null && "update-transfer-money".equals(record.topic()) ? credits : others).add(record);
+        }
+        if (!credits.isEmpty()) {
+            transactionServiceConsumer.processUpdateTransferMoneyBatch(credits);
+        }
+        try {
+            keyOrderedDispatcher.dispatch(others, this::route);
+        } catch (BatchListenerFailedException exception) {
+            // Index alt listeye göre; container'a orijinal batch'teki kayıt bildirilir
+            throw new BatchListenerFailedException(exception.getMessage(), exception.getCause(),
+                    others.get(exception.getIndex()));
+        }
+    }
+
+    private void route(ConsumerRecord<String, TransferMoneyRequest> record) {
+        if (record.value() == null) {
+            // ErrorHandlingDeserializer batch modunda null değer bırakır
+            log.error("Undeserializable transfer record dropped: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset());
+            return;
+        }
+
+        // Lane'ler worker thread'lerde çalışır, saga checkpoint'leri kayıt başına burada bağlanır
+        SagaTimingContext.bind(record.topic(), record.headers());
+        try {
+            switch (record.topic()) {
+                case "start-transfer-money" -> transactionServiceConsumer.processStartTransferMoney(record.value());
+                case "update-transfer-money" -> transactionServiceConsumer.processUpdateTransferMoney(record.value());
+                case "finalize-transfer-money" -> transactionServiceConsumer.processFinalizeTransferMoney(record.value());
+                default -> log.warn("Unexpected topic for key-ordered transfer listener: {}", record.topic());
+            }
+        } finally {
+            SagaTimingContext.clear();
+        }
+    }
+}
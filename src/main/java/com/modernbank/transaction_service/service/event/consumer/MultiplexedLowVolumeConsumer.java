@@ -0,0 +1,63 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.api.request.ChatNotificationRequest;
+import com.modernbank.transaction_service.api.request.DynamicInvoiceRequest;
+import com.modernbank.transaction_service.api.request.TransferMoneyATMRequest;
+import com.modernbank.transaction_service.api.request.WithdrawFromATMRequest;
+import com.modernbank.transaction_service.model.TransactionErrorEvent;
+import com.modernbank.transaction_service.service.event.dispatcher.MultiplexedHandlerRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single listener for the low-volume topics, enabled with {@code kafka.listener.multiplexed.enabled}.
+ * One consumer, poll thread and broker connection set replace five dedicated containers; records are
+ * routed by topic through {@link MultiplexedHandlerRegistry} to the existing consumer methods, whose
+ * dedicated listeners do not start in this mode. The transfer saga and withdraw/deposit topics keep
+ * their own containers.
+ *
+ * The container pauses as a whole when the accountService breaker opens, because it reads the ATM topics.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MultiplexedLowVolumeConsumer {
+
+    private final MultiplexedHandlerRegistry multiplexedHandlerRegistry;
+
+    private final ChatNotificationServiceConsumer chatNotificationServiceConsumer;
+
+    private final InvoiceGenerateServiceConsumer invoiceGenerateServiceConsumer;
+
+    private final ErrorMonitoringConsumer errorMonitoringConsumer;
+
+    private final WithdrawFromATMServiceConsumer withdrawFromATMServiceConsumer;
+
+    @PostConstruct
+    public void registerHandlers() {
+        // Çağrılar bean proxy'si üzerinden gider, @Transactional ve listener aspect'leri korunur
+        multiplexedHandlerRegistry.register("chat-notification-service", ChatNotificationRequest.class,
+                chatNotificationServiceConsumer::consumeChatNotification);
+        multiplexedHandlerRegistry.register("send-invoice-service", DynamicInvoiceRequest.class,
+                invoiceGenerateServiceConsumer::consumeGenerateInvoice);
+        multiplexedHandlerRegistry.register("transaction-errors", TransactionErrorEvent.class,
+                errorMonitoringConsumer::handleErrorEvent);
+        multiplexedHandlerRegistry.register("withdraw-money-from-atm", WithdrawFromATMRequest.class,
+                withdrawFromATMServiceConsumer::withdrawMoneyFromATM);
+        multiplexedHandlerRegistry.register("deposit-money-to-atm", TransferMoneyATMRequest.class,
+                withdrawFromATMServiceConsumer::consumeDepositMoney);
+    }
+
+    @KafkaListener(id = "multiplexedLowVolumeListener",
+            topics = {"chat-notification-service", "send-invoice-service", "transaction-errors",
+                    "withdraw-money-from-atm", "deposit-money-to-atm"},
+            groupId = "low-volume-multiplexed-group", containerFactory = "multiplexedKafkaListenerContainerFactory",
+            autoStartup = "${kafka.listener.multiplexed.enabled:false}")
+    public void consume(ConsumerRecord<String, byte[]> record) {
+        multiplexedHandlerRegistry.dispatch(record);
+    }
+}
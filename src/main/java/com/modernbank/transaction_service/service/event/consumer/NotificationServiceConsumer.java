@@ -1,12 +1,25 @@
 package com.modernbank.transaction_service.service.event.consumer;
 
 import com.modernbank.transaction_service.api.client.NotificationServiceClient;
+import com.modernbank.transaction_service.api.dto.NotificationDeliveryResultDTO;
+import com.modernbank.transaction_service.api.request.SendNotificationBulkRequest;
 import com.modernbank.transaction_service.api.request.SendNotificationRequest;
+import com.modernbank.transaction_service.api.response.SendNotificationBulkResponse;
+import com.modernbank.transaction_service.exception.RemoteFailures;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 
 @Service
 @RequiredArgsConstructor
@@ -15,14 +28,133 @@ public class NotificationServiceConsumer {
 
     private final NotificationServiceClient notificationServiceClient;
 
-    @KafkaListener(topics = "notification-service", groupId = "notification-service-group", containerFactory = "notificationKafkaListenerContainerFactory")
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.listener.notification.bulk-size:100}")
+    private int bulkSize;
+
+    @Value("${kafka.retry-topic.enabled:false}")
+    private boolean retryTopicEnabled;
+
+    @KafkaListener(topics = "notification-service", groupId = "notification-service-group", containerFactory = "notificationKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.notification.batch-enabled:false}}")
     public void consumeNotification(SendNotificationRequest request) {
         try{
             log.info("Received Notification by userid: " + request.getUserId());
             notificationServiceClient.sendNotification(request);
         }catch(Exception e){
+            if (retryTopicEnabled && RemoteFailures.isRetryable(e)) {
+                // Bağlantı hatası / 5xx: retry topic'e devredilir
+                throw e;
+            }
             log.error("Error: {} while sending notification by userId {}: ",e.getMessage(),request.getUserId());
         }
 
     }
+
+    /**
+     * Micro-batch mode of the notification-service topic.
+     * Each poll (bounded by bulk-size records and the fetch window) is delivered with one bulk call per chunk;
+     * items the bulk call reports as failed, or the whole chunk when the bulk call fails or returns no results,
+     * fall back to single sends. A bulk call that timed out after being sent is not resent, since it may have
+     * been delivered.
+     * Like the single listener, delivery errors are logged and never block the partition.
+     */
+    @KafkaListener(id = "notificationBatchListener", topics = "notification-service", groupId = "notification-service-group",
+            containerFactory = "notificationKafkaListenerContainerFactory", batch = "true",
+            autoStartup = "${kafka.listener.notification.batch-enabled:false}")
+    public void consumeNotificationBatch(List<ConsumerRecord<String, SendNotificationRequest>> records) {
+        List<SendNotificationRequest> notifications = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, SendNotificationRequest> record : records) {
+            if (record.value() != null) {
+                notifications.add(record.value());
+            }
+        }
+        log.info("Received notification batch: records={}", notifications.size());
+
+        for (int start = 0; start < notifications.size(); start += bulkSize) {
+            sendBulk(notifications.subList(start, Math.min(start + bulkSize, notifications.size())));
+        }
+    }
+
+    private void sendBulk(List<SendNotificationRequest> chunk) {
+        SendNotificationBulkResponse response;
+        try {
+            response = notificationServiceClient.sendNotifications(SendNotificationBulkRequest.builder()
+                    .notifications(chunk)
+                    .build());
+        } catch (Exception e) {
+            countDelivery("bulk", "failure", chunk.size());
+            if (RemoteFailures.isOutcomeUnknown(e)) {
+                // Cevap gelmeden zaman aşımı: parça teslim edilmiş olabilir, tek tek gönderim tekrar bildirim üretir
+                log.error("Bulk notification call timed out for {} items, delivery unknown, not resending: {}",
+                        chunk.size(), e.getMessage());
+                return;
+            }
+            log.warn("Bulk notification call failed for {} items, falling back to single sends: {}",
+                    chunk.size(), e.getMessage());
+            chunk.forEach(this::sendSingle);
+            return;
+        }
+
+        List<NotificationDeliveryResultDTO> results = response == null ? null : response.getResults();
+        if (results == null) {
+            // Sonuç listesi yoksa hangi öğenin teslim edildiği bilinmez, parça başarısız sayılır
+            log.warn("Bulk notification call returned no results for {} items, falling back to single sends",
+                    chunk.size());
+            countDelivery("bulk", "failure", chunk.size());
+            chunk.forEach(this::sendSingle);
+            return;
+        }
+
+        Set<Integer> succeeded = new HashSet<>();
+        for (NotificationDeliveryResultDTO result : results) {
+            if (result.isSuccess()) {
+                succeeded.add(result.getIndex());
+            }
+        }
+        countDelivery("bulk", "success", succeeded.size());
+
+        for (int index = 0; index < chunk.size(); index++) {
+            if (succeeded.contains(index)) {
+                continue;
+            }
+            SendNotificationRequest failed = chunk.get(index);
+            log.warn("Bulk notification item {} failed for userId {}: {}, retrying as single send",
+                    index, failed.getUserId(), errorMessage(results, index));
+            countDelivery("bulk", "failure", 1);
+            sendSingle(failed);
+        }
+    }
+
+    private void sendSingle(SendNotificationRequest request) {
+        try {
+            notificationServiceClient.sendNotification(request);
+            countDelivery("single", "success", 1);
+        } catch (Exception e) {
+            countDelivery("single", "failure", 1);
+            log.error("Error: {} while sending notification by userId {}: ", e.getMessage(), request.getUserId());
+        }
+    }
+
+    private String errorMessage(List<NotificationDeliveryResultDTO> results, int index) {
+        for (NotificationDeliveryResultDTO result : results) {
+            if (result.getIndex() == index) {
+                return result.getErrorMessage();
+            }
+        }
+        return "no result returned";
+    }
+
+    private void countDelivery(String mode, String result, int count) {
+        if (count == 0) {
+            return;
+        }
+        Counter.builder("notification.delivery")
+                .description("Notifications delivered to notification-service by call mode and result")
+                .tag("mode", mode)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment(count);
+    }
 }
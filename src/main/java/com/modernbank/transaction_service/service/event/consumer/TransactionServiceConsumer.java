@@ -4,14 +4,25 @@ import com.modernbank.transaction_service.api.client.AccountServiceClient;
 import com.modernbank.transaction_service.api.request.*;
 import com.modernbank.transaction_service.api.response.GetAccountByIban;
 import com.modernbank.transaction_service.api.response.GetAccountByIdResponse;
+import com.modernbank.transaction_service.aspect.FeignCircuitBreakerCapability;
 import com.modernbank.transaction_service.entity.Transaction;
 import com.modernbank.transaction_service.exception.NotFoundException;
+import com.modernbank.transaction_service.model.AccountSnapshot;
 import com.modernbank.transaction_service.model.enums.*;
 import com.modernbank.transaction_service.repository.TransactionRepository;
 import com.modernbank.transaction_service.service.FraudEvaluationService;
+import com.modernbank.transaction_service.service.OutboxService;
 import com.modernbank.transaction_service.service.TechnicalErrorService;
+import com.modernbank.transaction_service.service.event.producer.NotificationDigestAggregator;
+import com.modernbank.transaction_service.service.event.producer.TransactionCompletedPublisher;
+import com.modernbank.transaction_service.service.event.saga.SagaLatencyRecorder;
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import com.modernbank.transaction_service.service.event.snapshot.AccountSnapshotPolicy;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,10 +30,18 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.modernbank.transaction_service.constant.ErrorCodeConstants.*;
 
@@ -40,6 +59,8 @@ public class TransactionServiceConsumer {
 
     private final KafkaTemplate<String, DynamicInvoiceRequest> dynamicInvoiceKafkaTemplate;
 
+    private final KafkaTemplate<String, Object> exactlyOnceKafkaTemplate;
+
     private final TechnicalErrorService technicalErrorService;
 
     private final AccountServiceClient accountServiceClient;
@@ -48,11 +69,30 @@ public class TransactionServiceConsumer {
 
     private final FraudEvaluationService fraudEvaluationService;
 
+    private final OutboxService outboxService;
+
+    private final SagaLatencyRecorder sagaLatencyRecorder;
+
+    private final NotificationDigestAggregator notificationDigestAggregator;
+
+    private final AccountSnapshotPolicy accountSnapshotPolicy;
+
+    private final TransactionCompletedPublisher transactionCompletedPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
     @Value("${fraud.enabled:true}")
     private boolean fraudDetectionEnabled;
 
+    @Value("${outbox.enabled:false}")
+    private boolean outboxEnabled;
+
+    @Value("${kafka.transfer.exactly-once.enabled:false}")
+    private boolean exactlyOnceEnabled;
+
     @Transactional
-    @KafkaListener(topics = "withdraw-money", groupId = "withdraw-and-deposit", containerFactory = "moneyWithdrawAndDepositKafkaListenerContainerFactory")
+    @KafkaListener(topics = "withdraw-money", groupId = "withdraw-and-deposit", containerFactory = "moneyWithdrawAndDepositKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.withdraw-deposit.batch-enabled:false}}")
     public void consumeWithdrawMoney(WithdrawAndDepositMoneyRequest request) {
         log.info("Received withdraw money request: {}", request);
 
@@ -89,23 +129,7 @@ public class TransactionServiceConsumer {
                 return;
             }
 
-            Transaction transaction = Transaction.builder()
-                    .accountId(account.getAccount().getId())
-                    .amount(request.getAmount())
-                    .currency(account.getAccount().getCurrency())
-                    .senderFirstName(account.getAccount().getFirstName())
-                    .senderSecondName(account.getAccount().getSecondName())
-                    .senderLastName(account.getAccount().getLastName())
-                    .type(TransactionType.EXPENSE)
-                    .channel(TransactionChannel.DIRECT_WITHDRAWAL)
-                    .category(TransactionCategory.WITHDRAWAL)
-                    .status(TransactionStatus.INITIATED)
-                    .description("İnternet Bankacılığı üzerinden para çekme işlemi")
-                    .title("Para Çekme")
-                    .date(LocalDateTime.now())
-                    .updatedDate(LocalDateTime.now())
-                    .isRecurring(false)
-                    .build();
+            Transaction transaction = buildWithdrawTransaction(request, account);
             transaction = transactionRepository.save(transaction);
 
             if (fraudDetectionEnabled) {
@@ -154,6 +178,7 @@ public class TransactionServiceConsumer {
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setUpdatedDate(LocalDateTime.now());
         transactionRepository.save(transaction);
+        transactionCompletedPublisher.publish(transaction);
 
         String traceId = MDC.get("traceId");
         String message = String.format("Hesabınızdan %.2f %s tutarında para çekme işlemi gerçekleştirildi.",
@@ -175,7 +200,7 @@ public class TransactionServiceConsumer {
         HashMap<String, Object> args = new HashMap<>();
         args.put("transactionId", transaction.getId());
 
-        notificationKafkaTemplate.send("notification-service", SendNotificationRequest.builder()
+        publishNotification(SendNotificationRequest.builder()
                 .userId(account.getAccount().getUserId())
                 .title("İşlem Onayı Gerekli")
                 .message(message)
@@ -201,12 +226,14 @@ public class TransactionServiceConsumer {
     }
 
     @Transactional
-    @KafkaListener(topics = "deposit-money", groupId = "withdraw-and-deposit", containerFactory = "moneyWithdrawAndDepositKafkaListenerContainerFactory")
+    @KafkaListener(topics = "deposit-money", groupId = "withdraw-and-deposit", containerFactory = "moneyWithdrawAndDepositKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.withdraw-deposit.batch-enabled:false}}")
     public void consumeDepositMoney(WithdrawAndDepositMoneyRequest request) {
         log.info("Received deposit money request: {}", request);
 
         try {
-            GetAccountByIdResponse account = accountServiceClient.getAccountById(request.getAccountId());
+            // Para yatırmada bakiye kontrolü yok, doğrulamadaki snapshot yeterli
+            GetAccountByIdResponse account = accountById(request.getAccountSnapshot(), request.getAccountId());
 
             boolean isDuplicate = transactionRepository.existsDuplicateWithdrawDeposit(
                     request.getAccountId(),
@@ -228,23 +255,7 @@ public class TransactionServiceConsumer {
                 return;
             }
 
-            Transaction transaction = Transaction.builder()
-                    .accountId(account.getAccount().getId())
-                    .amount(request.getAmount())
-                    .currency(account.getAccount().getCurrency())
-                    .senderFirstName(account.getAccount().getFirstName())
-                    .senderSecondName(account.getAccount().getSecondName())
-                    .senderLastName(account.getAccount().getLastName())
-                    .type(TransactionType.INCOME)
-                    .channel(TransactionChannel.DIRECT_DEPOSIT)
-                    .category(TransactionCategory.DEPOSIT)
-                    .status(TransactionStatus.INITIATED)
-                    .description("İnternet Bankacılığı üzerinden para yatırma işlemi")
-                    .title("Para Yatırma")
-                    .date(LocalDateTime.now())
-                    .updatedDate(LocalDateTime.now())
-                    .isRecurring(false)
-                    .build();
+            Transaction transaction = buildDepositTransaction(request, account);
             transaction = transactionRepository.save(transaction);
 
             if (fraudDetectionEnabled) {
@@ -292,6 +303,7 @@ public class TransactionServiceConsumer {
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setUpdatedDate(LocalDateTime.now());
         transactionRepository.save(transaction);
+        transactionCompletedPublisher.publish(transaction);
 
         String traceId = MDC.get("traceId");
         String message = String.format("Hesabınıza %.2f %s tutarında para yatırma işlemi gerçekleştirildi.",
@@ -313,7 +325,7 @@ public class TransactionServiceConsumer {
         HashMap<String, Object> args = new HashMap<>();
         args.put("transactionId", transaction.getId());
 
-        notificationKafkaTemplate.send("notification-service", SendNotificationRequest.builder()
+        publishNotification(SendNotificationRequest.builder()
                 .userId(account.getAccount().getUserId())
                 .title("İşlem Onayı Gerekli")
                 .message(message)
@@ -337,16 +349,215 @@ public class TransactionServiceConsumer {
         log.warn("Deposit blocked: transactionId={}, userId={}", transaction.getId(), account.getAccount().getUserId());
     }
 
+    /**
+     * Batch variant of {@link #consumeWithdrawMoney} and {@link #consumeDepositMoney}, enabled with
+     * {@code kafka.listener.withdraw-deposit.batch-enabled}. Accounts are resolved once per distinct id and
+     * duplicates are checked with a single query. Each accepted record is then inserted and processed in its own
+     * DB transaction, like the single-record listeners, so a failed record leaves no row behind that would make
+     * its retry look like a duplicate. Failures are reported per record so one bad record does not fail or roll
+     * back the rest of the batch. Withdrawals reserve the fetched balance only once they are actually debited;
+     * HOLD, BLOCK and failed withdrawals do not hold funds against later records of the batch.
+     */
+    @KafkaListener(id = "withdrawAndDepositBatchListener", topics = {"withdraw-money", "deposit-money"},
+            groupId = "withdraw-and-deposit", containerFactory = "moneyWithdrawAndDepositKafkaListenerContainerFactory",
+            batch = "true", autoStartup = "${kafka.listener.withdraw-deposit.batch-enabled:false}")
+    public void consumeWithdrawAndDepositBatch(List<ConsumerRecord<String, WithdrawAndDepositMoneyRequest>> records) {
+        log.info("Received withdraw/deposit batch: size={}", records.size());
+
+        int skipped = 0;
+        int failed = 0;
+
+        List<WithdrawDepositBatchItem> items = new ArrayList<>();
+        for (ConsumerRecord<String, WithdrawAndDepositMoneyRequest> record : records) {
+            if (record.value() == null || record.value().getAccountId() == null || record.value().getAmount() <= 0) {
+                log.error("Malformed withdraw/deposit record dropped: topic={}, partition={}, offset={}",
+                        record.topic(), record.partition(), record.offset());
+                failed++;
+                continue;
+            }
+            items.add(new WithdrawDepositBatchItem(record, record.value(),
+                    "deposit-money".equals(record.topic()) ? TransactionType.INCOME : TransactionType.EXPENSE));
+        }
+
+        // Para çekme olan hesaplar bakiye için taze okunur, sadece para yatırılan hesaplar snapshot kullanabilir
+        Set<String> withdrawAccountIds = new HashSet<>();
+        for (WithdrawDepositBatchItem item : items) {
+            if (item.getType() == TransactionType.EXPENSE) {
+                withdrawAccountIds.add(item.getRequest().getAccountId());
+            }
+        }
+
+        Map<String, GetAccountByIdResponse> accounts = new HashMap<>();
+        for (WithdrawDepositBatchItem item : items) {
+            String accountId = item.getRequest().getAccountId();
+            if (accounts.containsKey(accountId)) {
+                continue;
+            }
+            try {
+                accounts.put(accountId, withdrawAccountIds.contains(accountId)
+                        ? accountServiceClient.getAccountById(accountId)
+                        : accountById(item.getRequest().getAccountSnapshot(), accountId));
+            } catch (Exception exception) {
+                log.error("Account lookup failed in batch: accountId={}, error={}", accountId, exception.getMessage());
+                accounts.put(accountId, null);
+            }
+        }
+
+        Set<String> seen = new HashSet<>();
+        if (!accounts.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactionRepository.findRecentWithdrawDeposits(
+                            new ArrayList<>(accounts.keySet()),
+                            List.of(TransactionType.EXPENSE, TransactionType.INCOME),
+                            now.minusMinutes(1),
+                            now)
+                    .forEach(existing -> seen.add(
+                            duplicateKey(existing.getAccountId(), existing.getAmount(), existing.getType())));
+        }
+
+        Map<String, Boolean> blockedAccounts = new HashMap<>();
+        List<WithdrawDepositBatchItem> accepted = new ArrayList<>();
+
+        for (WithdrawDepositBatchItem item : items) {
+            WithdrawAndDepositMoneyRequest request = item.getRequest();
+            boolean isWithdraw = item.getType() == TransactionType.EXPENSE;
+            try {
+                GetAccountByIdResponse account = accounts.get(request.getAccountId());
+                if (account == null || account.getAccount() == null) {
+                    throw new NotFoundException(ACCOUNT_NOT_FOUND);
+                }
+                item.setAccount(account);
+
+                if (!seen.add(duplicateKey(request.getAccountId(), request.getAmount(), item.getType()))) {
+                    log.warn("Duplicate {} message detected in batch! Skipping. AccountId: {}",
+                            isWithdraw ? "withdraw" : "deposit", request.getAccountId());
+                    skipped++;
+                    continue;
+                }
+
+                if (fraudDetectionEnabled && blockedAccounts.computeIfAbsent(account.getAccount().getId(),
+                        fraudEvaluationService::isAccountBlocked)) {
+                    technicalErrorService.handleBusinessError(
+                            null,
+                            request.getUserId(),
+                            DYNAMIC_ACCOUNT_BLOCKED);
+                    skipped++;
+                    continue;
+                }
+
+                item.setTransaction(isWithdraw
+                        ? buildWithdrawTransaction(request, account)
+                        : buildDepositTransaction(request, account));
+                accepted.add(item);
+            } catch (Exception exception) {
+                failed++;
+                reportBatchItemFailure(item, exception);
+            }
+        }
+
+        int completed = 0;
+        Map<String, Double> availableBalances = new HashMap<>();
+        for (WithdrawDepositBatchItem item : accepted) {
+            WithdrawAndDepositMoneyRequest request = item.getRequest();
+            boolean isWithdraw = item.getType() == TransactionType.EXPENSE;
+            double available = availableBalances.getOrDefault(request.getAccountId(),
+                    item.getAccount().getAccount().getBalance());
+            if (isWithdraw && available < request.getAmount()) {
+                technicalErrorService.handleBusinessError(
+                        null,
+                        request.getUserId(),
+                        DYNAMIC_INSUFFICIENT_FUNDS,
+                        available,
+                        request.getAmount());
+                skipped++;
+                continue;
+            }
+            try {
+                // Satır da kaydın kendi transaction'ında yazılır; hata olursa satır geri alınır ve retry duplicate sayılmaz
+                transactionTemplate.executeWithoutResult(status -> {
+                    item.setTransaction(transactionRepository.save(item.getTransaction()));
+                    processWithdrawDepositBatchItem(item);
+                });
+                completed++;
+                // Sadece gerçekten düşülen çekimler bakiyeden ayrılır; HOLD/BLOCK sonraki kayıtları engellemez
+                if (isWithdraw && item.getTransaction().getStatus() == TransactionStatus.COMPLETED) {
+                    availableBalances.put(request.getAccountId(), available - request.getAmount());
+                }
+            } catch (Exception exception) {
+                failed++;
+                reportBatchItemFailure(item, exception);
+            }
+        }
+
+        log.info("Withdraw/deposit batch finished: size={}, processed={}, skipped={}, failed={}",
+                records.size(), completed, skipped, failed);
+    }
+
+    private void processWithdrawDepositBatchItem(WithdrawDepositBatchItem item) {
+        Transaction transaction = item.getTransaction();
+        WithdrawAndDepositMoneyRequest request = item.getRequest();
+        GetAccountByIdResponse account = item.getAccount();
+        boolean isWithdraw = item.getType() == TransactionType.EXPENSE;
+
+        if (fraudDetectionEnabled) {
+            FraudDecision decision = fraudEvaluationService.evaluateAndDecide(transaction,
+                    account.getAccount().getId());
+            if (isWithdraw) {
+                handleWithdrawFraudDecision(decision, transaction, request, account);
+            } else {
+                handleDepositFraudDecision(decision, transaction, request, account);
+            }
+        } else if (isWithdraw) {
+            processApprovedWithdraw(transaction, request, account);
+        } else {
+            processApprovedDeposit(transaction, request, account);
+        }
+    }
+
+    private void reportBatchItemFailure(WithdrawDepositBatchItem item, Exception exception) {
+        ConsumerRecord<String, WithdrawAndDepositMoneyRequest> record = item.getRecord();
+        log.error("Error processing {} record in batch: partition={}, offset={}, accountId={}, error={}",
+                record.topic(), record.partition(), record.offset(), item.getRequest().getAccountId(),
+                exception.getMessage());
+        technicalErrorService.handleTechnicalError(
+                item.getType() == TransactionType.EXPENSE ? TECH_WITHDRAW_MONEY_ERROR : TECH_DEPOSIT_MONEY_ERROR,
+                exception);
+    }
+
+    private String duplicateKey(String accountId, Double amount, TransactionType type) {
+        return accountId + "|" + amount + "|" + type;
+    }
+
+    @Getter
+    @Setter
+    @RequiredArgsConstructor
+    private static class WithdrawDepositBatchItem {
+        private final ConsumerRecord<String, WithdrawAndDepositMoneyRequest> record;
+        private final WithdrawAndDepositMoneyRequest request;
+        private final TransactionType type;
+        private GetAccountByIdResponse account;
+        private Transaction transaction;
+    }
+
     @Transactional
-    @KafkaListener(topics = "start-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory")
+    @KafkaListener(topics = "start-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.key-ordered.enabled:false}}")
     public void processStartTransferMoney(TransferMoneyRequest request) {
         log.info("Received transfer money request: {}", request);
         try {
             validateTransferRequest(request);
 
+            // Gönderen bakiye kontrolü için her zaman taze okunur, alıcı doğrulamadaki snapshot'tan gelir
             GetAccountByIban senderAccountByIban = accountServiceClient.getAccountByIban(request.getFromIBAN());
-            GetAccountByIban receiverAccountByIban = accountServiceClient.getAccountByIban(request.getToIBAN());
+            GetAccountByIban receiverAccountByIban = accountSnapshotPolicy.reuseByIban(request.getReceiverSnapshot(),
+                    request.getToIBAN());
+            if (receiverAccountByIban == null) {
+                receiverAccountByIban = accountServiceClient.getAccountByIban(request.getToIBAN());
+                request.setReceiverSnapshot(accountSnapshotPolicy.capture(request.getToIBAN(), receiverAccountByIban));
+            }
 
+            // Exactly-once modunda da gerekli: Kafka transaction'ı sadece sonraki adımı ve offset'i kapsar,
+            // updateBalance ve DB yazımı dışında kalır; fence/abort sonrası tekrar teslimde çift borçlandırmayı önler
             boolean isDuplicate = transactionRepository.existsDuplicateTransaction(
                     request.getFromIBAN(),
                     request.getToIBAN(),
@@ -453,10 +664,12 @@ public class TransactionServiceConsumer {
             case HOLD -> {
                 log.info("Fraud decision HOLD: saving transaction, awaiting confirmation");
                 processHoldTransfer(transaction, senderAccount);
+                sagaLatencyRecorder.recordExit(request, "HOLD");
             }
             case BLOCK -> {
                 log.warn("Fraud decision BLOCK: rejecting transaction");
                 processBlockedTransfer(transaction, senderAccount);
+                sagaLatencyRecorder.recordExit(request, "BLOCKED");
             }
         }
     }
@@ -467,7 +680,7 @@ public class TransactionServiceConsumer {
         transaction.setStatus(TransactionStatus.PENDING);
         transactionRepository.save(transaction);
 
-        transferMoneyKafkaTemplate.send("update-transfer-money", request);
+        publishTransferStep("update-transfer-money", request);
         log.info("Transfer approved and sent to Kafka: transactionId={}", transaction.getId());
     }
 
@@ -480,7 +693,7 @@ public class TransactionServiceConsumer {
 
         HashMap<String, Object> args = new HashMap<>();
         args.put("transactionId", transaction.getId());
-        notificationKafkaTemplate.send("notification-service", SendNotificationRequest.builder()
+        publishNotification(SendNotificationRequest.builder()
                 .userId(senderAccount.getUserId())
                 .title("İşlem Onayı Gerekli")
                 .message(message)
@@ -513,6 +726,48 @@ public class TransactionServiceConsumer {
         // throw new NotFoundException("Transaction rejected due to security reasons");
     }
 
+    private Transaction buildWithdrawTransaction(WithdrawAndDepositMoneyRequest request,
+            GetAccountByIdResponse account) {
+        return Transaction.builder()
+                .accountId(account.getAccount().getId())
+                .amount(request.getAmount())
+                .currency(account.getAccount().getCurrency())
+                .senderFirstName(account.getAccount().getFirstName())
+                .senderSecondName(account.getAccount().getSecondName())
+                .senderLastName(account.getAccount().getLastName())
+                .type(TransactionType.EXPENSE)
+                .channel(TransactionChannel.DIRECT_WITHDRAWAL)
+                .category(TransactionCategory.WITHDRAWAL)
+                .status(TransactionStatus.INITIATED)
+                .description("İnternet Bankacılığı üzerinden para çekme işlemi")
+                .title("Para Çekme")
+                .date(LocalDateTime.now())
+                .updatedDate(LocalDateTime.now())
+                .isRecurring(false)
+                .build();
+    }
+
+    private Transaction buildDepositTransaction(WithdrawAndDepositMoneyRequest request,
+            GetAccountByIdResponse account) {
+        return Transaction.builder()
+                .accountId(account.getAccount().getId())
+                .amount(request.getAmount())
+                .currency(account.getAccount().getCurrency())
+                .senderFirstName(account.getAccount().getFirstName())
+                .senderSecondName(account.getAccount().getSecondName())
+                .senderLastName(account.getAccount().getLastName())
+                .type(TransactionType.INCOME)
+                .channel(TransactionChannel.DIRECT_DEPOSIT)
+                .category(TransactionCategory.DEPOSIT)
+                .status(TransactionStatus.INITIATED)
+                .description("İnternet Bankacılığı üzerinden para yatırma işlemi")
+                .title("Para Yatırma")
+                .date(LocalDateTime.now())
+                .updatedDate(LocalDateTime.now())
+                .isRecurring(false)
+                .build();
+    }
+
     private Transaction createTransactionRecordForSender(
             TransferMoneyRequest request,
             GetAccountByIban senderAccount,
@@ -598,36 +853,201 @@ public class TransactionServiceConsumer {
         }
     }
 
-    @KafkaListener(topics = "update-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory")
+    @Transactional
+    @KafkaListener(topics = "update-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.key-ordered.enabled:false}}")
     public void processUpdateTransferMoney(TransferMoneyRequest request) {
         try {
-            accountServiceClient.updateBalance(request.getToIBAN(), request.getAmount());
+            Transaction receiverTransaction = findReceiverTransaction(request);
+            if (isReceiverCompensated(receiverTransaction)) {
+                // Transfer telafi edildi, gönderene iade yapıldı; alıcıya yatırılmaz
+                log.warn("Update transfer already compensated, skipping credit: receiverTransactionId={}",
+                        receiverTransaction.getId());
+                return;
+            }
+            if (isReceiverCredited(receiverTransaction)) {
+                // Tekrar teslim: alıcıya daha önce yatırıldı; PENDING'de kaldıysa finalize adımı yeniden gönderilir
+                log.info("Update transfer already applied, skipping credit: receiverTransactionId={}, status={}",
+                        receiverTransaction.getId(), receiverTransaction.getStatus());
+                if (receiverTransaction.getStatus() == TransactionStatus.PENDING) {
+                    publishTransferStep("finalize-transfer-money", request);
+                }
+                return;
+            }
 
-            transactionRepository.findById(request.getSenderTransactionId())
-                    .ifPresent(transaction -> {
-                        transaction.setStatus(TransactionStatus.PENDING);
-                        transactionRepository.save(transaction);
-                    });
+            accountServiceClient.updateBalance(request.getToIBAN(), request.getAmount());
 
-            transferMoneyKafkaTemplate.send("finalize-transfer-money", request);
+            markReceiverCredited(request, receiverTransaction);
         } catch (Exception exception) {
             log.error("Error at transfer update : ", exception.getMessage());
 
-            accountServiceClient.updateBalance(request.getFromIBAN(), request.getAmount());
-            transactionRepository.findById(request.getReceiverTransactionId())
-                    .ifPresent(transaction -> {
-                        transaction.setStatus(TransactionStatus.FAILED);
-                        transactionRepository.save(transaction);
-                    });
+            compensateTransferUpdate(request, exception);
+        }
+    }
 
-            technicalErrorService.handleTechnicalError(
-                    // request,
-                    TECH_UPDATE_TRANSFER_MONEY_ERROR,
-                    exception);
+    /**
+     * Coalesced variant of {@link #processUpdateTransferMoney} for the key-ordered batch listener, enabled with
+     * {@code kafka.transfer.credit-coalescing.enabled}. Credits of one poll batch are grouped by receiver IBAN
+     * and applied with a single netted updateBalance call per receiver, so hot merchant/payroll accounts see
+     * one row update per batch instead of one per transfer. Status updates and the finalize step stay per transfer.
+     * If the netted call fails no share was credited and every transfer of the group is compensated;
+     * if a per-transfer step fails afterwards, that transfer's share is debited back before compensation.
+     * Transfers whose receiver transaction is already PENDING or COMPLETED were credited by an earlier delivery
+     * (e.g. a batch re-seeked after a failure further down) and are left out of the netted amount; a still
+     * PENDING one gets its finalize step republished. Transfers whose receiver transaction is FAILED were
+     * compensated and are skipped.
+     */
+    public void processUpdateTransferMoneyBatch(List<ConsumerRecord<String, TransferMoneyRequest>> records) {
+        Map<String, List<TransferCreditItem>> creditsByReceiver = new LinkedHashMap<>();
+        int skipped = 0;
+        for (ConsumerRecord<String, TransferMoneyRequest> record : records) {
+            Transaction receiverTransaction = findReceiverTransaction(record.value());
+            if (isReceiverCompensated(receiverTransaction)) {
+                skipped++;
+                log.warn("Coalesced credit already compensated, skipping: partition={}, offset={}, receiverTransactionId={}",
+                        record.partition(), record.offset(), receiverTransaction.getId());
+                continue;
+            }
+            if (isReceiverCredited(receiverTransaction)) {
+                skipped++;
+                log.info("Coalesced credit already applied, skipping: partition={}, offset={}, receiverTransactionId={}, status={}",
+                        record.partition(), record.offset(), receiverTransaction.getId(), receiverTransaction.getStatus());
+                if (receiverTransaction.getStatus() == TransactionStatus.PENDING) {
+                    republishFinalize(record);
+                }
+                continue;
+            }
+            creditsByReceiver.computeIfAbsent(record.value().getToIBAN(), iban -> new ArrayList<>())
+                    .add(new TransferCreditItem(record, receiverTransaction));
+        }
+
+        int completed = 0;
+        int failed = 0;
+        for (Map.Entry<String, List<TransferCreditItem>> group : creditsByReceiver.entrySet()) {
+            List<TransferCreditItem> credits = group.getValue();
+            // double toplamında kuruş kayması olmaması için tutarlar BigDecimal ile toplanır
+            double nettedAmount = credits.stream()
+                    .map(item -> BigDecimal.valueOf(item.getRecord().value().getAmount()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .doubleValue();
+            try {
+                accountServiceClient.updateBalance(group.getKey(), nettedAmount);
+            } catch (Exception exception) {
+                log.error("Netted credit failed: toIBAN={}, transfers={}, amount={}, error={}",
+                        group.getKey(), credits.size(), nettedAmount, exception.getMessage());
+                for (TransferCreditItem item : credits) {
+                    failed++;
+                    compensateBatchTransferUpdate(item.getRecord(), exception, false);
+                }
+                continue;
+            }
+
+            for (TransferCreditItem item : credits) {
+                ConsumerRecord<String, TransferMoneyRequest> record = item.getRecord();
+                // Saga checkpoint'leri finalize adımına her transferin kendi header'larından taşınır
+                SagaTimingContext.bind(record.topic(), record.headers());
+                try {
+                    markReceiverCredited(record.value(), item.getReceiverTransaction());
+                    completed++;
+                } catch (Exception exception) {
+                    failed++;
+                    compensateBatchTransferUpdate(record, exception, true);
+                } finally {
+                    SagaTimingContext.clear();
+                }
+            }
+        }
+
+        log.info("Update transfer batch finished: size={}, receivers={}, completed={}, failed={}, skipped={}",
+                records.size(), creditsByReceiver.size(), completed, failed, skipped);
+    }
+
+    private void republishFinalize(ConsumerRecord<String, TransferMoneyRequest> record) {
+        SagaTimingContext.bind(record.topic(), record.headers());
+        try {
+            publishTransferStep("finalize-transfer-money", record.value());
+        } finally {
+            SagaTimingContext.clear();
+        }
+    }
+
+    private Transaction findReceiverTransaction(TransferMoneyRequest request) {
+        if (request.getReceiverTransactionId() == null) {
+            return null;
+        }
+        return transactionRepository.findById(request.getReceiverTransactionId()).orElse(null);
+    }
+
+    /**
+     * The receiver row is INITIATED until the credit, PENDING once credited and COMPLETED after finalize.
+     * The sender row cannot be used: it is already PENDING when update-transfer-money is published.
+     */
+    private boolean isReceiverCredited(Transaction receiverTransaction) {
+        return receiverTransaction != null
+                && (receiverTransaction.getStatus() == TransactionStatus.PENDING
+                || receiverTransaction.getStatus() == TransactionStatus.COMPLETED);
+    }
+
+    private boolean isReceiverCompensated(Transaction receiverTransaction) {
+        // compensateTransferUpdate alıcı kaydını FAILED yapar
+        return receiverTransaction != null && receiverTransaction.getStatus() == TransactionStatus.FAILED;
+    }
+
+    private void markReceiverCredited(TransferMoneyRequest request, Transaction receiverTransaction) {
+        if (receiverTransaction != null) {
+            receiverTransaction.setStatus(TransactionStatus.PENDING);
+            transactionRepository.save(receiverTransaction);
+        }
+
+        publishTransferStep("finalize-transfer-money", request);
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class TransferCreditItem {
+        private final ConsumerRecord<String, TransferMoneyRequest> record;
+        private final Transaction receiverTransaction;
+    }
+
+    private void compensateTransferUpdate(TransferMoneyRequest request, Exception exception) {
+        // Breaker OPEN olsa da iade denenir
+        FeignCircuitBreakerCapability.compensating(
+                () -> accountServiceClient.updateBalance(request.getFromIBAN(), request.getAmount()));
+        transactionRepository.findById(request.getReceiverTransactionId())
+                .ifPresent(transaction -> {
+                    transaction.setStatus(TransactionStatus.FAILED);
+                    transactionRepository.save(transaction);
+                });
+
+        technicalErrorService.handleTechnicalError(
+                // request,
+                TECH_UPDATE_TRANSFER_MONEY_ERROR,
+                exception);
+    }
+
+    private void compensateBatchTransferUpdate(ConsumerRecord<String, TransferMoneyRequest> record,
+                                               Exception exception,
+                                               boolean credited) {
+        TransferMoneyRequest request = record.value();
+        try {
+            if (credited) {
+                // Netted çağrıyla yatırılan bu transferin payı alıcıdan geri alınır
+                FeignCircuitBreakerCapability.compensating(
+                        () -> accountServiceClient.updateBalance(request.getToIBAN(), -request.getAmount()));
+            }
+            compensateTransferUpdate(request, exception);
+        } catch (Exception compensationException) {
+            // Bir transferin telafisi başarısız olsa da gruptaki diğer transferler telafi edilir
+            log.error("CRITICAL: Compensation failed for coalesced transfer update: partition={}, offset={}, senderTransactionId={}, error={}",
+                    record.partition(), record.offset(), request.getSenderTransactionId(),
+                    compensationException.getMessage());
+            technicalErrorService.handleTechnicalError(TECH_UPDATE_TRANSFER_MONEY_ERROR, compensationException);
         }
     }
 
-    @KafkaListener(topics = "finalize-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory")
+    @Transactional
+    @KafkaListener(topics = "finalize-transfer-money", groupId = "transfer-group", containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.key-ordered.enabled:false}}")
     public void processFinalizeTransferMoney(TransferMoneyRequest request) {
         if (request == null || request.getSenderTransactionId() == null || request.getReceiverTransactionId() == null) {
             log.error("CRITICAL: Received malformed request or missing TransactionID! Dropping message. Request: {}",
@@ -638,7 +1058,8 @@ public class TransactionServiceConsumer {
         try {
             String traceId = MDC.get("traceId");
 
-            GetAccountByIban receiver = accountServiceClient.getAccountByIban(request.getToIBAN());
+            GetAccountByIban receiver = accountByIban(request.getReceiverSnapshot(), request.getToIBAN());
+            // Fatura gönderenin hash'li TCKN'sini ister, snapshot'ta bulunmadığı için gönderen taze okunur
             GetAccountByIban sender = accountServiceClient.getAccountByIban(request.getFromIBAN());
 
             if (receiver == null || sender == null) {
@@ -646,6 +1067,17 @@ public class TransactionServiceConsumer {
                 throw new NotFoundException(ACCOUNT_NOT_FOUND);
             }
 
+            // Sender
+            Transaction senderTransaction = transactionRepository.findById(request.getSenderTransactionId())
+                    .orElseThrow(() -> new NotFoundException(
+                            "Transaction not found id: " + request.getSenderTransactionId()));
+            if (senderTransaction.getStatus() == TransactionStatus.COMPLETED) {
+                // Tekrar teslim: bildirim, limit ve fatura adımları ikinci kez çalıştırılmaz
+                log.info("Finalize transfer already applied, skipping: senderTransactionId={}",
+                        senderTransaction.getId());
+                return;
+            }
+
             StringBuilder sb = new StringBuilder();
             if (request.getToFirstName() != null && !request.getToFirstName().isEmpty()) {
                 sb.append(request.getToFirstName().substring(0, Math.min(3, request.getToFirstName().length()))
@@ -702,16 +1134,12 @@ public class TransactionServiceConsumer {
             updatePreviousFraudFlagSafe(sender.getAccountId(), false);
             updateTransactionLimit(sender.getAccountId(), request.getAmount(), TransactionCategory.TRANSFER.toString());
 
-            // Sender
-            Transaction senderTransaction = transactionRepository.findById(request.getSenderTransactionId())
-                    .orElseThrow(() -> new NotFoundException(
-                            "Transaction not found id: " + request.getSenderTransactionId()));
-
             senderTransaction.setStatus(TransactionStatus.COMPLETED);
             senderTransaction.setTitle("Para Transferi Gönderme");
             senderTransaction.setUpdatedDate(LocalDateTime.now());
             senderTransaction.setInvoiceStatus(InvoiceStatus.PENDING);
             transactionRepository.save(senderTransaction);
+            transactionCompletedPublisher.publish(senderTransaction);
             sendSafeCreateInvoice(sender, request, senderFullName, receiverFullName);
 
             Transaction receiverTransaction = transactionRepository.findById(request.getReceiverTransactionId())
@@ -722,9 +1150,12 @@ public class TransactionServiceConsumer {
             receiverTransaction.setTitle("Para Transferi Geldi");
             receiverTransaction.setUpdatedDate(LocalDateTime.now());
             transactionRepository.save(receiverTransaction);
+            transactionCompletedPublisher.publish(receiverTransaction);
 
+            sagaLatencyRecorder.recordExit(request, "COMPLETED");
         } catch (Exception exception) {
             log.error("Error at transfer finalize :  ", exception.getMessage());
+            sagaLatencyRecorder.recordExit(request, "FAILED");
 
             technicalErrorService.handleTechnicalError(
                     // request,
@@ -754,6 +1185,16 @@ public class TransactionServiceConsumer {
         }
     }
 
+    private GetAccountByIban accountByIban(AccountSnapshot snapshot, String iban) {
+        GetAccountByIban account = accountSnapshotPolicy.reuseByIban(snapshot, iban);
+        return account != null ? account : accountServiceClient.getAccountByIban(iban);
+    }
+
+    private GetAccountByIdResponse accountById(AccountSnapshot snapshot, String accountId) {
+        GetAccountByIdResponse account = accountSnapshotPolicy.reuseById(snapshot, accountId);
+        return account != null ? account : accountServiceClient.getAccountById(accountId);
+    }
+
     private void updatePreviousFraudFlagSafe(String accountId, Boolean flag) {
         try {
             accountServiceClient.updatePreviousFraudFlag(accountId, flag);
@@ -771,14 +1212,25 @@ public class TransactionServiceConsumer {
     }
 
     private void sendSafeNotification(String userId, String message, String type, String title, String traceId) {
+        SendNotificationRequest notification = SendNotificationRequest.builder()
+                .type(type)
+                .title(title)
+                .userId(userId)
+                .message(message)
+                .build();
+        if (outboxEnabled) {
+            // Bildirim iş transaction'ı ile birlikte yazılır; rollback olursa bildirim satırı da geri alınır.
+            // Hata yutulmaz, aksi halde transaction rollback-only kalıp commit'te patlar
+            outboxService.enqueue("notification-service", null, notification, traceId);
+            return;
+        }
         try {
+            // Digest modunda aynı kullanıcının pencere içindeki bildirimleri tek mesajda birleşir
+            if (notificationDigestAggregator.offer(notification, traceId)) {
+                return;
+            }
             ProducerRecord<String, SendNotificationRequest> record = new ProducerRecord<>("notification-service",
-                    SendNotificationRequest.builder()
-                            .type(type)
-                            .title(title)
-                            .userId(userId)
-                            .message(message)
-                            .build());
+                    notification);
             record.headers().add("traceId", traceId.getBytes());
 
             notificationKafkaTemplate.send(record);
@@ -797,6 +1249,41 @@ public class TransactionServiceConsumer {
         }
     }
 
+    /**
+     * Sends the next saga step; with the outbox enabled the message is stored in the current
+     * transaction and published by the relay after commit. Inside an exactly-once container transaction
+     * the send joins that transaction and becomes visible together with the consumed offset.
+     */
+    private void publishTransferStep(String topic, TransferMoneyRequest request) {
+        if (outboxEnabled) {
+            outboxService.enqueue(topic, request.getFromIBAN(), request);
+            return;
+        }
+        if (inExactlyOnceTransaction()) {
+            exactlyOnceKafkaTemplate.send(topic, request.getFromIBAN(), request);
+            return;
+        }
+        transferMoneyKafkaTemplate.send(topic, request.getFromIBAN(), request);
+    }
+
+    /**
+     * True when the transfer container runs the current record inside a Kafka transaction of the
+     * exactly-once producer. Key-ordered lanes run on worker threads without the transaction and keep
+     * the at-least-once path including the duplicate check.
+     */
+    private boolean inExactlyOnceTransaction() {
+        return exactlyOnceEnabled
+                && TransactionSynchronizationManager.getResource(exactlyOnceKafkaTemplate.getProducerFactory()) != null;
+    }
+
+    private void publishNotification(SendNotificationRequest notification) {
+        if (outboxEnabled) {
+            outboxService.enqueue("notification-service", null, notification);
+            return;
+        }
+        notificationKafkaTemplate.send("notification-service", notification);
+    }
+
     private void sendSafeCreateInvoice(GetAccountByIban account, TransferMoneyRequest request, String senderFullName,
             String receiverFullName) {
         try {
@@ -0,0 +1,49 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Listeners for the transfer priority lanes, enabled with {@code kafka.transfer-lanes.enabled}.
+ * Every lane has its own consumer group, container and concurrency budget, so a backlog on one lane
+ * does not delay the others. Client ids carry the lane name, consumer lag metrics are therefore per lane.
+ * The start step itself stays in {@link TransactionServiceConsumer}; the standard lane is its
+ * start-transfer-money listener.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransferLaneConsumer {
+
+    private final TransactionServiceConsumer transactionServiceConsumer;
+
+    @KafkaListener(id = "priorityTransferLaneListener", topics = "start-transfer-money-priority",
+            groupId = "transfer-group-priority", clientIdPrefix = "transfer-lane-priority",
+            containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            concurrency = "${kafka.transfer-lanes.priority.concurrency:2}",
+            autoStartup = "${kafka.transfer-lanes.enabled:false}")
+    public void consumePriorityTransfer(TransferMoneyRequest request) {
+        transactionServiceConsumer.processStartTransferMoney(request);
+    }
+
+    @KafkaListener(id = "recoveryTransferLaneListener", topics = "start-transfer-money-recovery",
+            groupId = "transfer-group-recovery", clientIdPrefix = "transfer-lane-recovery",
+            containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            concurrency = "${kafka.transfer-lanes.recovery.concurrency:1}",
+            autoStartup = "${kafka.transfer-lanes.enabled:false}")
+    public void consumeRecoveryTransfer(TransferMoneyRequest request) {
+        transactionServiceConsumer.processStartTransferMoney(request);
+    }
+
+    @KafkaListener(id = "aiTransferLaneListener", topics = "start-transfer-money-ai",
+            groupId = "transfer-group-ai", clientIdPrefix = "transfer-lane-ai",
+            containerFactory = "moneyTransferKafkaListenerContainerFactory",
+            concurrency = "${kafka.transfer-lanes.ai.concurrency:1}",
+            autoStartup = "${kafka.transfer-lanes.enabled:false}")
+    public void consumeAiTransfer(TransferMoneyRequest request) {
+        transactionServiceConsumer.processStartTransferMoney(request);
+    }
+}
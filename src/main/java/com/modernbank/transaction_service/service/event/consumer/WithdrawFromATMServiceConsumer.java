@@ -15,8 +15,11 @@ import com.modernbank.transaction_service.repository.ATMTransferRepository;
 import com.modernbank.transaction_service.repository.TransactionRepository;
 import com.modernbank.transaction_service.api.request.TransferMoneyATMRequest;
 import com.modernbank.transaction_service.api.request.WithdrawFromATMRequest;
+import com.modernbank.transaction_service.service.event.producer.NotificationDigestAggregator;
+import com.modernbank.transaction_service.service.event.producer.TransactionCompletedPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
@@ -47,7 +50,12 @@ public class WithdrawFromATMServiceConsumer {
 
     private final TransactionRepository transactionRepository;
 
-    @KafkaListener(topics = "deposit-money-to-atm", groupId = "transfer-money-to-atm-group", containerFactory = "transferMoneyToATMKafkaListenerContainerFactory")
+    private final NotificationDigestAggregator notificationDigestAggregator;
+
+    private final TransactionCompletedPublisher transactionCompletedPublisher;
+
+    @KafkaListener(topics = "deposit-money-to-atm", groupId = "transfer-money-to-atm-group", containerFactory = "transferMoneyToATMKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.multiplexed.enabled:false}}")
     public void consumeDepositMoney(TransferMoneyATMRequest request) {
         log.info("Received deposit money to atm request: {}", request);
         GetAccountByIban senderAccountInfo = accountServiceClient.getAccountByIban(request.getSenderIban());
@@ -131,6 +139,8 @@ public class WithdrawFromATMServiceConsumer {
                     .date(LocalDateTime.now())
                     .build();
             transactionRepository.save(transaction);
+            // Bakiye bu adımda düşüldü; ATM'den çekilince aynı satır COMPLETED olur ama tekrar yayınlanmaz
+            transactionCompletedPublisher.publish(transaction);
 
             atmTransfer.setTransactionId(transaction.getId());
             atmTransferRepository.save(atmTransfer);
@@ -159,7 +169,8 @@ public class WithdrawFromATMServiceConsumer {
         }
     }
 
-    @KafkaListener(topics = "withdraw-money-from-atm", groupId = "withdraw-money-from-atm-group", containerFactory = "withdrawFromATMKafkaListenerContainerFactory")
+    @KafkaListener(topics = "withdraw-money-from-atm", groupId = "withdraw-money-from-atm-group", containerFactory = "withdrawFromATMKafkaListenerContainerFactory",
+            autoStartup = "#{!${kafka.listener.multiplexed.enabled:false}}")
     public void withdrawMoneyFromATM(WithdrawFromATMRequest request) {
         try {
             List<ATMTransfer> atmTransfersOptional;
@@ -251,13 +262,18 @@ public class WithdrawFromATMServiceConsumer {
                         });*/
 
 
-                        notificationServiceClient.sendNotification(SendNotificationRequest.builder()
-                                .userId(accountServiceClient.getAccountByIban(senderIban).getUserId())
+                        // userId yukarıda çözülen hesaptan alınır, ikinci getAccountByIban çağrısı yapılmaz
+                        SendNotificationRequest notification = SendNotificationRequest.builder()
+                                .userId(accountByIban.getUserId())
                                 .title("Withdraw Money From ATM")
                                 .type(TransactionType.EXPENSE.getTransactionType())
                                 .message(String.format("Sender IBAN %s made %d transactions totaling %.2f TL withdrawn from %s ATM.", senderIban, transactionCount, totalAmount, atmInfo.getName()))
                                 .arguments(new HashMap<>())
-                                .build());
+                                .build();
+                        // Aynı kullanıcıya ait farklı gönderici IBAN'ları digest modunda tek bildirimde birleşir
+                        if (!notificationDigestAggregator.offer(notification, MDC.get("traceId"))) {
+                            notificationServiceClient.sendNotification(notification);
+                        }
                     });
 
         } catch (Exception e) {
@@ -0,0 +1,62 @@
+package com.modernbank.transaction_service.service.event.deadline;
+
+import com.modernbank.transaction_service.api.request.BaseRequest;
+import com.modernbank.transaction_service.service.TechnicalErrorService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.modernbank.transaction_service.constant.ErrorCodeConstants.DYNAMIC_REQUEST_EXPIRED;
+
+/**
+ * Drops records whose X-Deadline has passed before the listener runs, so a replayed backlog of
+ * abandoned requests costs one header read instead of Feign calls and DB queries.
+ *
+ * Responsibilities:
+ * - Discard expired records (record and batch listeners, discarded offsets are committed with the batch)
+ * - Tell the user through a business error that the request expired
+ * - Count discarded records and how late they were per topic
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExpiredRecordFilterStrategy implements RecordFilterStrategy<String, Object> {
+
+    // TechnicalErrorService, KafkaConfiguration template'lerine bağlı; döngüsel bağımlılık olmaması için geç çözülür
+    private final ObjectProvider<TechnicalErrorService> technicalErrorService;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean filter(ConsumerRecord<String, Object> record) {
+        Long deadline = MessageDeadlinePolicy.deadlineOf(record.headers());
+        if (deadline == null) {
+            return false;
+        }
+        long overdueMs = System.currentTimeMillis() - deadline;
+        if (overdueMs <= 0) {
+            return false;
+        }
+
+        meterRegistry.counter("kafka.records.expired", "topic", record.topic()).increment();
+        meterRegistry.timer("kafka.records.expired.overdue", "topic", record.topic())
+                .record(overdueMs, TimeUnit.MILLISECONDS);
+        log.warn("Discarding expired record: topic={}, partition={}, offset={}, overdueMs={}",
+                record.topic(), record.partition(), record.offset(), overdueMs);
+
+        if (record.value() instanceof BaseRequest request && request.getUserId() != null) {
+            try {
+                technicalErrorService.getObject().handleBusinessError(null, request.getUserId(), DYNAMIC_REQUEST_EXPIRED);
+            } catch (Exception e) {
+                log.warn("Failed to report expired request for userId: {}. Error: {}", request.getUserId(), e.getMessage());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.modernbank.transaction_service.service.event.deadline;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.modernbank.transaction_service.constant.HeaderKey.DEADLINE;
+
+/**
+ * Stamps user-initiated requests with an absolute deadline (epoch millis in the X-Deadline header).
+ *
+ * Responsibilities:
+ * - Build the producer record of withdraw-money, deposit-money and start-transfer-money (and its lanes) with the deadline header
+ * - Read the deadline back on the consumer side, records without the header never expire
+ *
+ * Only the entry topics are stamped: update/finalize hops run after money has moved and must always complete.
+ */
+@Component
+public class MessageDeadlinePolicy {
+
+    @Value("${kafka.deadline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kafka.deadline.withdraw-deposit-max-age-ms:300000}")
+    private long withdrawDepositMaxAgeMs;
+
+    @Value("${kafka.deadline.transfer-max-age-ms:300000}")
+    private long transferMaxAgeMs;
+
+    public <V> ProducerRecord<String, V> withDeadline(String topic, String key, V value) {
+        ProducerRecord<String, V> record = new ProducerRecord<>(topic, key, value);
+        long maxAgeMs = maxAgeMs(topic);
+        if (enabled && maxAgeMs > 0) {
+            long deadline = System.currentTimeMillis() + maxAgeMs;
+            record.headers().add(DEADLINE, String.valueOf(deadline).getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+
+    /**
+     * Deadline of the record in epoch millis, or null when the header is missing or unreadable.
+     */
+    public static Long deadlineOf(Headers headers) {
+        Header header = headers.lastHeader(DEADLINE);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long maxAgeMs(String topic) {
+        return switch (topic) {
+            case "withdraw-money", "deposit-money" -> withdrawDepositMaxAgeMs;
+            default -> topic.startsWith("start-transfer-money") ? transferMaxAgeMs : 0; // lane topic'leri dahil
+        };
+    }
+}
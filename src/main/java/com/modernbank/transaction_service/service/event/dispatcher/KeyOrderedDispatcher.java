@@ -0,0 +1,163 @@
+package com.modernbank.transaction_service.service.event.dispatcher;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches the records of one polled batch to a bounded worker pool while keeping
+ * records with the same key strictly in order.
+ *
+ * How it works:
+ * - Records are grouped into lanes by key (records without key get one lane per partition)
+ * - Each lane runs sequentially on a worker, different lanes run in parallel
+ * - The call returns only after every lane finished, so the container commits the batch afterwards
+ * - A failing record stops its lane; a BatchListenerFailedException is thrown for the lowest
+ *   failed index so offsets are committed only up to the records before it
+ *
+ * Records after the failed index that already completed in other lanes are redelivered,
+ * handlers must therefore stay idempotent: start-transfer runs its duplicate check, update and
+ * finalize skip transfers whose sender transaction already reached PENDING / COMPLETED.
+ */
+@Component
+@Slf4j
+public class KeyOrderedDispatcher {
+
+    @Value("${kafka.dispatcher.pool-size:16}")
+    private int poolSize;
+
+    @Value("${kafka.dispatcher.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    private Executor executor;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreadsEnabled && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            // Lane başına bir virtual thread, pool-size eşzamanlı lane sayısını sınırlar
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("key-ordered-dispatcher-vt-");
+            virtualExecutor.setVirtualThreads(true);
+            virtualExecutor.setConcurrencyLimit(poolSize);
+            this.executor = virtualExecutor;
+            return;
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "key-ordered-dispatcher-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // Kuyruk dolarsa lane listener thread'inde çalışır, poll döngüsü doğal olarak yavaşlar
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simpleAsyncTaskExecutor) {
+            simpleAsyncTaskExecutor.close();
+        }
+    }
+
+    public <K, V> void dispatch(List<ConsumerRecord<K, V>> records, Consumer<ConsumerRecord<K, V>> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            lanes.computeIfAbsent(laneKey(records.get(i)), key -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        AtomicInteger lowestFailedIndex = new AtomicInteger(Integer.MAX_VALUE);
+        Exception[] failures = new Exception[records.size()];
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(lanes.size());
+        for (List<Integer> lane : lanes.values()) {
+            futures.add(CompletableFuture.runAsync(
+                    () -> runLane(records, lane, handler, callerContext, lowestFailedIndex, failures), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            // CallerRunsPolicy durumunda lane listener thread'inde çalışmış olabilir, MDC geri yüklenir
+            if (callerContext != null) {
+                MDC.setContextMap(callerContext);
+            }
+        }
+
+        int failedIndex = lowestFailedIndex.get();
+        if (failedIndex != Integer.MAX_VALUE) {
+            ConsumerRecord<K, V> failed = records.get(failedIndex);
+            throw new BatchListenerFailedException(
+                    "Key-ordered dispatch failed at " + failed.topic() + "-" + failed.partition() + "@" + failed.offset(),
+                    failures[failedIndex], failedIndex);
+        }
+    }
+
+    private <K, V> void runLane(List<ConsumerRecord<K, V>> records,
+                                List<Integer> lane,
+                                Consumer<ConsumerRecord<K, V>> handler,
+                                Map<String, String> callerContext,
+                                AtomicInteger lowestFailedIndex,
+                                Exception[] failures) {
+        for (int index : lane) {
+            ConsumerRecord<K, V> record = records.get(index);
+            if (callerContext != null) {
+                MDC.setContextMap(callerContext);
+            }
+            Header correlationHeader = record.headers().lastHeader("X-Correlation-Id");
+            if (correlationHeader != null) {
+                MDC.put("traceId", new String(correlationHeader.value(), StandardCharsets.UTF_8));
+            }
+            try {
+                handler.accept(record);
+            } catch (Exception exception) {
+                log.error("Record failed in key-ordered lane, lane stopped: topic={}, partition={}, offset={}, key={}",
+                        record.topic(), record.partition(), record.offset(), record.key(), exception);
+                failures[index] = exception;
+                lowestFailedIndex.accumulateAndGet(index, Math::min);
+                return;
+            } finally {
+                MDC.clear();
+            }
+        }
+    }
+
+    private String laneKey(ConsumerRecord<?, ?> record) {
+        if (record.key() == null) {
+            return "partition:" + record.topic() + "-" + record.partition();
+        }
+        return "key:" + record.key();
+    }
+}
@@ -0,0 +1,78 @@
+package com.modernbank.transaction_service.service.event.dispatcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Topic to handler registry of the multiplexed low-volume consumer.
+ *
+ * Responsibilities:
+ * - Keep one typed handler per topic; the raw JSON value is bound to the handler's payload type
+ * - Dispatch a record to its handler and time it per topic and outcome
+ * - Reject records of unregistered topics instead of silently committing them
+ */
+@Component
+@RequiredArgsConstructor
+public class MultiplexedHandlerRegistry {
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TypedHandler<?>> handlers = new ConcurrentHashMap<>();
+
+    public <T> void register(String topic, Class<T> payloadType, Consumer<T> handler) {
+        if (handlers.putIfAbsent(topic, new TypedHandler<>(payloadType, handler)) != null) {
+            throw new IllegalStateException("Multiplexed handler already registered for topic " + topic);
+        }
+    }
+
+    public Set<String> topics() {
+        return Set.copyOf(handlers.keySet());
+    }
+
+    public void dispatch(ConsumerRecord<String, byte[]> record) {
+        TypedHandler<?> handler = handlers.get(record.topic());
+        if (handler == null) {
+            throw new IllegalStateException("No multiplexed handler registered for topic " + record.topic());
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            handler.handle(objectMapper, record.value());
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("kafka.multiplexed.dispatch")
+                    .description("Handler time of records consumed by the multiplexed listener")
+                    .tag("topic", record.topic())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private record TypedHandler<T>(Class<T> payloadType, Consumer<T> handler) {
+
+        void handle(ObjectMapper objectMapper, byte[] value) {
+            T payload;
+            try {
+                payload = value == null ? null : objectMapper.readValue(value, payloadType);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot read " + payloadType.getSimpleName() + " payload", e);
+            }
+            handler.accept(payload);
+        }
+    }
+}
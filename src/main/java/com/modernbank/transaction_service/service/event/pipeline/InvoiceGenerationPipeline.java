@@ -0,0 +1,208 @@
+package com.modernbank.transaction_service.service.event.pipeline;
+
+import com.modernbank.transaction_service.api.client.InvoiceServiceClient;
+import com.modernbank.transaction_service.api.request.DynamicInvoiceRequest;
+import com.modernbank.transaction_service.api.request.UpdateTransactionInvoiceStatus;
+import com.modernbank.transaction_service.api.response.CreateInvoicePDFResponse;
+import com.modernbank.transaction_service.model.enums.InvoiceStatus;
+import com.modernbank.transaction_service.service.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Invoice generation stage for the send-invoice-service batch listener.
+ *
+ * Responsibilities:
+ * - Call invoice-service for every request of a batch with bounded parallelism
+ * - Write the returned invoice id / status back to the transactions in one bulk update
+ * - Mark transactions whose invoice call failed as FAILED
+ * - Log and count a failed write-back instead of failing the batch, so generated invoices are not requested again
+ * - Expose throughput (processed counter, batch timer) and backlog (queued + in-flight gauge)
+ *
+ * The call returns after the write-back, so offsets of the batch are committed only once every
+ * invoice of it is accounted for.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceGenerationPipeline {
+
+    private final InvoiceServiceClient invoiceServiceClient;
+    private final TransactionService transactionService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.invoice-pipeline.parallelism:8}")
+    private int parallelism;
+
+    @Value("${kafka.invoice-pipeline.call-timeout-seconds:60}")
+    private long callTimeoutSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    private final AtomicInteger backlog = new AtomicInteger();
+
+    private Executor executor;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreadsEnabled && JavaVersion.getJavaVersion().isEqualOrNewerThan(JavaVersion.TWENTY_ONE)) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("invoice-pipeline-vt-");
+            virtualExecutor.setVirtualThreads(true);
+            virtualExecutor.setConcurrencyLimit(parallelism);
+            this.executor = virtualExecutor;
+        } else {
+            AtomicInteger threadCounter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "invoice-pipeline-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            // Kuyruk bir batch'ten büyük olamaz (max-poll-records), sınırsız kuyruk güvenli
+            this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+        }
+
+        Gauge.builder("invoice.pipeline.backlog", backlog, AtomicInteger::get)
+                .description("Invoice requests queued or in flight in the invoice pipeline")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("invoice.pipeline.batch.duration")
+                .description("Time to generate and write back one invoice batch")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor simpleAsyncTaskExecutor) {
+            simpleAsyncTaskExecutor.close();
+        }
+    }
+
+    public void process(List<DynamicInvoiceRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        batchTimer.record(() -> generateAndWriteBack(requests));
+    }
+
+    private void generateAndWriteBack(List<DynamicInvoiceRequest> requests) {
+        Map<String, String> callerContext = MDC.getCopyOfContextMap();
+        List<CompletableFuture<UpdateTransactionInvoiceStatus>> futures = new ArrayList<>(requests.size());
+        for (DynamicInvoiceRequest request : requests) {
+            backlog.incrementAndGet();
+            futures.add(CompletableFuture
+                    .supplyAsync(() -> generate(request, callerContext), executor)
+                    .orTimeout(callTimeoutSeconds, TimeUnit.SECONDS)
+                    .exceptionally(exception -> failed(request, exception))
+                    .whenComplete((result, exception) -> backlog.decrementAndGet()));
+        }
+
+        List<UpdateTransactionInvoiceStatus> updates = new ArrayList<>(requests.size());
+        for (CompletableFuture<UpdateTransactionInvoiceStatus> future : futures) {
+            UpdateTransactionInvoiceStatus update = future.join();
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            try {
+                int updated = transactionService.updateTransactionInvoiceStatuses(updates);
+                log.info("Invoice batch written back: requests={}, updates={}, transactionsUpdated={}",
+                        requests.size(), updates.size(), updated);
+            } catch (Exception exception) {
+                // Faturalar üretildi; batch tekrar teslim edilirse invoice-service'e ikinci kez gidilir.
+                // Satırlar açık durumda kalır, invoice-service callback'i ya da sonraki güncelleme tamamlar
+                countWriteBackFailures(updates.size());
+                log.error("Invoice batch write-back failed: requests={}, updates={}, transactionIds={}, error={}",
+                        requests.size(), updates.size(),
+                        updates.stream().map(UpdateTransactionInvoiceStatus::getTransactionId).toList(),
+                        exception.getMessage());
+            }
+        }
+    }
+
+    private UpdateTransactionInvoiceStatus generate(DynamicInvoiceRequest request, Map<String, String> callerContext) {
+        if (callerContext != null) {
+            MDC.setContextMap(callerContext);
+        }
+        try {
+            CreateInvoicePDFResponse response = invoiceServiceClient.generateInvoice(request);
+            countProcessed("success");
+            String transactionId = transactionId(request);
+            if (transactionId == null || response == null) {
+                return null;
+            }
+            return UpdateTransactionInvoiceStatus.builder()
+                    .transactionId(transactionId)
+                    .invoiceId(response.getRequestId())
+                    .status(response.getInvoiceStatus() != null ? response.getInvoiceStatus() : InvoiceStatus.PROCESSING)
+                    .build();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private UpdateTransactionInvoiceStatus failed(DynamicInvoiceRequest request, Throwable exception) {
+        countProcessed("failure");
+        log.error("Error: {} while generating invoice for userId {}: ", exception.getMessage(), request.getUserId());
+        String transactionId = transactionId(request);
+        if (transactionId == null) {
+            return null;
+        }
+        return UpdateTransactionInvoiceStatus.builder()
+                .transactionId(transactionId)
+                .status(InvoiceStatus.FAILED)
+                .build();
+    }
+
+    private String transactionId(DynamicInvoiceRequest request) {
+        if (request.getData() == null) {
+            return null;
+        }
+        Object transactionId = request.getData().get("transactionId");
+        return transactionId == null ? null : transactionId.toString();
+    }
+
+    private void countWriteBackFailures(int updates) {
+        Counter.builder("invoice.pipeline.writeback.failures")
+                .description("Invoice results that could not be written back to their transactions")
+                .register(meterRegistry)
+                .increment(updates);
+    }
+
+    private void countProcessed(String result) {
+        Counter.builder("invoice.pipeline.processed")
+                .description("Invoice requests processed by the invoice pipeline")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,150 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import com.modernbank.transaction_service.api.request.SendNotificationRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merges the notifications of one user inside a short window into a single digest message.
+ *
+ * Responsibilities:
+ * - Buffer notifications per userId while digest mode is enabled; callers send directly otherwise,
+ *   as they do for CRITICAL notifications
+ * - On every window flush publish one message per user: the original when it was alone,
+ *   a digest with all messages (and their count in arguments.digestCount) when several arrived
+ * - Flush pending digests on shutdown and count merged and published notifications
+ *
+ * Buffered notifications live in memory until the window closes, so flows that need the outbox
+ * guarantee keep sending through the outbox.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationDigestAggregator {
+
+    static final String DIGEST_TITLE = "İşlem Özeti";
+
+    private final KafkaTemplate<String, SendNotificationRequest> notificationKafkaTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.digest.enabled:false}")
+    private boolean enabled;
+
+    @Value("${notification.digest.max-pending-users:10000}")
+    private int maxPendingUsers;
+
+    private final Map<String, Digest> pendingDigests = new ConcurrentHashMap<>();
+
+    /**
+     * Buffers the notification for the current window. Returns false when the caller has to send it
+     * itself (digest mode off, no userId, CRITICAL type, or too many users pending).
+     */
+    public boolean offer(SendNotificationRequest notification, String traceId) {
+        // Güvenlik bildirimleri (CRITICAL) beklemeden ve tek başına gönderilir
+        if (!enabled || notification.getUserId() == null || "CRITICAL".equalsIgnoreCase(notification.getType())) {
+            return false;
+        }
+        if (pendingDigests.size() >= maxPendingUsers && !pendingDigests.containsKey(notification.getUserId())) {
+            meterRegistry.counter("notification.digest.bypassed").increment();
+            return false;
+        }
+        pendingDigests.compute(notification.getUserId(), (userId, digest) -> {
+            if (digest == null) {
+                return new Digest(notification, traceId);
+            }
+            digest.add(notification);
+            return digest;
+        });
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.digest.window-ms:2000}",
+            initialDelayString = "${notification.digest.window-ms:2000}")
+    public void flushDigests() {
+        if (pendingDigests.isEmpty()) {
+            return;
+        }
+        for (String userId : List.copyOf(pendingDigests.keySet())) {
+            // remove atomik, arada gelen bildirim bir sonraki pencerede yeni digest açar
+            Digest digest = pendingDigests.remove(userId);
+            if (digest == null) {
+                continue;
+            }
+            try {
+                ProducerRecord<String, SendNotificationRequest> record = new ProducerRecord<>("notification-service",
+                        digest.toNotification());
+                if (digest.traceId != null) {
+                    record.headers().add("traceId", digest.traceId.getBytes(StandardCharsets.UTF_8));
+                }
+                notificationKafkaTemplate.send(record);
+                meterRegistry.counter("notification.digest.published",
+                        "kind", digest.notifications.size() > 1 ? "digest" : "single").increment();
+                meterRegistry.counter("notification.digest.merged").increment(digest.notifications.size());
+            } catch (Exception e) {
+                log.warn("Failed to publish notification digest for userId: {}, notifications: {}. Error: {}",
+                        userId, digest.notifications.size(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        // Kapanışta pencerede bekleyen bildirimler kaybolmasın
+        if (enabled) {
+            flushDigests();
+        }
+    }
+
+    /**
+     * Notifications of one user inside the current window.
+     * Mutated only inside ConcurrentHashMap.compute, so no extra locking is needed.
+     */
+    private static final class Digest {
+
+        private final List<SendNotificationRequest> notifications = new ArrayList<>();
+
+        private final String traceId;
+
+        private Digest(SendNotificationRequest first, String traceId) {
+            this.notifications.add(first);
+            this.traceId = traceId;
+        }
+
+        private void add(SendNotificationRequest notification) {
+            notifications.add(notification);
+        }
+
+        private SendNotificationRequest toNotification() {
+            SendNotificationRequest first = notifications.get(0);
+            if (notifications.size() == 1) {
+                return first;
+            }
+            boolean sameTitle = notifications.stream().allMatch(n -> String.valueOf(first.getTitle()).equals(n.getTitle()));
+            boolean sameType = notifications.stream().allMatch(n -> String.valueOf(first.getType()).equals(n.getType()));
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("digestCount", notifications.size());
+            return SendNotificationRequest.builder()
+                    .userId(first.getUserId())
+                    .title(sameTitle ? first.getTitle() : DIGEST_TITLE)
+                    .type(sameType ? first.getType() : "INFO")
+                    .message(String.join("\n", notifications.stream().map(SendNotificationRequest::getMessage).toList()))
+                    .arguments(arguments)
+                    .build();
+        }
+    }
+}
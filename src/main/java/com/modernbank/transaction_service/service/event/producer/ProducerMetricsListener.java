@@ -0,0 +1,102 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-topic send metrics for the shared producer.
+ * Client-level batching metrics (batch-size-avg, compression-rate-avg, record-queue-time-avg)
+ * come from the MicrometerProducerListener registered on the producer factory.
+ *
+ * Also registered as the KafkaTemplate's producer interceptor: {@link #onSend} wraps the record with the
+ * time send() was called, and the template hands that same record to {@link #onSuccess}. The record
+ * timestamp is not used, since callers and log-append-time topics can set it to something else.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProducerMetricsListener implements ProducerListener<String, Object>, ProducerInterceptor<String, Object> {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public ProducerRecord<String, Object> onSend(ProducerRecord<String, Object> producerRecord) {
+        return new TimedProducerRecord(producerRecord, System.nanoTime());
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<String, Object> producerRecord, RecordMetadata recordMetadata) {
+        String topic = recordMetadata.topic();
+
+        if (producerRecord instanceof TimedProducerRecord timedRecord) {
+            Timer.builder("kafka.producer.send.latency")
+                    .description("Time from send() until the broker acknowledged the record")
+                    .tag("topic", topic)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - timedRecord.getSendStartNanos()));
+        }
+
+        DistributionSummary.builder("kafka.producer.record.size")
+                .description("Serialized record value size")
+                .baseUnit("bytes")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .record(Math.max(0, recordMetadata.serializedValueSize()));
+    }
+
+    @Override
+    public void onError(ProducerRecord<String, Object> producerRecord, RecordMetadata recordMetadata,
+                        Exception exception) {
+        Counter.builder("kafka.producer.send.errors")
+                .description("Records the broker did not acknowledge")
+                .tag("topic", producerRecord.topic())
+                .tag("exception", exception.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+        log.error("Kafka send failed: topic={}, key={}, error={}", producerRecord.topic(), producerRecord.key(),
+                exception.getMessage());
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata recordMetadata, Exception exception) {
+
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public void configure(Map<String, ?> map) {
+
+    }
+
+    /**
+     * Copy of the record (headers included) plus the moment it was handed to the producer.
+     */
+    @Getter
+    static class TimedProducerRecord extends ProducerRecord<String, Object> {
+
+        private final long sendStartNanos;
+
+        TimedProducerRecord(ProducerRecord<String, Object> record, long sendStartNanos) {
+            super(record.topic(), record.partition(), record.timestamp(), record.key(), record.value(), record.headers());
+            this.sendStartNanos = sendStartNanos;
+        }
+    }
+}
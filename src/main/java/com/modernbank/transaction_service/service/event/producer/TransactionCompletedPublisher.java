@@ -0,0 +1,66 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import com.modernbank.transaction_service.entity.Transaction;
+import com.modernbank.transaction_service.model.TransactionCompletedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes a {@link TransactionCompletedEvent} (key = accountId) once the balance change of a transaction
+ * row has been applied, feeding the account activity stream.
+ *
+ * Inside a DB transaction the event is sent after commit, so rolled-back rows never reach the aggregates.
+ * Publishing is best effort: a lost event only makes the stream undercount until the row ages out,
+ * callers that need exact figures keep the SQL path (transaction-aggregates.enabled=false).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionCompletedPublisher {
+
+    private final KafkaTemplate<String, TransactionCompletedEvent> transactionCompletedKafkaTemplate;
+
+    @Value("${transaction-aggregates.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.topics.transaction-completed:transaction-completed}")
+    private String topic;
+
+    public void publish(Transaction transaction) {
+        if (!enabled || transaction == null || transaction.getAccountId() == null) {
+            return;
+        }
+        TransactionCompletedEvent event = TransactionCompletedEvent.builder()
+                .transactionId(transaction.getId())
+                .accountId(transaction.getAccountId())
+                .category(transaction.getCategory())
+                .type(transaction.getType())
+                .amount(transaction.getAmount() == null ? 0 : transaction.getAmount())
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(TransactionCompletedEvent event) {
+        try {
+            transactionCompletedKafkaTemplate.send(topic, event.getAccountId(), event);
+        } catch (Exception e) {
+            log.warn("Failed to publish transaction-completed event for transactionId: {}. Error: {}",
+                    event.getTransactionId(), e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,11 @@ import com.modernbank.transaction_service.api.request.WithdrawAndDepositMoneyReq
 import com.modernbank.transaction_service.api.response.BaseResponse;
 import com.modernbank.transaction_service.api.response.GetAccountByIban;
 import com.modernbank.transaction_service.exception.NotFoundException;
+import com.modernbank.transaction_service.model.AccountSnapshot;
 import com.modernbank.transaction_service.service.event.ITransactionServiceProducer;
+import com.modernbank.transaction_service.service.event.deadline.MessageDeadlinePolicy;
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import com.modernbank.transaction_service.service.event.snapshot.AccountSnapshotPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.producer.ProducerRecord;
@@ -27,17 +31,25 @@ public class TransactionServiceProducerImpl implements ITransactionServiceProduc
 
     private final AccountServiceClient accountServiceClient;
 
+    private final MessageDeadlinePolicy messageDeadlinePolicy;
+
+    private final TransferLaneRouter transferLaneRouter;
+
+    private final AccountSnapshotPolicy accountSnapshotPolicy;
+
     @Override
     public BaseResponse withdrawMoney(WithdrawAndDepositMoneyRequest request) {
         log.info("Sending withdraw money request to Kafka topic");
-        withdrawAndDepositMoneyKafkaTemplate.send("withdraw-money", request);
+        withdrawAndDepositMoneyKafkaTemplate.send(
+                messageDeadlinePolicy.withDeadline("withdraw-money", request.getAccountId(), request));
         return new BaseResponse("Para çekme talebi başarıyla gönderildi");
     }
 
     @Override
     public BaseResponse depositMoney(WithdrawAndDepositMoneyRequest request) {
         log.info("Sending deposit money request to Kafka topic");
-        withdrawAndDepositMoneyKafkaTemplate.send("deposit-money", request);
+        withdrawAndDepositMoneyKafkaTemplate.send(
+                messageDeadlinePolicy.withDeadline("deposit-money", request.getAccountId(), request));
         return new BaseResponse("Para yatırma talebi başarıyla gönderildi");
     }
 
@@ -79,14 +91,38 @@ public class TransactionServiceProducerImpl implements ITransactionServiceProduc
 
         log.info("Sending transfer money request to Kafka topic (Confirmed)");
 
+        // Alıcı hesap bir kez burada okunur, saga adımları imzalı snapshot'ı kullanır
+        request.setReceiverSnapshot(captureReceiverSnapshot(request));
+
         // Artık güvenli, Kafka akışını başlat.
         // Not: KafkaListener içinde tekrar kontrol olması güvenlik açısından iyidir, kalabilir.
-        transferMoneyKafkaTemplate.send("start-transfer-money", request);
+        // Gönderen IBAN'ı key olarak kullanılır, aynı hesabın kayıtları aynı partition'da sıralı kalır.
+        // Kullanıcı isteği X-Deadline ile damgalanır, süresi geçen kayıt consumer'da işlenmeden atılır.
+        // Lane (priority / ai / standard) tutar ve kaynağa göre seçilir.
+        ProducerRecord<String, TransferMoneyRequest> record = messageDeadlinePolicy.withDeadline(
+                transferLaneRouter.startTopic(request, false), request.getFromIBAN(), request);
+        // Uçtan uca saga süresi bu andan itibaren ölçülür
+        SagaTimingContext.stampAccepted(record.headers());
+        transferMoneyKafkaTemplate.send(record);
 
         return new BaseResponse("H-0001", "Transfer işlemi başlatıldı.");
     }
 
 
+    private AccountSnapshot captureReceiverSnapshot(TransferMoneyRequest request) {
+        if (!accountSnapshotPolicy.isEnabled()) {
+            return null;
+        }
+        try {
+            return accountSnapshotPolicy.capture(request.getToIBAN(),
+                    accountServiceClient.getAccountByIban(request.getToIBAN()));
+        } catch (Exception e) {
+            // Snapshot opsiyonel: alınamazsa consumer hesabı kendisi okur
+            log.warn("Receiver snapshot could not be captured for iban: {}. Error: {}", request.getToIBAN(), e.getMessage());
+            return null;
+        }
+    }
+
     private boolean isNameMatch(GetAccountByIban account, TransferMoneyRequest request) {
         // İsim kontrol mantığın (Null check eklemeyi unutma)
         if (request.getToFirstName() == null) return true;
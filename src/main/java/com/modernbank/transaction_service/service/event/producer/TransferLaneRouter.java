@@ -0,0 +1,92 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.model.enums.TransferLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Chooses the start topic of a transfer so large and recovered transfers do not queue behind
+ * the chat-initiated ones.
+ *
+ * Responsibilities:
+ * - PRIORITY for amounts at or above kafka.transfer-lanes.high-value-threshold
+ * - RECOVERY for transfers re-queued by TransactionRecoveryJob
+ * - AI for byAi transfers, STANDARD for everything else
+ * - Pin a sender IBAN to the lane of its first transfer in Redis (sliding kafka.transfer-lanes.sticky-ttl-seconds),
+ *   so transfers of one sender never run their balance check and debit in two lanes at once
+ * - With lanes disabled every transfer stays on start-transfer-money
+ *
+ * While a sender is pinned, its later transfers follow the pinned lane even if they would qualify for another one.
+ * If Redis is unavailable every transfer goes to STANDARD, which keeps per-sender order on one topic.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TransferLaneRouter {
+
+    private static final String LANE_KEY_PREFIX = "transfer-lane:";
+
+    private final MeterRegistry meterRegistry;
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${kafka.transfer-lanes.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.transfer-lanes.high-value-threshold:100000}")
+    private double highValueThreshold;
+
+    @Value("${kafka.transfer-lanes.sticky-ttl-seconds:300}")
+    private long stickyTtlSeconds;
+
+    public String startTopic(TransferMoneyRequest request, boolean recovery) {
+        TransferLane lane = enabled ? pinnedLane(request.getFromIBAN(), resolveLane(request, recovery)) : TransferLane.STANDARD;
+        meterRegistry.counter("transfer.lane.routed", "lane", lane.name()).increment();
+        return lane.getTopic();
+    }
+
+    TransferLane resolveLane(TransferMoneyRequest request, boolean recovery) {
+        if (request.getAmount() >= highValueThreshold) {
+            return TransferLane.PRIORITY;
+        }
+        if (recovery) {
+            return TransferLane.RECOVERY;
+        }
+        if ("TRUE".equalsIgnoreCase(request.getByAi())) {
+            return TransferLane.AI;
+        }
+        return TransferLane.STANDARD;
+    }
+
+    private TransferLane pinnedLane(String fromIBAN, TransferLane preferred) {
+        if (fromIBAN == null) {
+            return TransferLane.STANDARD;
+        }
+        String key = LANE_KEY_PREFIX + fromIBAN;
+        Duration ttl = Duration.ofSeconds(stickyTtlSeconds);
+        try {
+            // İkinci deneme: okuma ile setIfAbsent arasında süresi dolan anahtar için
+            for (int attempt = 0; attempt < 2; attempt++) {
+                if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, preferred.name(), ttl))) {
+                    return preferred;
+                }
+                String pinned = redisTemplate.opsForValue().get(key);
+                if (pinned != null) {
+                    // Gönderici aktif oldukça aynı lane'de kalır
+                    redisTemplate.expire(key, ttl);
+                    return TransferLane.valueOf(pinned);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Transfer lane could not be pinned, using STANDARD: fromIBAN={}, error={}", fromIBAN, e.getMessage());
+        }
+        return TransferLane.STANDARD;
+    }
+}
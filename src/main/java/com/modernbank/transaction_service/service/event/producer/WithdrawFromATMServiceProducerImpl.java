@@ -22,13 +22,15 @@ public class WithdrawFromATMServiceProducerImpl implements IWithdrawFromATMServi
     @Override
     public BaseResponse transferMoneyATM(TransferMoneyATMRequest request) {
         log.info("Sending withdraw money request to Kafka topic");
-        transferMoneyKafkaTemplate.send("deposit-money-to-atm", request);
+        transferMoneyKafkaTemplate.send("deposit-money-to-atm", request.getSenderIban(), request);
         return new BaseResponse("Withdraw money from atm request sent successfully");
     }
 
     public BaseResponse withdrawMoneyFromATM(WithdrawFromATMRequest request){
         log.info("Sending withdraw money request to Kafka topic");
-        withdrawMoneyKafkaTemplate.send("withdraw-money-from-atm", request);
+        // IBAN yoksa TCKN ile çekim yapılır, bu durumda key olarak TCKN kullanılır
+        String key = request.getIban() != null ? request.getIban() : request.getTckn();
+        withdrawMoneyKafkaTemplate.send("withdraw-money-from-atm", key, request);
         return new BaseResponse("Withdraw money from atm request sent successfully");
     }
 }
\ No newline at end of file
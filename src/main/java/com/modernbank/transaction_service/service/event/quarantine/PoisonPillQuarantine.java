@@ -0,0 +1,297 @@
+package com.modernbank.transaction_service.service.event.quarantine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.logging.LogFactory;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Quarantine for records that can never be processed (poison pills).
+ *
+ * Responsibilities:
+ * - Recoverer of the blocking error handlers: a record that exhausted its retries is parked on the
+ *   quarantine topic with its original headers and the failure metadata, and skipped by offset afterwards
+ * - Record filter of the listener factories: undeserializable and malformed records are quarantined
+ *   before the listener runs, already quarantined offsets are skipped with one set lookup
+ * - Count quarantined and skipped records per topic and reason
+ *
+ * Only undeserializable records are also remembered by fingerprint (hash of topic, key and raw bytes),
+ * so the same bytes replayed from the DLT or republished by a producer are recognised under a new offset.
+ * Records that failed in the listener are not: an identical legitimate request sent later must still run.
+ * Both sets are bounded and live in memory only.
+ * Listeners on retry topics (kafka.retry-topic.enabled) keep sending exhausted records to the DLT.
+ */
+@Component
+@Slf4j
+public class PoisonPillQuarantine implements ConsumerRecordRecoverer, RecordFilterStrategy<String, Object> {
+
+    static final String FINGERPRINT_HEADER = "X-Quarantine-Fingerprint";
+    static final String REASON_HEADER = "X-Quarantine-Reason";
+    static final String MESSAGE_HEADER = "X-Quarantine-Message";
+    static final String SOURCE_HEADER = "X-Quarantine-Source";
+    static final String QUARANTINED_AT_HEADER = "X-Quarantine-At";
+
+    private static final Pattern RETRY_TOPIC_SUFFIX = Pattern.compile("-retry(-\\d+)?$");
+
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(LogFactory.getLog(PoisonPillQuarantine.class));
+
+    // Quarantine publisher, KafkaConfiguration'ın template'ine bağlı; döngüsel bağımlılık olmaması için geç çözülür
+    private final ObjectProvider<KafkaTemplate<byte[], byte[]>> dltReplayKafkaTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> quarantinedOffsets;
+
+    private final Set<String> quarantinedFingerprints;
+
+    @Value("${kafka.quarantine.enabled:false}")
+    private boolean enabled;
+
+    @Value("${kafka.topics.quarantine:transaction-service.quarantine}")
+    private String quarantineTopic;
+
+    public PoisonPillQuarantine(ObjectProvider<KafkaTemplate<byte[], byte[]>> dltReplayKafkaTemplate,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${kafka.quarantine.max-entries:10000}") int maxEntries) {
+        this.dltReplayKafkaTemplate = dltReplayKafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.quarantinedOffsets = boundedSet(maxEntries);
+        this.quarantinedFingerprints = boundedSet(maxEntries);
+        Gauge.builder("kafka.quarantine.entries", quarantinedOffsets, Set::size)
+                .description("Quarantined offsets kept in memory")
+                .tag("kind", "offset")
+                .register(meterRegistry);
+        Gauge.builder("kafka.quarantine.entries", quarantinedFingerprints, Set::size)
+                .description("Quarantined payload fingerprints kept in memory")
+                .tag("kind", "fingerprint")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns true when the record must not reach the listener.
+     */
+    @Override
+    public boolean filter(ConsumerRecord<String, Object> record) {
+        if (isQuarantined(record)) {
+            count(record, "AlreadyQuarantined", "skipped");
+            log.debug("Skipping quarantined record: topic={}, partition={}, offset={}",
+                    record.topic(), record.partition(), record.offset());
+            return true;
+        }
+
+        DeserializationException deserializationException = deserializationException(record);
+        if (deserializationException != null) {
+            // Batch listener'larda ErrorHandlingDeserializer hatası null değer olarak gelir, listener'a bırakılmaz
+            accept(record, deserializationException);
+            return true;
+        }
+
+        String malformedReason = malformedReason(record);
+        if (malformedReason != null) {
+            accept(record, new IllegalArgumentException(malformedReason));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        String reason = reason(exception);
+        if (isQuarantined(record)) {
+            count(record, reason, "skipped");
+            return;
+        }
+        if (!enabled) {
+            count(record, reason, "logged");
+            log.error("Record failed and skipped (quarantine disabled): topic={}, partition={}, offset={}, key={}, error={}",
+                    record.topic(), record.partition(), record.offset(), record.key(), exception.getMessage());
+            return;
+        }
+
+        byte[] value = valueBytes(record);
+        String fingerprint = fingerprint(record, value);
+        quarantinedOffsets.add(offsetKey(record));
+        if (deserializationException(record) != null) {
+            // Sadece okunamayan byte'lar parmak iziyle atlanır; listener hatası alan aynı içerik meşru bir tekrar olabilir
+            quarantinedFingerprints.add(fingerprint);
+        }
+        count(record, reason, "quarantined");
+        log.error("Record quarantined to {}: topic={}, partition={}, offset={}, key={}, fingerprint={}, error={}",
+                quarantineTopic, record.topic(), record.partition(), record.offset(), record.key(), fingerprint,
+                exception.getMessage());
+
+        ProducerRecord<byte[], byte[]> quarantineRecord = new ProducerRecord<>(quarantineTopic, null,
+                toBytes(record.key()), value, quarantineHeaders(record, exception, reason, fingerprint));
+        try {
+            dltReplayKafkaTemplate.getObject().send(quarantineRecord).whenComplete((result, sendException) -> {
+                if (sendException != null) {
+                    log.warn("Quarantined record could not be published: fingerprint={}, error={}",
+                            fingerprint, sendException.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            // Kayıt bellekte karantinada kalır, topic'e yazılamaması tüketimi durdurmaz
+            log.warn("Quarantined record could not be published: fingerprint={}, error={}", fingerprint, e.getMessage());
+        }
+    }
+
+    public boolean isQuarantined(ConsumerRecord<?, ?> record) {
+        if (quarantinedOffsets.contains(offsetKey(record))) {
+            return true;
+        }
+        if (quarantinedFingerprints.isEmpty()) {
+            return false;
+        }
+        // Parmak izi sadece okunamayan kayıtlarda ham byte'lardan hesaplanır; başarıyla okunan kayıt
+        // yeniden serileştirilmez ve hash maliyeti ödemez
+        DeserializationException deserializationException = deserializationException(record);
+        return deserializationException != null
+                && quarantinedFingerprints.contains(fingerprint(record, deserializationException.getData()));
+    }
+
+    private String malformedReason(ConsumerRecord<String, Object> record) {
+        if (record.value() == null) {
+            return "Null payload on " + record.topic();
+        }
+        if (record.value() instanceof TransferMoneyRequest request && record.topic().startsWith("finalize-transfer-money")
+                && (request.getSenderTransactionId() == null || request.getReceiverTransactionId() == null)) {
+            return "Finalize transfer request without transaction ids";
+        }
+        return null;
+    }
+
+    private Headers quarantineHeaders(ConsumerRecord<?, ?> record, Exception exception, String reason, String fingerprint) {
+        RecordHeaders headers = new RecordHeaders();
+        for (Header header : record.headers()) {
+            // Serileştirilmiş exception header'ları büyük, hata bilgisi aşağıdaki header'larda taşınır
+            if (!header.key().startsWith(SerializationUtils.DESERIALIZER_EXCEPTION_HEADER_PREFIX)) {
+                headers.add(header);
+            }
+        }
+        headers.add(FINGERPRINT_HEADER, fingerprint.getBytes(StandardCharsets.UTF_8));
+        headers.add(REASON_HEADER, reason.getBytes(StandardCharsets.UTF_8));
+        headers.add(MESSAGE_HEADER, String.valueOf(rootCause(exception).getMessage()).getBytes(StandardCharsets.UTF_8));
+        headers.add(SOURCE_HEADER, offsetKey(record).getBytes(StandardCharsets.UTF_8));
+        headers.add(QUARANTINED_AT_HEADER, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private byte[] valueBytes(ConsumerRecord<?, ?> record) {
+        DeserializationException deserializationException = deserializationException(record);
+        if (deserializationException != null) {
+            return deserializationException.getData();
+        }
+        Object value = record.value();
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    static String fingerprint(ConsumerRecord<?, ?> record, byte[] value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(RETRY_TOPIC_SUFFIX.matcher(record.topic()).replaceFirst("").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] key = toBytes(record.key());
+            if (key != null) {
+                digest.update(key);
+            }
+            digest.update((byte) 0);
+            if (value != null) {
+                digest.update(value);
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void count(ConsumerRecord<?, ?> record, String reason, String outcome) {
+        meterRegistry.counter("kafka.quarantine.records",
+                "topic", record.topic(), "reason", reason, "outcome", outcome).increment();
+    }
+
+    private static DeserializationException deserializationException(ConsumerRecord<?, ?> record) {
+        if (record.value() != null
+                || record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) == null) {
+            return null;
+        }
+        return SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+    }
+
+    private static String reason(Exception exception) {
+        Throwable failure = exception;
+        // Listener hatasını saran container exception'ı atlanır
+        while (failure instanceof ListenerExecutionFailedException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return ClassUtils.getShortName(failure.getClass());
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static String offsetKey(ConsumerRecord<?, ?> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    private static byte[] toBytes(Object key) {
+        if (key == null || key instanceof byte[]) {
+            return (byte[]) key;
+        }
+        return key.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Set<String> boundedSet(int maxEntries) {
+        // Ekleme sırasına göre en eski kayıt atılır, O(1) lookup korunur
+        return Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        }));
+    }
+}
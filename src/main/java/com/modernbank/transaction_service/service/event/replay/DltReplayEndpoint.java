@@ -0,0 +1,58 @@
+package com.modernbank.transaction_service.service.event.replay;
+
+import com.modernbank.transaction_service.model.DltReplayCriteria;
+import com.modernbank.transaction_service.model.DltReplayProgress;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Actuator endpoint for the DLT replayer.
+ *
+ * - GET    /actuator/dltreplay : progress and throughput of the current or last run
+ * - POST   /actuator/dltreplay : start a run, e.g. {"dryRun": true, "errorType": "RemoteDirectException",
+ *                                "from": "2024-05-01T10:00:00", "ratePerSecond": 50}
+ * - DELETE /actuator/dltreplay : cancel the running replay
+ */
+@Component
+@Endpoint(id = "dltreplay")
+@RequiredArgsConstructor
+public class DltReplayEndpoint {
+
+    private final DltReplayer dltReplayer;
+
+    @ReadOperation
+    public DltReplayProgress progress() {
+        return dltReplayer.progress();
+    }
+
+    @WriteOperation
+    public DltReplayProgress start(@Nullable Boolean dryRun,
+                                   @Nullable String errorType,
+                                   @Nullable String originalTopic,
+                                   @Nullable String from,
+                                   @Nullable String to,
+                                   @Nullable Integer ratePerSecond,
+                                   @Nullable Integer maxInFlight) {
+        return dltReplayer.start(DltReplayCriteria.builder()
+                .dryRun(Boolean.TRUE.equals(dryRun))
+                .errorType(errorType)
+                .originalTopic(originalTopic)
+                .from(from == null ? null : LocalDateTime.parse(from))
+                .to(to == null ? null : LocalDateTime.parse(to))
+                .ratePerSecond(ratePerSecond == null ? 0 : ratePerSecond)
+                .maxInFlight(maxInFlight == null ? 0 : maxInFlight)
+                .build());
+    }
+
+    @DeleteOperation
+    public DltReplayProgress cancel() {
+        return dltReplayer.cancel();
+    }
+}
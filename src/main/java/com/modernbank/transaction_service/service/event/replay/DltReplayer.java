@@ -0,0 +1,386 @@
+package com.modernbank.transaction_service.service.event.replay;
+
+import com.modernbank.transaction_service.model.DltReplayCriteria;
+import com.modernbank.transaction_service.model.DltReplayProgress;
+import com.modernbank.transaction_service.model.enums.DltReplayState;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static com.modernbank.transaction_service.constant.HeaderKey.DEADLINE;
+
+/**
+ * Replays records of the transaction DLT back to the topic they originally failed on.
+ *
+ * How it works:
+ * - A dedicated consumer (no group offsets) reads every DLT partition from the start, or from the
+ *   first offset at/after criteria.from, up to the end offsets captured when the run starts
+ * - Records are filtered by original topic, exception type and DLT timestamp
+ * - Key, value and user headers are written back unchanged as bytes; DLT and retry headers are dropped
+ * - Sends are throttled by a rate limiter and a cap on in-flight sends
+ * - A dry run only counts matching records per original topic
+ *
+ * Only one run is active at a time; progress is exposed by {@link DltReplayEndpoint}.
+ */
+@Component
+@Slf4j
+public class DltReplayer {
+
+    static final String REPLAYED_AT_HEADER = "X-Dlt-Replayed-At";
+
+    private static final Pattern RETRY_TOPIC_SUFFIX = Pattern.compile("-retry(-\\d+)?$");
+
+    private final KafkaTemplate<byte[], byte[]> dltReplayKafkaTemplate;
+
+    private final Counter replayedCounter;
+    private final Counter failedCounter;
+    private final Counter scannedCounter;
+
+    @Value("${spring.kafka.consumer.bootstrap-servers}")
+    private String kafkaBootstrapServers;
+
+    @Value("${kafka.topics.transaction-dlt:transaction-service.DLT}")
+    private String dltTopic;
+
+    @Value("${kafka.dlt-replay.rate-per-second:100}")
+    private int defaultRatePerSecond;
+
+    @Value("${kafka.dlt-replay.max-in-flight:10}")
+    private int defaultMaxInFlight;
+
+    @Value("${kafka.dlt-replay.poll-timeout-ms:1000}")
+    private long pollTimeoutMs;
+
+    private volatile DltReplayRun currentRun;
+
+    public DltReplayer(KafkaTemplate<byte[], byte[]> dltReplayKafkaTemplate, MeterRegistry meterRegistry) {
+        this.dltReplayKafkaTemplate = dltReplayKafkaTemplate;
+        this.replayedCounter = Counter.builder("kafka.dlt.replay.records")
+                .tag("outcome", "replayed")
+                .description("DLT records replayed to their original topic")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("kafka.dlt.replay.records")
+                .tag("outcome", "failed")
+                .description("DLT records that could not be replayed")
+                .register(meterRegistry);
+        this.scannedCounter = Counter.builder("kafka.dlt.replay.records")
+                .tag("outcome", "scanned")
+                .description("DLT records read by the replayer")
+                .register(meterRegistry);
+    }
+
+    public synchronized DltReplayProgress start(DltReplayCriteria criteria) {
+        if (currentRun != null && currentRun.state == DltReplayState.RUNNING) {
+            throw new IllegalStateException("A DLT replay is already running");
+        }
+        if (criteria.getRatePerSecond() <= 0) {
+            criteria.setRatePerSecond(defaultRatePerSecond);
+        }
+        if (criteria.getMaxInFlight() <= 0) {
+            criteria.setMaxInFlight(defaultMaxInFlight);
+        }
+
+        DltReplayRun run = new DltReplayRun(criteria);
+        currentRun = run;
+        Thread worker = new Thread(() -> execute(run), "dlt-replayer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("DLT replay started: topic={}, dryRun={}, errorType={}, originalTopic={}, from={}, to={}, rate={}/s, maxInFlight={}",
+                dltTopic, criteria.isDryRun(), criteria.getErrorType(), criteria.getOriginalTopic(),
+                criteria.getFrom(), criteria.getTo(), criteria.getRatePerSecond(), criteria.getMaxInFlight());
+        return run.snapshot();
+    }
+
+    public DltReplayProgress cancel() {
+        DltReplayRun run = currentRun;
+        if (run == null) {
+            return progress();
+        }
+        run.cancelled = true;
+        return run.snapshot();
+    }
+
+    public DltReplayProgress progress() {
+        DltReplayRun run = currentRun;
+        if (run == null) {
+            return DltReplayProgress.builder().state(DltReplayState.IDLE).build();
+        }
+        return run.snapshot();
+    }
+
+    private void execute(DltReplayRun run) {
+        DltReplayCriteria criteria = run.criteria;
+        RateLimiter rateLimiter = RateLimiter.of("dlt-replay", RateLimiterConfig.custom()
+                .limitForPeriod(criteria.getRatePerSecond())
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(Duration.ofMillis(pollTimeoutMs))
+                .build());
+        Semaphore inFlight = new Semaphore(criteria.getMaxInFlight());
+
+        try (Consumer<byte[], byte[]> consumer = createConsumer()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(dltTopic).stream()
+                    .map(info -> new TopicPartition(dltTopic, info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            seekToStart(consumer, partitions, criteria.getFrom());
+
+            Set<TopicPartition> remaining = new HashSet<>(partitions);
+            remaining.removeIf(partition -> consumer.position(partition) >= endOffsets.get(partition));
+
+            while (!remaining.isEmpty() && !run.cancelled) {
+                for (ConsumerRecord<byte[], byte[]> record : consumer.poll(Duration.ofMillis(pollTimeoutMs))) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (run.cancelled) {
+                        break;
+                    }
+                    if (record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+                    run.scanned.incrementAndGet();
+                    scannedCounter.increment();
+
+                    String originalTopic = originalTopic(record.headers());
+                    if (originalTopic == null || !matches(record, originalTopic, criteria)) {
+                        continue;
+                    }
+                    run.matched.incrementAndGet();
+                    run.matchedByTopic.merge(originalTopic, 1L, Long::sum);
+
+                    if (!criteria.isDryRun()) {
+                        replay(run, record, originalTopic, rateLimiter, inFlight);
+                    }
+                }
+
+                Set<TopicPartition> finished = new HashSet<>();
+                for (TopicPartition partition : remaining) {
+                    if (consumer.position(partition) >= endOffsets.get(partition)) {
+                        finished.add(partition);
+                    }
+                }
+                // Başlangıçtaki end offset'e ulaşan partition'lar artık okunmaz
+                consumer.pause(finished);
+                remaining.removeAll(finished);
+            }
+
+            // Gönderimi süren kayıtların tamamlanmasını bekle
+            inFlight.acquire(criteria.getMaxInFlight());
+            inFlight.release(criteria.getMaxInFlight());
+            run.finish(run.cancelled ? DltReplayState.CANCELLED : DltReplayState.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.lastError = e.getMessage();
+            run.finish(DltReplayState.CANCELLED);
+        } catch (Exception e) {
+            log.error("DLT replay failed: {}", e.getMessage(), e);
+            run.lastError = e.getMessage();
+            run.finish(DltReplayState.FAILED);
+        }
+        log.info("DLT replay finished: state={}, scanned={}, matched={}, replayed={}, failed={}",
+                run.state, run.scanned.get(), run.matched.get(), run.replayed.get(), run.failed.get());
+    }
+
+    private void replay(DltReplayRun run,
+                        ConsumerRecord<byte[], byte[]> record,
+                        String originalTopic,
+                        RateLimiter rateLimiter,
+                        Semaphore inFlight) throws InterruptedException {
+        while (!rateLimiter.acquirePermission()) {
+            if (run.cancelled) {
+                return;
+            }
+        }
+        inFlight.acquire();
+
+        ProducerRecord<byte[], byte[]> replayRecord = new ProducerRecord<>(originalTopic, null,
+                record.key(), record.value(), replayHeaders(record.headers()));
+        try {
+            dltReplayKafkaTemplate.send(replayRecord).whenComplete((result, exception) -> {
+                inFlight.release();
+                if (exception != null) {
+                    onReplayFailed(run, record, exception);
+                } else {
+                    run.replayed.incrementAndGet();
+                    replayedCounter.increment();
+                }
+            });
+        } catch (Exception e) {
+            inFlight.release();
+            onReplayFailed(run, record, e);
+        }
+    }
+
+    private void onReplayFailed(DltReplayRun run, ConsumerRecord<byte[], byte[]> record, Throwable exception) {
+        run.failed.incrementAndGet();
+        run.lastError = exception.getMessage();
+        failedCounter.increment();
+        log.warn("DLT record could not be replayed: partition={}, offset={}, error={}",
+                record.partition(), record.offset(), exception.getMessage());
+    }
+
+    private Consumer<byte[], byte[]> createConsumer() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
+        configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "transaction-service-dlt-replayer");
+        configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        return new DefaultKafkaConsumerFactory<>(configProps, new ByteArrayDeserializer(), new ByteArrayDeserializer())
+                .createConsumer();
+    }
+
+    private void seekToStart(Consumer<byte[], byte[]> consumer, List<TopicPartition> partitions, LocalDateTime from) {
+        if (from == null) {
+            consumer.seekToBeginning(partitions);
+            return;
+        }
+        long fromMillis = from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        partitions.forEach(partition -> timestamps.put(partition, fromMillis));
+        Map<TopicPartition, OffsetAndTimestamp> offsets = consumer.offsetsForTimes(timestamps);
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            if (offset == null) {
+                consumer.seekToEnd(List.of(partition));
+            } else {
+                consumer.seek(partition, offset.offset());
+            }
+        }
+    }
+
+    static boolean matches(ConsumerRecord<?, ?> record, String originalTopic, DltReplayCriteria criteria) {
+        if (criteria.getOriginalTopic() != null && !criteria.getOriginalTopic().equals(originalTopic)) {
+            return false;
+        }
+        LocalDateTime failedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault());
+        if (criteria.getFrom() != null && failedAt.isBefore(criteria.getFrom())) {
+            return false;
+        }
+        if (criteria.getTo() != null && failedAt.isAfter(criteria.getTo())) {
+            return false;
+        }
+        if (criteria.getErrorType() == null) {
+            return true;
+        }
+        return isErrorType(headerValue(record.headers(), KafkaHeaders.DLT_EXCEPTION_FQCN), criteria.getErrorType())
+                || isErrorType(headerValue(record.headers(), KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN), criteria.getErrorType());
+    }
+
+    /**
+     * The first original-topic header is the topic the record was published to by our producers;
+     * later hops through retry tiers may append their own topic names.
+     */
+    static String originalTopic(Headers headers) {
+        Iterator<Header> originalTopics = headers.headers(KafkaHeaders.DLT_ORIGINAL_TOPIC).iterator();
+        if (!originalTopics.hasNext()) {
+            return null;
+        }
+        return RETRY_TOPIC_SUFFIX.matcher(new String(originalTopics.next().value(), StandardCharsets.UTF_8)).replaceFirst("");
+    }
+
+    static Headers replayHeaders(Headers headers) {
+        RecordHeaders replayHeaders = new RecordHeaders();
+        for (Header header : headers) {
+            if (header.key().startsWith("kafka_dlt-") || header.key().startsWith("retry_topic-")) {
+                continue;
+            }
+            // Replay bilinçli bir operatör kararı, eski deadline ile kayıt tekrar atılmasın
+            if (DEADLINE.equals(header.key())) {
+                continue;
+            }
+            replayHeaders.add(header);
+        }
+        replayHeaders.add(REPLAYED_AT_HEADER,
+                String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        return replayHeaders;
+    }
+
+    private static boolean isErrorType(String exceptionClassName, String errorType) {
+        if (exceptionClassName == null) {
+            return false;
+        }
+        return exceptionClassName.equals(errorType) || exceptionClassName.endsWith("." + errorType);
+    }
+
+    private static String headerValue(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static final class DltReplayRun {
+        private final DltReplayCriteria criteria;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedAtNanos = System.nanoTime();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong replayed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final Map<String, Long> matchedByTopic = new ConcurrentHashMap<>();
+        private volatile DltReplayState state = DltReplayState.RUNNING;
+        private volatile boolean cancelled;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedAtNanos;
+        private volatile String lastError;
+
+        private DltReplayRun(DltReplayCriteria criteria) {
+            this.criteria = criteria;
+        }
+
+        private void finish(DltReplayState finalState) {
+            this.finishedAt = LocalDateTime.now();
+            this.finishedAtNanos = System.nanoTime();
+            this.state = finalState;
+        }
+
+        private DltReplayProgress snapshot() {
+            long endNanos = finishedAt != null ? finishedAtNanos : System.nanoTime();
+            double elapsedSeconds = Math.max((endNanos - startedAtNanos) / 1_000_000_000d, 0.001d);
+            long processed = criteria.isDryRun() ? scanned.get() : replayed.get();
+            return DltReplayProgress.builder()
+                    .state(state)
+                    .criteria(criteria)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .scanned(scanned.get())
+                    .matched(matched.get())
+                    .replayed(replayed.get())
+                    .failed(failed.get())
+                    .throughputPerSecond(processed / elapsedSeconds)
+                    .matchedByTopic(Map.copyOf(matchedByTopic))
+                    .lastError(lastError)
+                    .build();
+        }
+    }
+}
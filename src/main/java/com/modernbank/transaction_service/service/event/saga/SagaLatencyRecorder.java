@@ -0,0 +1,78 @@
+package com.modernbank.transaction_service.service.event.saga;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.model.enums.TransactionChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records transfer saga latencies when a transfer leaves the saga (finalize, HOLD, BLOCK, failure).
+ *
+ * Responsibilities:
+ * - transfer.saga.stage.latency{stage}: time from the previous checkpoint to this one; stage "exit" is
+ *   the processing time of the last hop
+ * - transfer.saga.latency: end-to-end time from HTTP accept to exit
+ * - Both are tagged by outcome and channel, with histogram buckets and the SLO boundaries of
+ *   transfer.saga.slo-ms so burn rates can be computed from Prometheus
+ */
+@Component
+@RequiredArgsConstructor
+public class SagaLatencyRecorder {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transfer.saga.slo-ms:1000,5000,30000}")
+    private List<Long> sloMs;
+
+    public void recordExit(TransferMoneyRequest request, String outcome) {
+        Map<String, Long> checkpoints = SagaTimingContext.current();
+        if (checkpoints.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String channel = channel(request);
+
+        Long previous = null;
+        for (String checkpoint : SagaTimingContext.CHECKPOINTS) {
+            Long at = checkpoints.get(checkpoint);
+            if (at == null) {
+                continue;
+            }
+            if (previous != null) {
+                timer("transfer.saga.stage.latency", outcome, channel).tag("stage", checkpoint)
+                        .register(meterRegistry).record(Duration.ofMillis(Math.max(0, at - previous)));
+            }
+            previous = at;
+        }
+        if (previous != null) {
+            timer("transfer.saga.stage.latency", outcome, channel).tag("stage", "exit")
+                    .register(meterRegistry).record(Duration.ofMillis(Math.max(0, now - previous)));
+        }
+
+        Long acceptedAt = checkpoints.get(SagaTimingContext.ACCEPTED);
+        if (acceptedAt != null) {
+            timer("transfer.saga.latency", outcome, channel)
+                    .register(meterRegistry).record(Duration.ofMillis(Math.max(0, now - acceptedAt)));
+        }
+    }
+
+    private Timer.Builder timer(String name, String outcome, String channel) {
+        return Timer.builder(name)
+                .tag("outcome", outcome)
+                .tag("channel", channel)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(sloMs.stream().map(Duration::ofMillis).toArray(Duration[]::new));
+    }
+
+    private String channel(TransferMoneyRequest request) {
+        // Transferler ONLINE_BANKING kanalında açılır, sohbet (byAi) kaynaklılar ayrı izlenir
+        return request != null && "TRUE".equalsIgnoreCase(request.getByAi()) ? "AI_CHAT" : TransactionChannel.ONLINE_BANKING.name();
+    }
+}
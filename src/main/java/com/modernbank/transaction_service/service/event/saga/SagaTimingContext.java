@@ -0,0 +1,141 @@
+package com.modernbank.transaction_service.service.event.saga;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.modernbank.transaction_service.constant.HeaderKey.SAGA_CHECKPOINT_PREFIX;
+
+/**
+ * Checkpoint timestamps of the transfer saga that travel as X-Saga-At-&lt;checkpoint&gt; headers.
+ *
+ * Checkpoints, in order:
+ * - accepted: HTTP request accepted by TransactionServiceProducerImpl
+ * - start / update / finalize: record of that hop reached its listener
+ *
+ * The checkpoints of the record being processed are bound to the listener thread (like the MDC trace id)
+ * so the producer interceptor can copy them onto the next hop and the exits can record latencies.
+ * Saga rows written to the outbox keep them in text form ({@link #format} / {@link #writeFormatted}),
+ * since the relay sends from its own thread.
+ */
+public final class SagaTimingContext {
+
+    public static final String ACCEPTED = "accepted";
+
+    public static final List<String> CHECKPOINTS = List.of(ACCEPTED, "start", "update", "finalize");
+
+    private static final ThreadLocal<Map<String, Long>> CURRENT = new ThreadLocal<>();
+
+    private SagaTimingContext() {
+    }
+
+    /**
+     * Binds the checkpoints carried by the record and adds the checkpoint of the consumed hop.
+     */
+    public static void bind(String topic, Headers headers) {
+        Map<String, Long> checkpoints = new LinkedHashMap<>();
+        for (String checkpoint : CHECKPOINTS) {
+            Long at = read(headers, checkpoint);
+            if (at != null) {
+                checkpoints.put(checkpoint, at);
+            }
+        }
+        String hop = checkpointOf(topic);
+        if (hop != null) {
+            checkpoints.put(hop, System.currentTimeMillis());
+        }
+        CURRENT.set(checkpoints);
+    }
+
+    public static Map<String, Long> current() {
+        Map<String, Long> checkpoints = CURRENT.get();
+        return checkpoints == null ? Collections.emptyMap() : Collections.unmodifiableMap(checkpoints);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public static void stampAccepted(Headers headers) {
+        write(headers, ACCEPTED, System.currentTimeMillis());
+    }
+
+    public static void write(Headers headers, String checkpoint, long at) {
+        headers.remove(SAGA_CHECKPOINT_PREFIX + checkpoint);
+        headers.add(SAGA_CHECKPOINT_PREFIX + checkpoint, String.valueOf(at).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Saga checkpoint reached when a record of the topic is consumed, null for non-saga topics.
+     * Lane and retry topics map to their base hop.
+     */
+    public static String checkpointOf(String topic) {
+        if (topic == null) {
+            return null;
+        }
+        if (topic.startsWith("start-transfer-money")) {
+            return "start";
+        }
+        if (topic.startsWith("update-transfer-money")) {
+            return "update";
+        }
+        if (topic.startsWith("finalize-transfer-money")) {
+            return "finalize";
+        }
+        return null;
+    }
+
+    /**
+     * Checkpoints as "name=epochMillis" pairs separated by commas, null when there are none.
+     */
+    public static String format(Map<String, Long> checkpoints) {
+        if (checkpoints.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> checkpoint : checkpoints.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(checkpoint.getKey()).append('=').append(checkpoint.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes checkpoints produced by {@link #format} as headers; unknown names and bad values are skipped.
+     */
+    public static void writeFormatted(Headers headers, String formatted) {
+        if (formatted == null || formatted.isEmpty()) {
+            return;
+        }
+        for (String pair : formatted.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator <= 0 || !CHECKPOINTS.contains(pair.substring(0, separator))) {
+                continue;
+            }
+            try {
+                write(headers, pair.substring(0, separator), Long.parseLong(pair.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                // Bozuk değer atlanır, ölçüm eksik kalır ama mesaj yine gönderilir
+            }
+        }
+    }
+
+    private static Long read(Headers headers, String checkpoint) {
+        Header header = headers.lastHeader(SAGA_CHECKPOINT_PREFIX + checkpoint);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.modernbank.transaction_service.service.event.snapshot;
+
+import com.modernbank.transaction_service.api.dto.AccountDTO;
+import com.modernbank.transaction_service.api.response.GetAccountByIban;
+import com.modernbank.transaction_service.api.response.GetAccountByIdResponse;
+import com.modernbank.transaction_service.model.AccountSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Captures and verifies the signed account snapshots carried inside saga messages.
+ *
+ * Responsibilities:
+ * - Build a versioned snapshot (ids, userId, names, currency, balance-at-validation, fetch time) from an
+ *   account-service response and sign it with HMAC-SHA256
+ * - Hand the snapshot back as an account response when its version, signature, account binding and age
+ *   (account-snapshot.max-age-ms) check out; otherwise return null so the caller re-fetches
+ * - Count reuse outcomes in account.snapshot.reuse{outcome=hit|missing|stale|invalid}
+ *
+ * The balance inside a snapshot is informational only: balance-critical checks always use a fresh read.
+ * Without account-snapshot.secret every instance signs with a random key, so snapshots are only reused
+ * by the instance that produced them. Identity numbers (TCKN) are never put into a snapshot; callers that
+ * need them read the account from account-service.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountSnapshotPolicy {
+
+    // 2: tckn alanı snapshot'tan çıkarıldı, versiyon 1 snapshot'lar kabul edilmez
+    static final int CURRENT_VERSION = 2;
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${account-snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${account-snapshot.secret:}")
+    private String secret;
+
+    @Value("${account-snapshot.max-age-ms:60000}")
+    private long maxAgeMs;
+
+    private SecretKeySpec signingKey;
+
+    @PostConstruct
+    public void init() {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            if (enabled) {
+                log.warn("account-snapshot.secret is not set, snapshots are signed with a per-instance random key");
+            }
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        signingKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public AccountSnapshot capture(String iban, GetAccountByIban account) {
+        if (!enabled || account == null) {
+            return null;
+        }
+        return sign(AccountSnapshot.builder()
+                .version(CURRENT_VERSION)
+                .accountId(account.getAccountId())
+                .iban(iban)
+                .userId(account.getUserId())
+                .accountName(account.getAccountName())
+                .firstName(account.getFirstName())
+                .secondName(account.getSecondName())
+                .lastName(account.getLastName())
+                .currency(account.getCurrency())
+                .balance(account.getBalance())
+                .fetchedAt(System.currentTimeMillis())
+                .build());
+    }
+
+    public AccountSnapshot capture(AccountDTO account) {
+        if (!enabled || account == null) {
+            return null;
+        }
+        return sign(AccountSnapshot.builder()
+                .version(CURRENT_VERSION)
+                .accountId(account.getId())
+                .iban(account.getIban())
+                .userId(account.getUserId())
+                .accountName(account.getName())
+                .firstName(account.getFirstName())
+                .secondName(account.getSecondName())
+                .lastName(account.getLastName())
+                .currency(account.getCurrency())
+                .balance(account.getBalance())
+                .fetchedAt(System.currentTimeMillis())
+                .build());
+    }
+
+    /**
+     * Snapshot as a by-IBAN response, or null when the caller has to fetch the account itself.
+     */
+    public GetAccountByIban reuseByIban(AccountSnapshot snapshot, String iban) {
+        if (!isReusable(snapshot, snapshot != null && Objects.equals(snapshot.getIban(), iban))) {
+            return null;
+        }
+        GetAccountByIban account = new GetAccountByIban();
+        account.setAccountId(snapshot.getAccountId());
+        account.setAccountName(snapshot.getAccountName());
+        account.setUserId(snapshot.getUserId());
+        account.setFirstName(snapshot.getFirstName());
+        account.setSecondName(snapshot.getSecondName());
+        account.setLastName(snapshot.getLastName());
+        account.setCurrency(snapshot.getCurrency());
+        account.setBalance(snapshot.getBalance());
+        count("hit");
+        return account;
+    }
+
+    /**
+     * Snapshot as a by-id response, or null when the caller has to fetch the account itself.
+     */
+    public GetAccountByIdResponse reuseById(AccountSnapshot snapshot, String accountId) {
+        if (!isReusable(snapshot, snapshot != null && Objects.equals(snapshot.getAccountId(), accountId))) {
+            return null;
+        }
+        AccountDTO account = new AccountDTO();
+        account.setId(snapshot.getAccountId());
+        account.setIban(snapshot.getIban());
+        account.setUserId(snapshot.getUserId());
+        account.setName(snapshot.getAccountName());
+        account.setFirstName(snapshot.getFirstName());
+        account.setSecondName(snapshot.getSecondName());
+        account.setLastName(snapshot.getLastName());
+        account.setCurrency(snapshot.getCurrency());
+        account.setBalance(snapshot.getBalance());
+        count("hit");
+        return new GetAccountByIdResponse(account);
+    }
+
+    private boolean isReusable(AccountSnapshot snapshot, boolean boundToAccount) {
+        if (!enabled) {
+            return false;
+        }
+        if (snapshot == null) {
+            count("missing");
+            return false;
+        }
+        // İmzası tutmayan ya da mesajdaki hesaba ait olmayan snapshot kullanılmaz, hesap tekrar okunur
+        if (snapshot.getVersion() != CURRENT_VERSION || snapshot.getSignature() == null
+                || !MessageDigest.isEqual(
+                        snapshot.getSignature().getBytes(StandardCharsets.US_ASCII),
+                        signatureOf(snapshot).getBytes(StandardCharsets.US_ASCII))
+                || !boundToAccount) {
+            // Sayaç yeterli; versiyon geçişinde her mesaj için warn basılmasın
+            log.debug("Account snapshot rejected: accountId={}, version={}", snapshot.getAccountId(), snapshot.getVersion());
+            count("invalid");
+            return false;
+        }
+        // Instance'lar arası saat kaymasına karşı ileri tarihli snapshot da aynı sınırla değerlendirilir
+        if (Math.abs(System.currentTimeMillis() - snapshot.getFetchedAt()) > maxAgeMs) {
+            count("stale");
+            return false;
+        }
+        return true;
+    }
+
+    private AccountSnapshot sign(AccountSnapshot snapshot) {
+        snapshot.setSignature(signatureOf(snapshot));
+        return snapshot;
+    }
+
+    private String signatureOf(AccountSnapshot snapshot) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return Base64.getEncoder().encodeToString(mac.doFinal(canonical(snapshot).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign account snapshot", e);
+        }
+    }
+
+    private static String canonical(AccountSnapshot snapshot) {
+        // Alan sırası versiyona bağlıdır; null ile boş string ayrışsın diye null NUL karakteri olarak yazılır
+        StringBuilder sb = new StringBuilder(256);
+        append(sb, String.valueOf(snapshot.getVersion()));
+        append(sb, snapshot.getAccountId());
+        append(sb, snapshot.getIban());
+        append(sb, snapshot.getUserId());
+        append(sb, snapshot.getAccountName());
+        append(sb, snapshot.getFirstName());
+        append(sb, snapshot.getSecondName());
+        append(sb, snapshot.getLastName());
+        append(sb, snapshot.getCurrency() == null ? null : snapshot.getCurrency().name());
+        append(sb, Double.toString(snapshot.getBalance()));
+        append(sb, Long.toString(snapshot.getFetchedAt()));
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String value) {
+        sb.append(value == null ? "\u0000" : value).append('\u001F');
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("account.snapshot.reuse", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,106 @@
+package com.modernbank.transaction_service.service.event.streams;
+
+import com.modernbank.transaction_service.model.AccountActivity;
+import com.modernbank.transaction_service.model.TransactionCompletedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Interactive queries over the local account activity store of {@link AccountActivityTopology}.
+ *
+ * Responsibilities:
+ * - Answer per-account transaction counts since a point in time from the in-memory window store
+ * - Answer only for accounts whose partition is active on this instance and while the streams app is RUNNING;
+ *   return null otherwise so the caller falls back to its SQL aggregate
+ * - Count answered and fallback queries in account.activity.query{outcome=hit|unavailable}
+ *
+ * The stream only holds transactions whose balance change is done and is eventually consistent; rows still
+ * pending and very recent completions are not included. It therefore only feeds fraud velocity features,
+ * where an approximate count is fine; daily limit checks stay on SQL.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountActivityQueryService {
+
+    private final ObjectProvider<StreamsBuilderFactoryBean> accountActivityStreams;
+
+    private final KafkaTemplate<String, TransactionCompletedEvent> transactionCompletedKafkaTemplate;
+
+    private final AccountActivityTopology accountActivityTopology;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${transaction-aggregates.enabled:false}")
+    private boolean enabled;
+
+    private volatile int partitionCount;
+
+    public Integer countSince(String accountId, LocalDateTime since) {
+        AccountActivity activity = activitySince(accountId, since);
+        return activity == null ? null : (int) activity.getCount();
+    }
+
+    private AccountActivity activitySince(String accountId, LocalDateTime since) {
+        if (!enabled || accountId == null) {
+            return null;
+        }
+        Instant from = since.atZone(ZoneId.systemDefault()).toInstant();
+        Instant now = Instant.now();
+        if (!accountActivityTopology.covers(from, now)) {
+            return unavailable();
+        }
+        StreamsBuilderFactoryBean factoryBean = accountActivityStreams.getIfAvailable();
+        KafkaStreams kafkaStreams = factoryBean == null ? null : factoryBean.getKafkaStreams();
+        if (kafkaStreams == null || kafkaStreams.state() != KafkaStreams.State.RUNNING) {
+            return unavailable();
+        }
+        try {
+            // Sadece bu instance'ta aktif olan partition sorgulanır; hesap başka instance'taysa SQL'e düşülür
+            ReadOnlyWindowStore<String, AccountActivity> store = kafkaStreams.store(
+                    StoreQueryParameters.fromNameAndType(AccountActivityTopology.STORE_NAME,
+                                    QueryableStoreTypes.<String, AccountActivity>windowStore())
+                            .withPartition(partitionOf(accountId)));
+            AccountActivity activity = accountActivityTopology.activityBetween(store, accountId, from, now);
+            meterRegistry.counter("account.activity.query", "outcome", "hit").increment();
+            return activity;
+        } catch (Exception e) {
+            // Partition bu instance'ta değil, store restore ediliyor ya da topic metadata okunamadı;
+            // partition sayısı değişmiş olabilir, bir sonraki sorguda tekrar okunur
+            partitionCount = 0;
+            log.debug("Account activity store not queryable for accountId: {}. Error: {}", accountId, e.getMessage());
+            return unavailable();
+        }
+    }
+
+    private int partitionOf(String accountId) {
+        int partitions = partitionCount;
+        if (partitions == 0) {
+            partitions = transactionCompletedKafkaTemplate.partitionsFor(accountActivityTopology.getTopic()).size();
+            partitionCount = partitions;
+        }
+        // Producer'ın varsayılan partitioner'ı ile aynı hesap
+        return Utils.toPositive(Utils.murmur2(accountId.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    private AccountActivity unavailable() {
+        meterRegistry.counter("account.activity.query", "outcome", "unavailable").increment();
+        return null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.modernbank.transaction_service.service.event.streams;
+
+import com.modernbank.transaction_service.model.AccountActivity;
+import com.modernbank.transaction_service.model.TransactionCompletedEvent;
+import lombok.Getter;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.JsonSerde;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Kafka Streams topology that keeps rolling per-account activity of completed transactions.
+ *
+ * Responsibilities:
+ * - Read the transaction-completed stream (key = accountId, timestamp = completion time)
+ * - Aggregate count and per-category sums into tumbling buckets of transaction-aggregates.bucket-ms
+ *   in the in-memory window store {@link #STORE_NAME}, retained for the lookback plus one bucket
+ * - Sum the buckets of one account for a time range ({@link #activityBetween})
+ *
+ * The store is backed by a changelog topic, so a restarted instance restores it before it answers queries.
+ */
+@Component
+public class AccountActivityTopology {
+
+    public static final String STORE_NAME = "account-activity-store";
+
+    @Getter
+    @Value("${kafka.topics.transaction-completed:transaction-completed}")
+    private String topic;
+
+    @Value("${transaction-aggregates.bucket-ms:60000}")
+    private long bucketMs;
+
+    @Value("${transaction-aggregates.lookback-hours:24}")
+    private long lookbackHours;
+
+    @Value("${transaction-aggregates.grace-ms:60000}")
+    private long graceMs;
+
+    public void build(StreamsBuilder builder) {
+        JsonSerde<TransactionCompletedEvent> eventSerde = new JsonSerde<>(TransactionCompletedEvent.class)
+                .ignoreTypeHeaders();
+        JsonSerde<AccountActivity> activitySerde = new JsonSerde<>(AccountActivity.class)
+                .noTypeInfo()
+                .ignoreTypeHeaders();
+
+        builder.stream(topic, Consumed.with(Serdes.String(), eventSerde))
+                .filter((accountId, event) -> accountId != null && event != null)
+                .groupByKey(Grouped.with(Serdes.String(), eventSerde))
+                .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofMillis(bucketMs), Duration.ofMillis(graceMs)))
+                .aggregate(AccountActivity::new,
+                        (accountId, event, activity) -> activity.add(event),
+                        Materialized.<String, AccountActivity>as(Stores.inMemoryWindowStore(STORE_NAME,
+                                        retention(), Duration.ofMillis(bucketMs), false))
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(activitySerde));
+    }
+
+    /**
+     * Totals of the buckets that overlap [from, to]. The first bucket may start before from, so the result
+     * can include up to one bucket of older activity; it never misses activity inside the range.
+     */
+    public AccountActivity activityBetween(ReadOnlyWindowStore<String, AccountActivity> store, String accountId,
+                                           Instant from, Instant to) {
+        AccountActivity total = new AccountActivity();
+        try (WindowStoreIterator<AccountActivity> buckets = store.fetch(accountId, from.minusMillis(bucketMs - 1), to)) {
+            buckets.forEachRemaining(bucket -> total.merge(bucket.value));
+        }
+        return total;
+    }
+
+    /**
+     * True when the store still holds every bucket of the range starting at since.
+     */
+    public boolean covers(Instant since, Instant now) {
+        return !since.isBefore(now.minus(Duration.ofHours(lookbackHours)));
+    }
+
+    private Duration retention() {
+        // Aralığın başını kısmen kapsayan bucket da saklansın
+        return Duration.ofHours(lookbackHours).plusMillis(bucketMs);
+    }
+}
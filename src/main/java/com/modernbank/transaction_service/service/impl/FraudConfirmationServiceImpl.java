@@ -14,8 +14,10 @@ import com.modernbank.transaction_service.repository.FraudDecisionRepository;
 import com.modernbank.transaction_service.repository.PendingTransactionRepository;
 import com.modernbank.transaction_service.repository.TransactionRepository;
 import com.modernbank.transaction_service.service.FraudConfirmationService;
+import com.modernbank.transaction_service.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,6 +44,10 @@ public class FraudConfirmationServiceImpl implements FraudConfirmationService {
     private final AccountServiceClient accountServiceClient;
     private final TransactionRepository transactionRepository;
     private final KafkaTemplate<String, TransferMoneyRequest> transferMoneyKafkaTemplate;
+    private final OutboxService outboxService;
+
+    @Value("${outbox.enabled:false}")
+    private boolean outboxEnabled;
 
     /**
      * Confirm a transaction as fraudulent.
@@ -165,7 +171,11 @@ public class FraudConfirmationServiceImpl implements FraudConfirmationService {
         transaction.setStatus(TransactionStatus.PENDING);
         transactionRepository.save(transaction);
 
-        transferMoneyKafkaTemplate.send("update-transfer-money", request);
+        if (outboxEnabled) {
+            outboxService.enqueue("update-transfer-money", request.getFromIBAN(), request);
+        } else {
+            transferMoneyKafkaTemplate.send("update-transfer-money", request.getFromIBAN(), request);
+        }
         log.info("HOLD transaction confirmed and resumed: transactionId={}", additionalApproveRequest.getTransactionId());
     }
 
@@ -12,6 +12,7 @@ import com.modernbank.transaction_service.model.enums.RiskLevel;
 import com.modernbank.transaction_service.repository.FraudEvaluationRepository;
 import com.modernbank.transaction_service.repository.TransactionRepository;
 import com.modernbank.transaction_service.service.FraudEvaluationService;
+import com.modernbank.transaction_service.service.event.streams.AccountActivityQueryService;
 import com.modernbank.transaction_service.service.util.FeatureVectorSerializer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,6 +37,8 @@ public class FraudEvaluationServiceImpl implements FraudEvaluationService {
 
     private final FeatureVectorSerializer featureVectorSerializer;
 
+    private final AccountActivityQueryService accountActivityQueryService;
+
     @Override
     public FraudDecision evaluateAndDecide(Transaction transaction, String senderAccountId) {
         log.info("Evaluating fraud for transaction: accountId={}, amount={}",
@@ -113,9 +116,14 @@ public class FraudEvaluationServiceImpl implements FraudEvaluationService {
                 senderAccountId, LocalDateTime.now().minusDays(7)
         );
 
-        Integer transactionCount24h = transactionRepository.countByAccountIdAndDateAfter(
-                senderAccountId, LocalDateTime.now().minusHours(24)
-        );
+        LocalDateTime since24h = LocalDateTime.now().minusHours(24);
+        Integer transactionCount24h = accountActivityQueryService.countSince(senderAccountId, since24h);
+        if (transactionCount24h != null) {
+            // Stream sadece tamamlanmış işlemleri sayar, SQL gibi değerlendirilen işlemi de dahil et
+            transactionCount24h++;
+        } else {
+            transactionCount24h = transactionRepository.countByAccountIdAndDateAfter(senderAccountId, since24h);
+        }
 
         Integer transactionCount7d = transactionRepository.countByAccountIdAndDateBetween(
                 senderAccountId, LocalDateTime.now().minusDays(7), LocalDateTime.now()
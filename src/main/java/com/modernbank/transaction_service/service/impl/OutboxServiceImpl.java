@@ -0,0 +1,54 @@
+package com.modernbank.transaction_service.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.entity.OutboxEvent;
+import com.modernbank.transaction_service.model.enums.OutboxStatus;
+import com.modernbank.transaction_service.repository.OutboxEventRepository;
+import com.modernbank.transaction_service.service.OutboxService;
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxServiceImpl implements OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void enqueue(String topic, String key, Object payload) {
+        enqueue(topic, key, payload, MDC.get("traceId"));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void enqueue(String topic, String key, Object payload, String traceId) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .topic(topic)
+                    .messageKey(key)
+                    .payloadType(payload.getClass().getName())
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .traceId(traceId)
+                    // Relay başka thread'den gönderir, saga ölçüm noktaları satırla birlikte saklanır
+                    .sagaCheckpoints(SagaTimingContext.checkpointOf(topic) == null
+                            ? null : SagaTimingContext.format(SagaTimingContext.current()))
+                    .status(OutboxStatus.PENDING)
+                    .attempts(0)
+                    .build());
+        } catch (JsonProcessingException e) {
+            // Serileştirilemeyen mesaj iş transaction'ını da geri almalı
+            throw new IllegalStateException("Could not serialize outbox payload for topic " + topic, e);
+        }
+        log.debug("Outbox event enqueued: topic={}, key={}", topic, key);
+    }
+}
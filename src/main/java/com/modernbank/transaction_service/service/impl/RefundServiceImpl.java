@@ -4,6 +4,7 @@ import com.modernbank.transaction_service.api.client.AccountServiceClient;
 import com.modernbank.transaction_service.api.client.NotificationServiceClient;
 import com.modernbank.transaction_service.api.request.SendNotificationRequest;
 import com.modernbank.transaction_service.api.response.GetAccountByIban;
+import com.modernbank.transaction_service.aspect.FeignCircuitBreakerCapability;
 import com.modernbank.transaction_service.entity.ATMTransfer;
 import com.modernbank.transaction_service.service.RefundService;
 import lombok.RequiredArgsConstructor;
@@ -22,7 +23,8 @@ public class RefundServiceImpl implements RefundService {
     @Override
     public void refundMoneyToAccountFromATM(ATMTransfer atmTransfer) {
         log.info("Refunding money to account from ATM");
-        accountServiceClient.updateBalance(atmTransfer.getSenderIban(),atmTransfer.getAmount());
+        FeignCircuitBreakerCapability.compensating(
+                () -> accountServiceClient.updateBalance(atmTransfer.getSenderIban(), atmTransfer.getAmount()));
         GetAccountByIban senderAccount = accountServiceClient.getAccountByIban(atmTransfer.getSenderIban());
 
         notificationServiceClient.sendNotification(SendNotificationRequest.builder()
@@ -17,15 +17,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final List<InvoiceStatus> OPEN_INVOICE_STATUSES = List.of(InvoiceStatus.PENDING, InvoiceStatus.PROCESSING);
+
     private final TransactionRepository transactionRepository;
 
     private final AccountServiceClient accountServiceClient;
@@ -145,6 +151,27 @@ public class TransactionServiceImpl implements TransactionService {
         transactionRepository.save(transaction);
     }
 
+    /**
+     * Bulk variant used by the invoice pipeline: one conditional update per transaction in a single DB transaction.
+     * Only open invoices (no status, PENDING or PROCESSING) are moved; a COMPLETED invoice or an invoice id
+     * already written by the invoice-service callback is left as is. Unknown transaction ids are skipped.
+     */
+    @Override
+    @Transactional
+    public int updateTransactionInvoiceStatuses(List<UpdateTransactionInvoiceStatus> requests) {
+        Map<String, UpdateTransactionInvoiceStatus> requestsById = requests.stream()
+                .collect(Collectors.toMap(UpdateTransactionInvoiceStatus::getTransactionId, Function.identity(),
+                        (first, second) -> second));
+
+        int updated = 0;
+        for (UpdateTransactionInvoiceStatus request : requestsById.values()) {
+            // Koşul UPDATE içinde: callback ile aynı anda yazılsa da tamamlanmış fatura geri alınmaz
+            updated += transactionRepository.updateOpenInvoiceStatus(request.getTransactionId(),
+                    request.getStatus(), request.getInvoiceId(), OPEN_INVOICE_STATUSES);
+        }
+        return updated;
+    }
+
     private TransactionModel mapToModel(Transaction transaction) {
         TransactionModel model = new TransactionModel();
         model.setId(transaction.getId());
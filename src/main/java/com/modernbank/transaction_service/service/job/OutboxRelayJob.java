@@ -0,0 +1,231 @@
+package com.modernbank.transaction_service.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.entity.OutboxEvent;
+import com.modernbank.transaction_service.model.enums.OutboxStatus;
+import com.modernbank.transaction_service.repository.OutboxEventRepository;
+import com.modernbank.transaction_service.service.TechnicalErrorService;
+import com.modernbank.transaction_service.service.event.saga.SagaTimingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.modernbank.transaction_service.constant.ErrorCodeConstants.*;
+import static com.modernbank.transaction_service.constant.HeaderKey.CORRELATION_ID;
+
+/**
+ * Relay for the transactional outbox.
+ *
+ * Responsibilities:
+ * - Drain PENDING outbox rows in id order, in batches
+ * - Publish them with async sends and wait for the whole batch once
+ * - Mark successes PUBLISHED with one bulk update
+ * - Keep per-key order: rows are read in id order under a row lock and sent through the
+ *   idempotent producer, so events with the same key reach their partition in commit order;
+ *   once a row fails, later rows with its key are held back until the next run
+ * - Restore the trace id and saga checkpoint (X-Saga-At-*) headers stored with each row
+ * - Raise a technical error when a transfer saga row gives up (FAILED), the saga does not continue by itself
+ * - Purge published rows after the retention period
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxRelayJob {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, Object> outboxKafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TechnicalErrorService technicalErrorService;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-seconds:30}")
+    private int sendTimeoutSeconds;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-hours:24}")
+    private int retentionHours;
+
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private final AtomicLong pendingBacklog = new AtomicLong();
+
+    @PostConstruct
+    public void initMetrics() {
+        publishedCounter = Counter.builder("outbox.events.published")
+                .description("Outbox events published to Kafka")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.events.failed")
+                .description("Outbox publish attempts that failed")
+                .register(meterRegistry);
+        Gauge.builder("outbox.events.pending", pendingBacklog, AtomicLong::get)
+                .description("Pending outbox events seen by the last relay run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publish pending outbox events.
+     * Runs continuously with a short delay between runs.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    @Transactional
+    public void relayPendingEvents() {
+        List<OutboxEvent> events = outboxEventRepository.findNextBatchForPublish(
+                OutboxStatus.PENDING, PageRequest.of(0, batchSize));
+        pendingBacklog.set(events.size());
+        if (events.isEmpty()) {
+            return;
+        }
+
+        List<OutboxEvent> sent = new ArrayList<>(events.size());
+        List<CompletableFuture<SendResult<String, Object>>> futures = new ArrayList<>(events.size());
+        Set<String> blockedKeys = new HashSet<>();
+        int heldBack = 0;
+        for (OutboxEvent event : events) {
+            if (isBlocked(event, blockedKeys)) {
+                // Aynı key'in önceki satırı gönderilemedi; sıra bozulmasın diye bu satır sonraki çalışmada denenir
+                heldBack++;
+                continue;
+            }
+            try {
+                futures.add(outboxKafkaTemplate.send(toProducerRecord(event)));
+                sent.add(event);
+            } catch (Exception e) {
+                block(event, blockedKeys);
+                markAttemptFailed(event, e);
+            }
+        }
+        outboxKafkaTemplate.flush();
+
+        // Gönderilmiş satırlar geri alınamaz: idempotent producer'da bir batch hatası aynı partition'daki
+        // sonraki in-flight batch'leri de düşürür, başarılı dönenler yayınlanmış sayılır
+        List<Long> publishedIds = new ArrayList<>(sent.size());
+        for (int i = 0; i < sent.size(); i++) {
+            OutboxEvent event = sent.get(i);
+            try {
+                futures.get(i).get(sendTimeoutSeconds, TimeUnit.SECONDS);
+                publishedIds.add(event.getId());
+            } catch (Exception e) {
+                markAttemptFailed(event, e);
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            outboxEventRepository.markPublished(publishedIds, OutboxStatus.PUBLISHED, LocalDateTime.now());
+            publishedCounter.increment(publishedIds.size());
+        }
+        log.debug("Outbox relay run: fetched={}, published={}, heldBack={}", events.size(), publishedIds.size(), heldBack);
+    }
+
+    /**
+     * Delete published events older than the retention period.
+     * Runs every hour.
+     */
+    @Scheduled(fixedRate = 3600000)
+    @Transactional
+    public void purgePublishedEvents() {
+        int deleted = outboxEventRepository.deletePublishedBefore(
+                OutboxStatus.PUBLISHED, LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+
+    private ProducerRecord<String, Object> toProducerRecord(OutboxEvent event) throws Exception {
+        Object payload = objectMapper.readValue(event.getPayload(), Class.forName(event.getPayloadType()));
+        ProducerRecord<String, Object> record = new ProducerRecord<>(event.getTopic(), event.getMessageKey(), payload);
+        if (event.getTraceId() != null) {
+            byte[] traceId = event.getTraceId().getBytes(StandardCharsets.UTF_8);
+            record.headers().add("traceId", traceId);
+            record.headers().add(CORRELATION_ID, traceId);
+        }
+        SagaTimingContext.writeFormatted(record.headers(), event.getSagaCheckpoints());
+        return record;
+    }
+
+    private void markAttemptFailed(OutboxEvent event, Exception e) {
+        failedCounter.increment();
+        int attempts = event.getAttempts() == null ? 1 : event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getMessage()));
+        if (attempts >= maxAttempts) {
+            event.setStatus(OutboxStatus.FAILED);
+            log.error("Outbox event {} for topic {} failed {} times, giving up: {}",
+                    event.getId(), event.getTopic(), attempts, e.getMessage());
+            reportAbandonedSagaStep(event, e);
+        } else {
+            log.warn("Outbox event {} for topic {} failed (attempt {}): {}",
+                    event.getId(), event.getTopic(), attempts, e.getMessage());
+        }
+        outboxEventRepository.save(event);
+    }
+
+    private boolean isBlocked(OutboxEvent event, Set<String> blockedKeys) {
+        return event.getMessageKey() != null && blockedKeys.contains(event.getTopic() + "|" + event.getMessageKey());
+    }
+
+    private void block(OutboxEvent event, Set<String> blockedKeys) {
+        // Key'siz satırların (bildirimler) sırası yok, engellenmez
+        if (event.getMessageKey() != null) {
+            blockedKeys.add(event.getTopic() + "|" + event.getMessageKey());
+        }
+    }
+
+    private void reportAbandonedSagaStep(OutboxEvent event, Exception e) {
+        String errorCode = sagaErrorCode(event.getTopic());
+        if (errorCode == null) {
+            return;
+        }
+        // Saga adımı bir daha yayınlanmayacak; transfer yarıda kaldığı için manuel telafi gerekir
+        technicalErrorService.handleTechnicalError(errorCode, new IllegalStateException(
+                "Outbox event " + event.getId() + " for " + event.getTopic() + " (key " + event.getMessageKey()
+                        + ") abandoned after " + event.getAttempts() + " attempts: " + e.getMessage(), e));
+    }
+
+    private String sagaErrorCode(String topic) {
+        if (topic.startsWith("start-transfer-money")) {
+            return TECH_START_TRANSFER_MONEY_ERROR;
+        }
+        if (topic.startsWith("update-transfer-money")) {
+            return TECH_UPDATE_TRANSFER_MONEY_ERROR;
+        }
+        if (topic.startsWith("finalize-transfer-money")) {
+            return TECH_FINALIZE_TRANSFER_MONEY_ERROR;
+        }
+        return null;
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
@@ -11,6 +11,7 @@ import com.modernbank.transaction_service.model.enums.TransactionStatus;
 import com.modernbank.transaction_service.repository.FraudDecisionRepository;
 import com.modernbank.transaction_service.repository.PendingTransactionRepository;
 import com.modernbank.transaction_service.service.FraudDecisionEngine;
+import com.modernbank.transaction_service.service.event.producer.TransferLaneRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -47,6 +48,7 @@ public class TransactionRecoveryJob {
     private final AccountServiceClient accountServiceClient;
     private final KafkaTemplate<String, SendNotificationRequest> notificationKafkaTemplate;
     private final KafkaTemplate<String, TransferMoneyRequest> transferMoneyKafkaTemplate;
+    private final TransferLaneRouter transferLaneRouter;
     private final ObjectMapper objectMapper;
 
     @Value("${fraud.recovery.stuck-threshold-minutes:30}")
@@ -310,13 +312,13 @@ public class TransactionRecoveryJob {
             case "FRAUD_EVALUATE":
                 // Both stages should restart from beginning
                 log.info("Retrying transaction {} from start-transfer-money topic", pending.getId());
-                transferMoneyKafkaTemplate.send("start-transfer-money", request);
+                transferMoneyKafkaTemplate.send(transferLaneRouter.startTopic(request, true), request.getFromIBAN(), request);
                 break;
 
             default:
                 log.warn("Unknown stage {} for transaction {}, sending to start-transfer-money",
                         stage, pending.getId());
-                transferMoneyKafkaTemplate.send("start-transfer-money", request);
+                transferMoneyKafkaTemplate.send(transferLaneRouter.startTopic(request, true), request.getFromIBAN(), request);
         }
 
         log.info("Successfully re-queued stuck transaction {} for retry", pending.getId());
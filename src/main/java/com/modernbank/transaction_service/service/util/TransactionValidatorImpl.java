@@ -9,6 +9,7 @@ import com.modernbank.transaction_service.api.response.GetAccountByIdResponse;
 import com.modernbank.transaction_service.exception.BusinessException;
 import com.modernbank.transaction_service.exception.InsufficientFundsException;
 import com.modernbank.transaction_service.repository.TransactionRepository;
+import com.modernbank.transaction_service.service.event.snapshot.AccountSnapshotPolicy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,8 @@ public class TransactionValidatorImpl implements TransactionValidator {
 
     private final TransactionRepository transactionRepository;
 
+    private final AccountSnapshotPolicy accountSnapshotPolicy;
+
     @Override
     public void validateTransferMoney(TransferMoneyRequest request) {
         log.info("Validating transfer money request: {}", request);
@@ -35,6 +38,8 @@ public class TransactionValidatorImpl implements TransactionValidator {
         isSenderIBANBlacklisted(request.getFromIBAN());
         isReceiverIBANBlacklisted(request.getToIBAN());
         validateIBANsAreDifferent(request.getFromIBAN(), request.getToIBAN());
+        // Gönderen her adımda taze okunur (bakiye, faturadaki TCKN); istemcinin gönderdiği snapshot taşınmaz
+        request.setSenderSnapshot(null);
         log.info("Transfer money request validated successfully");
     }
 
@@ -53,6 +58,7 @@ public class TransactionValidatorImpl implements TransactionValidator {
         GetAccountByIdResponse account = getAccountByIdOrThrow(request.getAccountId());
         validateSufficientFunds(account, request.getAmount());
         validateWithdrawDailyLimit(request, account);
+        request.setAccountSnapshot(accountSnapshotPolicy.capture(account.getAccount()));
         log.info("Withdraw money daily limit validated successfully");
     }
 
@@ -63,8 +69,9 @@ public class TransactionValidatorImpl implements TransactionValidator {
         isAccountBlocked(senderAccount.getAccountId());
         validateSufficientFunds(senderAccount, request.getAmount());
 
-        Double depositATMDailySum = transactionRepository
-                .sumDepositsToATMLast24Hours(senderAccount.getAccountId(), LocalDateTime.now());
+        // Limitler SQL'den okunur: akış sadece tamamlanan işlemleri, gecikmeli olarak görür
+        Double depositATMDailySum = transactionRepository.sumDepositsToATMLast24Hours(senderAccount.getAccountId(),
+                LocalDateTime.now().minusHours(24));
 
         if (depositATMDailySum + request.getAmount() > senderAccount.getDailyDepositLimit()) {
             throw new BusinessException(DYNAMIC_ATM_DEPOSIT_LIMIT_EXCEEDED,
@@ -88,7 +95,7 @@ public class TransactionValidatorImpl implements TransactionValidator {
         log.info("Validating deposit daily limit for request: {}", request);
         GetAccountByIdResponse account = getAccountByIdOrThrow(request.getAccountId());
         double last24HourDepositSum = transactionRepository.
-                sumDepositsLast24Hours(request.getAccountId(), LocalDateTime.now());
+                sumDepositsLast24Hours(request.getAccountId(), LocalDateTime.now().minusHours(24));
         log.info("Last 24 hour deposit sum: {}", last24HourDepositSum);
 
         if (last24HourDepositSum + request.getAmount() > account.getAccount().getDailyDepositLimit()) {
@@ -97,12 +104,13 @@ public class TransactionValidatorImpl implements TransactionValidator {
                     account.getAccount().getDailyDepositLimit() - last24HourDepositSum
             );
         }
+        request.setAccountSnapshot(accountSnapshotPolicy.capture(account.getAccount()));
         log.info("Deposit daily limit validated successfully");
     }
 
     private void validateWithdrawDailyLimit(WithdrawAndDepositMoneyRequest request, GetAccountByIdResponse account) {
         double last24HourWithdrawSum = transactionRepository.
-                sumWithdrawalsLast24Hours(request.getAccountId(), LocalDateTime.now());
+                sumWithdrawalsLast24Hours(request.getAccountId(), LocalDateTime.now().minusHours(24));
 
         if (last24HourWithdrawSum + request.getAmount() > account.getAccount().getDailyWithdrawLimit()) {
             throw new BusinessException(DYNAMIC_DAILY_WITHDRAW_LIMIT_EXCEEDED,
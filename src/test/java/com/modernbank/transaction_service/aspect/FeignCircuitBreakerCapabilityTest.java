@@ -0,0 +1,70 @@
+package com.modernbank.transaction_service.aspect;
+
+import com.modernbank.transaction_service.api.client.AccountServiceClient;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignCircuitBreakerCapabilityTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private Client client;
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        Client delegate = (request, options) -> {
+            calls.incrementAndGet();
+            return Response.builder()
+                    .status(200)
+                    .request(request)
+                    .headers(Map.of())
+                    .build();
+        };
+        client = new FeignCircuitBreakerCapability(circuitBreakerRegistry).enrich(delegate);
+        circuitBreakerRegistry.circuitBreaker(FeignCircuitBreakerCapability.ACCOUNT_SERVICE_BREAKER).transitionToOpenState();
+    }
+
+    @Test
+    void feignCircuitBreakerCapability_should_fail_fast_while_open() {
+        assertThrows(CallNotPermittedException.class, () -> client.execute(accountServiceRequest(), new Request.Options()));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void feignCircuitBreakerCapability_should_let_compensating_calls_through_while_open() {
+        FeignCircuitBreakerCapability.compensating(() -> {
+            try {
+                assertEquals(200, client.execute(accountServiceRequest(), new Request.Options()).status());
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+
+        assertEquals(1, calls.get());
+        // İşaret blok bitince kalkar
+        assertThrows(CallNotPermittedException.class, () -> client.execute(accountServiceRequest(), new Request.Options()));
+    }
+
+    private Request accountServiceRequest() {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(AccountServiceClient.class, "account-service", "http://account-service"));
+        return Request.create(Request.HttpMethod.POST, "http://account-service/balance", Map.of(),
+                new byte[0], StandardCharsets.UTF_8, template);
+    }
+}
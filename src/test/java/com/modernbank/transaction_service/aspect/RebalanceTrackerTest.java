@@ -0,0 +1,69 @@
+package com.modernbank.transaction_service.aspect;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RebalanceTrackerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("start-transfer-money", 0);
+
+    @Mock
+    private Consumer<String, String> consumer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AtomicInteger flushes;
+
+    private RebalanceTracker<String, String> rebalanceTracker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flushes = new AtomicInteger();
+        rebalanceTracker = new RebalanceTracker<>(meterRegistry, flushes::incrementAndGet);
+        lenient().when(consumer.groupMetadata()).thenReturn(new ConsumerGroupMetadata("transfer-group"));
+    }
+
+    @Test
+    void rebalanceTracker_should_flush_before_revoke_and_time_the_rebalance() {
+        rebalanceTracker.onPartitionsRevokedBeforeCommit(consumer, List.of(PARTITION));
+        rebalanceTracker.onPartitionsAssigned(consumer, List.of(PARTITION));
+
+        assertEquals(1, flushes.get());
+        assertEquals(1, meterRegistry.get("kafka.consumer.rebalance").tag("group", "transfer-group").timer().count());
+        assertEquals(1, meterRegistry.get("kafka.consumer.rebalance.partitions").tag("event", "revoked").counter().count());
+    }
+
+    @Test
+    void rebalanceTracker_should_count_redeliveries_by_cause() {
+        rebalanceTracker.intercept(record(10), consumer);
+        rebalanceTracker.intercept(record(10), consumer);
+
+        rebalanceTracker.onPartitionsAssigned(consumer, List.of(PARTITION));
+        rebalanceTracker.intercept(record(9), consumer);
+        rebalanceTracker.intercept(record(11), consumer);
+        rebalanceTracker.intercept(record(11), consumer);
+
+        assertEquals(2, meterRegistry.get("kafka.consumer.redelivered").tag("cause", "retry").counter().count());
+        assertEquals(1, meterRegistry.get("kafka.consumer.redelivered").tag("cause", "rebalance").counter().count());
+    }
+
+    private ConsumerRecord<String, String> record(long offset) {
+        return new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), offset, "key", "value");
+    }
+}
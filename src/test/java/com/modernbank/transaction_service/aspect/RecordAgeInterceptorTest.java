@@ -0,0 +1,34 @@
+package com.modernbank.transaction_service.aspect;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordAgeInterceptorTest {
+
+    @Test
+    void recordAgeInterceptor_should_record_age_per_topic_and_skip_records_without_timestamp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RecordAgeInterceptor<String, String> interceptor = new RecordAgeInterceptor<>(meterRegistry);
+
+        interceptor.intercept(record("start-transfer-money", System.currentTimeMillis() - 5000), null);
+        interceptor.intercept(record("start-transfer-money", ConsumerRecord.NO_TIMESTAMP), null);
+
+        Timer timer = meterRegistry.get("kafka.consumer.record.age").tag("topic", "start-transfer-money").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5000);
+    }
+
+    private ConsumerRecord<String, String> record(String topic, long timestamp) {
+        return new ConsumerRecord<>(topic, 0, 0L, timestamp, TimestampType.CREATE_TIME,
+                0, 0, "TR1", "value", new RecordHeaders(), Optional.empty());
+    }
+}
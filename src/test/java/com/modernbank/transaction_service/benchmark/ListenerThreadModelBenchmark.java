@@ -0,0 +1,121 @@
+package com.modernbank.transaction_service.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.MDC;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the current platform thread model with the virtual thread mode for saga-like work:
+ * every message makes three blocking remote calls (account lookup, fraud evaluation, balance update)
+ * while carrying its traceId in the MDC.
+ *
+ * PLATFORM uses a fixed pool sized like the listener/dispatcher threads, VIRTUAL starts one virtual
+ * thread per message. VIRTUAL needs a Java 21 runtime, build with -Pjava21.
+ *
+ * Run: mvn -Pjava21 test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.modernbank.transaction_service.benchmark.ListenerThreadModelBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListenerThreadModelBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String threadModel;
+
+    @Param({"16"})
+    private int platformThreads;
+
+    @Param({"1000"})
+    private int messagesInFlight;
+
+    @Param({"20"})
+    private long remoteCallMillis;
+
+    private Executor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("VIRTUAL".equals(threadModel)) {
+            SimpleAsyncTaskExecutor virtualExecutor = new SimpleAsyncTaskExecutor("benchmark-vt-");
+            virtualExecutor.setVirtualThreads(true);
+            executor = virtualExecutor;
+        } else {
+            executor = Executors.newFixedThreadPool(platformThreads);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * One operation is a full batch of messagesInFlight saga steps, throughput is reported in batches/s.
+     */
+    @Benchmark
+    public int sagaBatch() {
+        CompletableFuture<?>[] futures = new CompletableFuture[messagesInFlight];
+        for (int i = 0; i < messagesInFlight; i++) {
+            futures[i] = CompletableFuture.runAsync(this::sagaStep, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+        return futures.length;
+    }
+
+    private void sagaStep() {
+        String traceId = UUID.randomUUID().toString();
+        MDC.put("traceId", traceId);
+        try {
+            for (int call = 0; call < 3; call++) {
+                remoteCall();
+                if (!traceId.equals(MDC.get("traceId"))) {
+                    throw new IllegalStateException("traceId lost after blocking call");
+                }
+            }
+        } finally {
+            MDC.remove("traceId");
+        }
+    }
+
+    private void remoteCall() {
+        try {
+            Thread.sleep(remoteCallMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListenerThreadModelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
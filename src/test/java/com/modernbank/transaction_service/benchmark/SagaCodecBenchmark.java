@@ -0,0 +1,112 @@
+package com.modernbank.transaction_service.benchmark;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.service.event.codec.TransferMoneyRequestBinaryDeserializer;
+import com.modernbank.transaction_service.service.event.codec.TransferMoneyRequestBinarySerializer;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode/decode cost of the saga payload with the current JsonSerializer/JsonDeserializer pair
+ * (type headers on, as the shared producer sends them) against the binary codec.
+ * Payload sizes are printed once per trial.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=com.modernbank.transaction_service.benchmark.SagaCodecBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SagaCodecBenchmark {
+
+    private static final String TOPIC = "update-transfer-money";
+
+    private TransferMoneyRequest request;
+
+    private JsonSerializer<TransferMoneyRequest> jsonSerializer;
+    private JsonDeserializer<TransferMoneyRequest> jsonDeserializer;
+    private TransferMoneyRequestBinarySerializer binarySerializer;
+    private TransferMoneyRequestBinaryDeserializer binaryDeserializer;
+
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = TransferMoneyRequest.builder()
+                .senderTransactionId("3f2b8c1e-5d7a-4e90-b1c2-8a6f4d3e2b10")
+                .receiverTransactionId("9a1c7e3b-2f4d-4b86-a5e0-1d3c5b7a9f24")
+                .fromIBAN("TR330006100519786457841326")
+                .toIBAN("TR120006200119000006672315")
+                .amount(1250.75)
+                .description("Kira ödemesi - Ocak")
+                .toFirstName("Ayşe")
+                .toSecondName("")
+                .toLastName("Yılmaz")
+                .byAi("FALSE")
+                .isConfirmed(true)
+                .build();
+        request.setUserId("b7e4c2a1-6f3d-4a8e-9c1b-2d5f7e9a3c64");
+
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>();
+        jsonDeserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.VALUE_DEFAULT_TYPE, TransferMoneyRequest.class.getName(),
+                JsonDeserializer.USE_TYPE_INFO_HEADERS, false), false);
+        binarySerializer = new TransferMoneyRequestBinarySerializer();
+        binaryDeserializer = new TransferMoneyRequestBinaryDeserializer(
+                new JsonDeserializer<>(TransferMoneyRequest.class, false));
+
+        jsonPayload = jsonSerializer.serialize(TOPIC, new RecordHeaders(), request);
+        binaryPayload = binarySerializer.serialize(TOPIC, request);
+        System.out.printf("%nPayload size: json=%d bytes, binary=%d bytes%n", jsonPayload.length, binaryPayload.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), request);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binarySerializer.serialize(TOPIC, request);
+    }
+
+    @Benchmark
+    public TransferMoneyRequest jsonDecode() {
+        return jsonDeserializer.deserialize(TOPIC, new RecordHeaders(), jsonPayload);
+    }
+
+    @Benchmark
+    public TransferMoneyRequest binaryDecode() {
+        return binaryDeserializer.deserialize(TOPIC, new RecordHeaders(), binaryPayload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SagaCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
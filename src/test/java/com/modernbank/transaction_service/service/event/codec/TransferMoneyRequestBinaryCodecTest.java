@@ -0,0 +1,122 @@
+package com.modernbank.transaction_service.service.event.codec;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.model.AccountSnapshot;
+import com.modernbank.transaction_service.model.enums.Currency;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferMoneyRequestBinaryCodecTest {
+
+    private TransferMoneyRequestBinarySerializer serializer;
+    private TransferMoneyRequestBinaryDeserializer deserializer;
+    private TransferMoneyRequest request;
+
+    @BeforeEach
+    void setUp() {
+        serializer = new TransferMoneyRequestBinarySerializer();
+        deserializer = new TransferMoneyRequestBinaryDeserializer(
+                new JsonDeserializer<>(TransferMoneyRequest.class, false));
+
+        request = TransferMoneyRequest.builder()
+                .senderTransactionId("sender-transaction-id")
+                .receiverTransactionId(null)
+                .fromIBAN("TR123456789012345678901234")
+                .toIBAN("TR987654321098765432109876")
+                .amount(1250.75)
+                .description("Kira ödemesi")
+                .toFirstName("Ayşe")
+                .toSecondName("")
+                .toLastName("Yılmaz")
+                .byAi("FALSE")
+                .isConfirmed(true)
+                .build();
+        request.setUserId("user123");
+    }
+
+    @Test
+    void binaryCodec_should_round_trip_all_fields_including_nulls() {
+        byte[] payload = serializer.serialize("start-transfer-money", request);
+
+        TransferMoneyRequest decoded = deserializer.deserialize("start-transfer-money", new RecordHeaders(), payload);
+
+        assertEquals(TransferMoneyRequestBinaryCodec.MAGIC, payload[0]);
+        assertEquals(request.getSenderTransactionId(), decoded.getSenderTransactionId());
+        assertNull(decoded.getReceiverTransactionId());
+        assertEquals(request.getFromIBAN(), decoded.getFromIBAN());
+        assertEquals(request.getToIBAN(), decoded.getToIBAN());
+        assertEquals(request.getAmount(), decoded.getAmount());
+        assertEquals(request.getDescription(), decoded.getDescription());
+        assertEquals(request.getToFirstName(), decoded.getToFirstName());
+        assertEquals("", decoded.getToSecondName());
+        assertEquals(request.getToLastName(), decoded.getToLastName());
+        assertEquals(request.getByAi(), decoded.getByAi());
+        assertEquals(Boolean.TRUE, decoded.getIsConfirmed());
+        assertNull(decoded.getToken());
+        assertEquals("user123", decoded.getUserId());
+    }
+
+    @Test
+    void binaryCodec_should_write_version_1_without_snapshots_and_round_trip_snapshots_in_current_version() {
+        byte[] withoutSnapshots = serializer.serialize("start-transfer-money", request);
+        assertEquals(1, withoutSnapshots[1]);
+
+        request.setSenderSnapshot(AccountSnapshot.builder()
+                .version(1)
+                .accountId("account-1")
+                .iban(request.getFromIBAN())
+                .userId("user123")
+                .firstName("Mehmet")
+                .currency(Currency.TRY)
+                .balance(5000.0)
+                .fetchedAt(1_700_000_000_000L)
+                .signature("c2lnbmF0dXJl")
+                .build());
+
+        byte[] payload = serializer.serialize("start-transfer-money", request);
+        TransferMoneyRequest decoded = deserializer.deserialize("start-transfer-money", new RecordHeaders(), payload);
+
+        assertEquals(TransferMoneyRequestBinaryCodec.CURRENT_VERSION, payload[1]);
+        assertEquals("user123", decoded.getUserId());
+        assertNull(decoded.getReceiverSnapshot());
+        AccountSnapshot snapshot = decoded.getSenderSnapshot();
+        assertEquals(1, snapshot.getVersion());
+        assertEquals("account-1", snapshot.getAccountId());
+        assertEquals(request.getFromIBAN(), snapshot.getIban());
+        assertEquals("Mehmet", snapshot.getFirstName());
+        assertNull(snapshot.getSecondName());
+        assertEquals(Currency.TRY, snapshot.getCurrency());
+        assertEquals(5000.0, snapshot.getBalance());
+        assertEquals(1_700_000_000_000L, snapshot.getFetchedAt());
+        assertEquals("c2lnbmF0dXJl", snapshot.getSignature());
+    }
+
+    @Test
+    void binaryCodec_should_fall_back_to_json_for_payloads_from_older_producers() {
+        byte[] jsonPayload;
+        try (JsonSerializer<TransferMoneyRequest> jsonSerializer = new JsonSerializer<>()) {
+            jsonPayload = jsonSerializer.serialize("start-transfer-money", request);
+        }
+
+        TransferMoneyRequest decoded = deserializer.deserialize("start-transfer-money", new RecordHeaders(), jsonPayload);
+
+        assertEquals(request.getFromIBAN(), decoded.getFromIBAN());
+        assertEquals(request.getAmount(), decoded.getAmount());
+        assertEquals("user123", decoded.getUserId());
+    }
+
+    @Test
+    void binaryCodec_should_reject_unknown_schema_version() {
+        byte[] payload = serializer.serialize("start-transfer-money", request);
+        payload[1] = (byte) (TransferMoneyRequestBinaryCodec.CURRENT_VERSION + 1);
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("start-transfer-money", new RecordHeaders(), payload));
+    }
+}
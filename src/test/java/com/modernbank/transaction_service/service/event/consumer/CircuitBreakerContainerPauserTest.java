@@ -0,0 +1,79 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.circuitbreaker.event.CircuitBreakerOnStateTransitionEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CircuitBreakerContainerPauserTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry = mock(KafkaListenerEndpointRegistry.class);
+
+    private MessageListenerContainer transferContainer;
+    private MessageListenerContainer transferRetryContainer;
+    private MessageListenerContainer notificationContainer;
+
+    private CircuitBreakerContainerPauser pauser;
+
+    @BeforeEach
+    void setUp() {
+        transferContainer = container("start-transfer-money");
+        transferRetryContainer = container("start-transfer-money-retry-1000");
+        notificationContainer = container("notification-service");
+        when(kafkaListenerEndpointRegistry.getAllListenerContainers())
+                .thenReturn(List.of(transferContainer, transferRetryContainer, notificationContainer));
+
+        pauser = new CircuitBreakerContainerPauser(CircuitBreakerRegistry.ofDefaults(), kafkaListenerEndpointRegistry,
+                meterRegistry);
+        ReflectionTestUtils.setField(pauser, "enabled", true);
+        ReflectionTestUtils.setField(pauser, "accountServiceTopics", List.of("start-transfer-money"));
+        ReflectionTestUtils.setField(pauser, "fraudMLServiceTopics", List.of());
+        pauser.init();
+    }
+
+    @Test
+    void circuitBreakerContainerPauser_should_pause_dependent_containers_on_open_and_resume_on_half_open() {
+        Set<String> topics = Set.of("start-transfer-money");
+
+        pauser.onStateTransition(transition(CircuitBreaker.StateTransition.CLOSED_TO_OPEN), topics);
+
+        verify(transferContainer).pause();
+        verify(transferRetryContainer).pause();
+        verify(notificationContainer, never()).pause();
+        assertEquals(1, meterRegistry.get("kafka.listener.pauses").tag("breaker", "accountService").counter().count());
+        assertEquals(1, meterRegistry.get("kafka.listener.paused").tag("breaker", "accountService").gauge().value());
+
+        when(transferContainer.isPauseRequested()).thenReturn(true);
+        when(transferRetryContainer.isPauseRequested()).thenReturn(true);
+        pauser.onStateTransition(transition(CircuitBreaker.StateTransition.OPEN_TO_HALF_OPEN), topics);
+
+        verify(transferContainer).resume();
+        verify(transferRetryContainer).resume();
+        assertEquals(0, meterRegistry.get("kafka.listener.paused").tag("breaker", "accountService").gauge().value());
+        assertEquals(1, meterRegistry.get("kafka.listener.paused.duration").tag("breaker", "accountService").timer().count());
+    }
+
+    private CircuitBreakerOnStateTransitionEvent transition(CircuitBreaker.StateTransition stateTransition) {
+        return new CircuitBreakerOnStateTransitionEvent("accountService", stateTransition);
+    }
+
+    private MessageListenerContainer container(String topic) {
+        MessageListenerContainer container = mock(MessageListenerContainer.class);
+        when(container.getContainerProperties()).thenReturn(new ContainerProperties(topic));
+        return container;
+    }
+}
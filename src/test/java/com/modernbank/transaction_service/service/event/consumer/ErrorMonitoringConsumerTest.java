@@ -0,0 +1,93 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.api.client.ParameterServiceClient;
+import com.modernbank.transaction_service.api.request.LogErrorBulkRequest;
+import com.modernbank.transaction_service.api.request.LogErrorRequest;
+import com.modernbank.transaction_service.model.TransactionErrorEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ErrorMonitoringConsumerTest {
+
+    @Mock
+    private ParameterServiceClient parameterServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ErrorMonitoringConsumer errorMonitoringConsumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        errorMonitoringConsumer = new ErrorMonitoringConsumer(parameterServiceClient, meterRegistry);
+        ReflectionTestUtils.setField(errorMonitoringConsumer, "aggregationEnabled", true);
+    }
+
+    @Test
+    void errorMonitoringConsumer_should_forward_one_counted_summary_per_error_key_in_bulk() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 10, 0);
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0001", "TECHNICAL_ERROR", start.plusSeconds(2)));
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0001", "TECHNICAL_ERROR", start));
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0001", "TECHNICAL_ERROR", start.plusSeconds(5)));
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0002", "BUSINESS_ERROR", start));
+
+        errorMonitoringConsumer.flushAggregatedErrors();
+
+        ArgumentCaptor<LogErrorBulkRequest> captor = ArgumentCaptor.forClass(LogErrorBulkRequest.class);
+        verify(parameterServiceClient).logErrors(captor.capture());
+        verify(parameterServiceClient, never()).logError(any(LogErrorRequest.class));
+
+        List<LogErrorRequest> summaries = captor.getValue().getErrors().stream()
+                .sorted(Comparator.comparing(LogErrorRequest::getErrorCode))
+                .toList();
+        assertEquals(2, summaries.size());
+        assertEquals(3L, summaries.get(0).getOccurrenceCount());
+        assertEquals(start, summaries.get(0).getFirstOccurrence());
+        assertEquals(start.plusSeconds(5), summaries.get(0).getTimestamp());
+        assertEquals(1L, summaries.get(1).getOccurrenceCount());
+        assertEquals(3, meterRegistry.get("transaction.errors").tag("errorCode", "DTSE-0001").counter().count());
+
+        // Pencere boşaldı, ikinci flush çağrı yapmaz
+        errorMonitoringConsumer.flushAggregatedErrors();
+        verifyNoMoreInteractions(parameterServiceClient);
+    }
+
+    @Test
+    void errorMonitoringConsumer_should_fall_back_to_single_calls_when_bulk_call_fails() {
+        when(parameterServiceClient.logErrors(any(LogErrorBulkRequest.class)))
+                .thenThrow(new RuntimeException("404 Not Found"));
+
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0001", "TECHNICAL_ERROR", LocalDateTime.now()));
+        errorMonitoringConsumer.handleErrorEvent(event("DTSE-0002", "BUSINESS_ERROR", LocalDateTime.now()));
+        errorMonitoringConsumer.flushAggregatedErrors();
+
+        verify(parameterServiceClient, times(2)).logError(any(LogErrorRequest.class));
+        assertEquals(2, meterRegistry.get("transaction.errors.forwarded").tag("mode", "single").counter().count());
+    }
+
+    private TransactionErrorEvent event(String errorCode, String errorType, LocalDateTime timestamp) {
+        return TransactionErrorEvent.builder()
+                .transactionId("tx-1")
+                .userId("user-1")
+                .errorCode(errorCode)
+                .errorType(errorType)
+                .errorMessage("failure " + errorCode)
+                .timestamp(timestamp)
+                .build();
+    }
+}
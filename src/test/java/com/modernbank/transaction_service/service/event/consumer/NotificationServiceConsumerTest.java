@@ -0,0 +1,130 @@
+package com.modernbank.transaction_service.service.event.consumer;
+
+import com.modernbank.transaction_service.api.client.NotificationServiceClient;
+import com.modernbank.transaction_service.api.dto.NotificationDeliveryResultDTO;
+import com.modernbank.transaction_service.api.request.SendNotificationBulkRequest;
+import com.modernbank.transaction_service.api.request.SendNotificationRequest;
+import com.modernbank.transaction_service.api.response.SendNotificationBulkResponse;
+import com.modernbank.transaction_service.exception.RemoteDirectException;
+import feign.Request;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationServiceConsumerTest {
+
+    @Mock
+    private NotificationServiceClient notificationServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NotificationServiceConsumer notificationServiceConsumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationServiceConsumer = new NotificationServiceConsumer(notificationServiceClient, meterRegistry);
+        ReflectionTestUtils.setField(notificationServiceConsumer, "bulkSize", 2);
+    }
+
+    @Test
+    void notificationServiceConsumer_should_send_chunks_in_bulk_and_resend_failed_items_one_by_one() {
+        when(notificationServiceClient.sendNotifications(any(SendNotificationBulkRequest.class)))
+                .thenReturn(SendNotificationBulkResponse.builder()
+                        .results(List.of(
+                                NotificationDeliveryResultDTO.builder().index(0).success(true).build(),
+                                NotificationDeliveryResultDTO.builder().index(1).success(false).errorMessage("timeout").build()))
+                        .build())
+                .thenReturn(SendNotificationBulkResponse.builder()
+                        .results(List.of(NotificationDeliveryResultDTO.builder().index(0).success(true).build()))
+                        .build());
+
+        notificationServiceConsumer.consumeNotificationBatch(records("user-1", "user-2", "user-3"));
+
+        ArgumentCaptor<SendNotificationBulkRequest> bulkCaptor = ArgumentCaptor.forClass(SendNotificationBulkRequest.class);
+        verify(notificationServiceClient, times(2)).sendNotifications(bulkCaptor.capture());
+        assertEquals(2, bulkCaptor.getAllValues().get(0).getNotifications().size());
+        assertEquals(1, bulkCaptor.getAllValues().get(1).getNotifications().size());
+
+        ArgumentCaptor<SendNotificationRequest> singleCaptor = ArgumentCaptor.forClass(SendNotificationRequest.class);
+        verify(notificationServiceClient).sendNotification(singleCaptor.capture());
+        assertEquals("user-2", singleCaptor.getValue().getUserId());
+        assertEquals(2, meterRegistry.get("notification.delivery").tag("mode", "bulk").tag("result", "success").counter().count());
+    }
+
+    @Test
+    void notificationServiceConsumer_should_fall_back_to_single_sends_when_bulk_call_fails() {
+        when(notificationServiceClient.sendNotifications(any(SendNotificationBulkRequest.class)))
+                .thenThrow(new RuntimeException("404 Not Found"));
+
+        notificationServiceConsumer.consumeNotificationBatch(records("user-1", "user-2"));
+
+        verify(notificationServiceClient, times(2)).sendNotification(any(SendNotificationRequest.class));
+        assertEquals(2, meterRegistry.get("notification.delivery").tag("mode", "single").tag("result", "success").counter().count());
+    }
+
+    @Test
+    void notificationServiceConsumer_should_resend_chunk_one_by_one_when_bulk_call_returns_no_results() {
+        when(notificationServiceClient.sendNotifications(any(SendNotificationBulkRequest.class)))
+                .thenReturn(SendNotificationBulkResponse.builder().build());
+
+        notificationServiceConsumer.consumeNotificationBatch(records("user-1", "user-2"));
+
+        verify(notificationServiceClient, times(2)).sendNotification(any(SendNotificationRequest.class));
+        assertEquals(2, meterRegistry.get("notification.delivery").tag("mode", "bulk").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void notificationServiceConsumer_should_not_resend_chunk_when_bulk_call_timed_out() {
+        Request request = Request.create(Request.HttpMethod.POST, "/notification/send/bulk", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        when(notificationServiceClient.sendNotifications(any(SendNotificationBulkRequest.class)))
+                .thenThrow(new RetryableException(-1, "Read timed out", Request.HttpMethod.POST,
+                        new SocketTimeoutException("Read timed out"), (Long) null, request));
+
+        notificationServiceConsumer.consumeNotificationBatch(records("user-1", "user-2"));
+
+        verify(notificationServiceClient, never()).sendNotification(any(SendNotificationRequest.class));
+        assertEquals(2, meterRegistry.get("notification.delivery").tag("mode", "bulk").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void notificationServiceConsumer_should_hand_retryable_failures_to_retry_topics_when_enabled() {
+        ReflectionTestUtils.setField(notificationServiceConsumer, "retryTopicEnabled", true);
+        SendNotificationRequest request = SendNotificationRequest.builder().userId("user-1").message("message").build();
+        doThrow(new RemoteDirectException("SERVER_ERROR", "unavailable", 503))
+                .doThrow(new RemoteDirectException("NOT_FOUND", "user not found", 404))
+                .when(notificationServiceClient).sendNotification(request);
+
+        assertThrows(RemoteDirectException.class, () -> notificationServiceConsumer.consumeNotification(request));
+        // 4xx tekrar denenmez, loglanıp geçilir
+        assertDoesNotThrow(() -> notificationServiceConsumer.consumeNotification(request));
+    }
+
+    private List<ConsumerRecord<String, SendNotificationRequest>> records(String... userIds) {
+        List<ConsumerRecord<String, SendNotificationRequest>> records = new ArrayList<>();
+        for (int i = 0; i < userIds.length; i++) {
+            records.add(new ConsumerRecord<>("notification-service", 0, i, null,
+                    SendNotificationRequest.builder().userId(userIds[i]).message("message").build()));
+        }
+        return records;
+    }
+}
@@ -9,7 +9,13 @@ import com.modernbank.transaction_service.entity.Transaction;
 import com.modernbank.transaction_service.model.enums.*;
 import com.modernbank.transaction_service.repository.TransactionRepository;
 import com.modernbank.transaction_service.service.FraudEvaluationService;
+import com.modernbank.transaction_service.service.OutboxService;
 import com.modernbank.transaction_service.service.TechnicalErrorService;
+import com.modernbank.transaction_service.service.event.producer.NotificationDigestAggregator;
+import com.modernbank.transaction_service.service.event.producer.TransactionCompletedPublisher;
+import com.modernbank.transaction_service.service.event.snapshot.AccountSnapshotPolicy;
+import com.modernbank.transaction_service.service.event.saga.SagaLatencyRecorder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,10 +25,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -43,6 +55,9 @@ class TransactionServiceConsumerTest {
     @Mock
     private KafkaTemplate<String, DynamicInvoiceRequest> dynamicInvoiceKafkaTemplate;
 
+    @Mock
+    private KafkaTemplate<String, Object> exactlyOnceKafkaTemplate;
+
     @Mock
     private TechnicalErrorService technicalErrorService;
 
@@ -55,6 +70,24 @@ class TransactionServiceConsumerTest {
     @Mock
     private FraudEvaluationService fraudEvaluationService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private SagaLatencyRecorder sagaLatencyRecorder;
+
+    @Mock
+    private NotificationDigestAggregator notificationDigestAggregator;
+
+    @Mock
+    private AccountSnapshotPolicy accountSnapshotPolicy;
+
+    @Mock
+    private TransactionCompletedPublisher transactionCompletedPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private TransactionServiceConsumer transactionServiceConsumer;
 
@@ -72,7 +105,18 @@ class TransactionServiceConsumerTest {
 
     @BeforeEach
     void setUp() {
+        // Constructor injection resolves the KafkaTemplate mocks by erased type only, so wire them by name
+        ReflectionTestUtils.setField(transactionServiceConsumer, "transferMoneyKafkaTemplate", transferMoneyKafkaTemplate);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "notificationKafkaTemplate", notificationKafkaTemplate);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "chatNotificationKafkaTemplate", chatNotificationKafkaTemplate);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "dynamicInvoiceKafkaTemplate", dynamicInvoiceKafkaTemplate);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "exactlyOnceKafkaTemplate", exactlyOnceKafkaTemplate);
         ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", true);
+        // Batch kayıtları callback içinde işlenir; mock template callback'i doğrudan çalıştırır
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<org.springframework.transaction.TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
 
         validTransferRequest = TransferMoneyRequest.builder()
                 .fromIBAN("TR123456789012345678901234")
@@ -167,7 +211,7 @@ class TransactionServiceConsumerTest {
 
         // Then
         verify(transactionRepository, never()).save(any(Transaction.class));
-        verify(transferMoneyKafkaTemplate, never()).send(anyString(), any(TransferMoneyRequest.class));
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
     }
 
     @Test
@@ -275,7 +319,7 @@ class TransactionServiceConsumerTest {
 
         // Then
         verify(accountServiceClient).updateBalance(validTransferRequest.getFromIBAN(), -100.0);
-        verify(transferMoneyKafkaTemplate).send(eq("update-transfer-money"), any(TransferMoneyRequest.class));
+        verify(transferMoneyKafkaTemplate).send(eq("update-transfer-money"), eq(validTransferRequest.getFromIBAN()), any(TransferMoneyRequest.class));
     }
 
     @Test
@@ -383,7 +427,50 @@ class TransactionServiceConsumerTest {
 
         verify(fraudEvaluationService, never()).evaluateAndDecide(any(), anyString());
         verify(accountServiceClient).updateBalance(validTransferRequest.getFromIBAN(), -100.0);
-        verify(transferMoneyKafkaTemplate).send(eq("update-transfer-money"), any(TransferMoneyRequest.class));
+        verify(transferMoneyKafkaTemplate).send(eq("update-transfer-money"), eq(validTransferRequest.getFromIBAN()), any(TransferMoneyRequest.class));
+    }
+
+    @Test
+    void transactionServiceConsumer_should_enqueue_update_step_to_outbox_when_outbox_enabled() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "outboxEnabled", true);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getFromIBAN())).thenReturn(senderAccount);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getToIBAN())).thenReturn(receiverAccount);
+        when(transactionRepository.existsDuplicateTransaction(
+                anyString(), anyString(), anyDouble(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(false);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(senderTransaction);
+
+        transactionServiceConsumer.processStartTransferMoney(validTransferRequest);
+
+        verify(outboxService).enqueue(eq("update-transfer-money"), eq(validTransferRequest.getFromIBAN()), any(TransferMoneyRequest.class));
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
+    }
+
+    @Test
+    void transactionServiceConsumer_should_send_update_step_in_kafka_transaction_and_keep_duplicate_query_when_exactly_once() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        ReflectionTestUtils.setField(transactionServiceConsumer, "exactlyOnceEnabled", true);
+        @SuppressWarnings("unchecked")
+        ProducerFactory<String, Object> producerFactory = mock(ProducerFactory.class);
+        when(exactlyOnceKafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getFromIBAN())).thenReturn(senderAccount);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getToIBAN())).thenReturn(receiverAccount);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(senderTransaction);
+
+        // Container'ın KafkaTransactionManager'ı producer factory'yi thread'e bağlar
+        TransactionSynchronizationManager.bindResource(producerFactory, new Object());
+        try {
+            transactionServiceConsumer.processStartTransferMoney(validTransferRequest);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(producerFactory);
+        }
+
+        // Kafka transaction'ı abort edilirse kayıt tekrar gelir, bakiye çağrısı transaction dışında kalır
+        verify(transactionRepository).existsDuplicateTransaction(
+                anyString(), anyString(), anyDouble(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(exactlyOnceKafkaTemplate).send(eq("update-transfer-money"), eq(validTransferRequest.getFromIBAN()), any(TransferMoneyRequest.class));
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
     }
 
     // ==================== processUpdateTransferMoney Tests ====================
@@ -392,12 +479,38 @@ class TransactionServiceConsumerTest {
     void transactionServiceConsumer_should_update_balance_and_send_to_finalize_when_update_transfer_success() {
         validTransferRequest.setSenderTransactionId("sender-transaction-id");
         validTransferRequest.setReceiverTransactionId("receiver-transaction-id");
-        when(transactionRepository.findById("sender-transaction-id")).thenReturn(Optional.of(senderTransaction));
+        when(transactionRepository.findById("receiver-transaction-id")).thenReturn(Optional.of(receiverTransaction));
 
         transactionServiceConsumer.processUpdateTransferMoney(validTransferRequest);
 
         verify(accountServiceClient).updateBalance(validTransferRequest.getToIBAN(), 100.0);
-        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", validTransferRequest);
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", validTransferRequest.getFromIBAN(), validTransferRequest);
+        assertEquals(TransactionStatus.PENDING, receiverTransaction.getStatus());
+    }
+
+    @Test
+    void transactionServiceConsumer_should_credit_receiver_after_approved_start_step() {
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getFromIBAN())).thenReturn(senderAccount);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getToIBAN())).thenReturn(receiverAccount);
+        when(transactionRepository.existsDuplicateTransaction(
+                anyString(), anyString(), anyDouble(), anyString(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(false);
+        when(fraudEvaluationService.isAccountBlocked(anyString())).thenReturn(false);
+        when(transactionRepository.save(any(Transaction.class))).thenReturn(senderTransaction).thenReturn(receiverTransaction);
+        when(fraudEvaluationService.evaluateAndDecide(any(Transaction.class), anyString())).thenReturn(FraudDecision.APPROVE);
+        when(transactionRepository.findById("receiver-transaction-id")).thenReturn(Optional.of(receiverTransaction));
+
+        transactionServiceConsumer.processStartTransferMoney(validTransferRequest);
+        ArgumentCaptor<TransferMoneyRequest> updateStep = ArgumentCaptor.forClass(TransferMoneyRequest.class);
+        verify(transferMoneyKafkaTemplate).send(eq("update-transfer-money"), eq(validTransferRequest.getFromIBAN()), updateStep.capture());
+        // Start adımı gönderici kaydını update yayınlanmadan önce PENDING yapar
+        assertEquals(TransactionStatus.PENDING, senderTransaction.getStatus());
+
+        transactionServiceConsumer.processUpdateTransferMoney(updateStep.getValue());
+
+        verify(accountServiceClient).updateBalance(validTransferRequest.getToIBAN(), 100.0);
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", validTransferRequest.getFromIBAN(), updateStep.getValue());
+        assertEquals(TransactionStatus.PENDING, receiverTransaction.getStatus());
     }
 
     @Test
@@ -413,6 +526,119 @@ class TransactionServiceConsumerTest {
         verify(technicalErrorService).handleTechnicalError(anyString(), any(Exception.class));
     }
 
+    @Test
+    void transactionServiceConsumer_should_credit_receiver_once_per_batch_when_updates_are_coalesced() {
+        TransferMoneyRequest first = coalescedRequest("sender-1", "receiver-1", 100.0);
+        TransferMoneyRequest second = coalescedRequest("sender-2", "receiver-2", 250.0);
+
+        transactionServiceConsumer.processUpdateTransferMoneyBatch(List.of(
+                new ConsumerRecord<>("update-transfer-money", 0, 1L, first.getFromIBAN(), first),
+                new ConsumerRecord<>("update-transfer-money", 1, 7L, second.getFromIBAN(), second)));
+
+        verify(accountServiceClient, times(1)).updateBalance(first.getToIBAN(), 350.0);
+        verify(transactionRepository).findById("receiver-1");
+        verify(transactionRepository).findById("receiver-2");
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", first.getFromIBAN(), first);
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", second.getFromIBAN(), second);
+    }
+
+    @Test
+    void transactionServiceConsumer_should_compensate_every_transfer_when_netted_credit_fails() {
+        TransferMoneyRequest first = coalescedRequest("sender-1", "receiver-1", 100.0);
+        TransferMoneyRequest second = coalescedRequest("sender-2", "receiver-2", 250.0);
+        doThrow(new RuntimeException("Update failed")).when(accountServiceClient).updateBalance(first.getToIBAN(), 350.0);
+        when(transactionRepository.findById("receiver-1")).thenReturn(Optional.of(receiverTransaction));
+
+        transactionServiceConsumer.processUpdateTransferMoneyBatch(List.of(
+                new ConsumerRecord<>("update-transfer-money", 0, 1L, first.getFromIBAN(), first),
+                new ConsumerRecord<>("update-transfer-money", 1, 7L, second.getFromIBAN(), second)));
+
+        verify(accountServiceClient).updateBalance(first.getFromIBAN(), 100.0);
+        verify(accountServiceClient).updateBalance(second.getFromIBAN(), 250.0);
+        verify(accountServiceClient, never()).updateBalance(first.getToIBAN(), -100.0);
+        verify(technicalErrorService, times(2)).handleTechnicalError(anyString(), any(Exception.class));
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
+        assertEquals(TransactionStatus.FAILED, receiverTransaction.getStatus());
+    }
+
+    @Test
+    void transactionServiceConsumer_should_leave_already_credited_transfers_out_of_netted_credit() {
+        TransferMoneyRequest finalized = coalescedRequest("sender-1", "receiver-1", 100.0);
+        TransferMoneyRequest credited = coalescedRequest("sender-2", "receiver-2", 40.0);
+        TransferMoneyRequest fresh = coalescedRequest("sender-3", "receiver-3", 250.0);
+        // Sender kayıtları start adımında zaten PENDING; kredi durumu alıcı kaydından okunur
+        receiverTransaction.setStatus(TransactionStatus.COMPLETED);
+        Transaction creditedReceiver = coalescedReceiverTransaction("receiver-2", TransactionStatus.PENDING);
+        Transaction freshReceiver = coalescedReceiverTransaction("receiver-3", TransactionStatus.INITIATED);
+        when(transactionRepository.findById("receiver-1")).thenReturn(Optional.of(receiverTransaction));
+        when(transactionRepository.findById("receiver-2")).thenReturn(Optional.of(creditedReceiver));
+        when(transactionRepository.findById("receiver-3")).thenReturn(Optional.of(freshReceiver));
+
+        transactionServiceConsumer.processUpdateTransferMoneyBatch(List.of(
+                new ConsumerRecord<>("update-transfer-money", 0, 1L, finalized.getFromIBAN(), finalized),
+                new ConsumerRecord<>("update-transfer-money", 0, 2L, credited.getFromIBAN(), credited),
+                new ConsumerRecord<>("update-transfer-money", 1, 7L, fresh.getFromIBAN(), fresh)));
+
+        verify(accountServiceClient, times(1)).updateBalance(anyString(), anyDouble());
+        verify(accountServiceClient).updateBalance(fresh.getToIBAN(), 250.0);
+        verify(transferMoneyKafkaTemplate, never()).send("finalize-transfer-money", finalized.getFromIBAN(), finalized);
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", credited.getFromIBAN(), credited);
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", fresh.getFromIBAN(), fresh);
+        assertEquals(TransactionStatus.PENDING, freshReceiver.getStatus());
+    }
+
+    @Test
+    void transactionServiceConsumer_should_skip_compensated_transfers_in_coalesced_batch() {
+        TransferMoneyRequest compensated = coalescedRequest("sender-1", "receiver-1", 100.0);
+        receiverTransaction.setStatus(TransactionStatus.FAILED);
+        when(transactionRepository.findById("receiver-1")).thenReturn(Optional.of(receiverTransaction));
+
+        transactionServiceConsumer.processUpdateTransferMoneyBatch(List.of(
+                new ConsumerRecord<>("update-transfer-money", 0, 1L, compensated.getFromIBAN(), compensated)));
+
+        verify(accountServiceClient, never()).updateBalance(anyString(), anyDouble());
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
+    }
+
+    @Test
+    void transactionServiceConsumer_should_net_coalesced_credits_without_floating_point_drift() {
+        TransferMoneyRequest first = coalescedRequest("sender-1", "receiver-1", 0.1);
+        TransferMoneyRequest second = coalescedRequest("sender-2", "receiver-2", 0.2);
+
+        transactionServiceConsumer.processUpdateTransferMoneyBatch(List.of(
+                new ConsumerRecord<>("update-transfer-money", 0, 1L, first.getFromIBAN(), first),
+                new ConsumerRecord<>("update-transfer-money", 1, 7L, second.getFromIBAN(), second)));
+
+        verify(accountServiceClient).updateBalance(first.getToIBAN(), 0.3);
+    }
+
+    @Test
+    void transactionServiceConsumer_should_not_credit_again_when_update_transfer_is_redelivered() {
+        validTransferRequest.setSenderTransactionId("sender-transaction-id");
+        validTransferRequest.setReceiverTransactionId("receiver-transaction-id");
+        receiverTransaction.setStatus(TransactionStatus.PENDING);
+        when(transactionRepository.findById("receiver-transaction-id")).thenReturn(Optional.of(receiverTransaction));
+
+        transactionServiceConsumer.processUpdateTransferMoney(validTransferRequest);
+
+        verify(accountServiceClient, never()).updateBalance(anyString(), anyDouble());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(transferMoneyKafkaTemplate).send("finalize-transfer-money", validTransferRequest.getFromIBAN(), validTransferRequest);
+    }
+
+    @Test
+    void transactionServiceConsumer_should_not_credit_when_update_transfer_was_compensated() {
+        validTransferRequest.setSenderTransactionId("sender-transaction-id");
+        validTransferRequest.setReceiverTransactionId("receiver-transaction-id");
+        receiverTransaction.setStatus(TransactionStatus.FAILED);
+        when(transactionRepository.findById("receiver-transaction-id")).thenReturn(Optional.of(receiverTransaction));
+
+        transactionServiceConsumer.processUpdateTransferMoney(validTransferRequest);
+
+        verify(accountServiceClient, never()).updateBalance(anyString(), anyDouble());
+        verify(transferMoneyKafkaTemplate, never()).send(anyString(), anyString(), any(TransferMoneyRequest.class));
+    }
+
     // ==================== processFinalizeTransferMoney Tests ====================
 
     @Test
@@ -431,6 +657,23 @@ class TransactionServiceConsumerTest {
         verify(dynamicInvoiceKafkaTemplate).send(eq("send-invoice-service"), any(DynamicInvoiceRequest.class));
     }
 
+    @Test
+    void transactionServiceConsumer_should_skip_finalize_when_transfer_is_already_completed() {
+        validTransferRequest.setSenderTransactionId("sender-transaction-id");
+        validTransferRequest.setReceiverTransactionId("receiver-transaction-id");
+        senderTransaction.setStatus(TransactionStatus.COMPLETED);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getToIBAN())).thenReturn(receiverAccount);
+        when(accountServiceClient.getAccountByIban(validTransferRequest.getFromIBAN())).thenReturn(senderAccount);
+        when(transactionRepository.findById("sender-transaction-id")).thenReturn(Optional.of(senderTransaction));
+
+        transactionServiceConsumer.processFinalizeTransferMoney(validTransferRequest);
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(notificationKafkaTemplate, never()).send(anyString(), any(SendNotificationRequest.class));
+        verify(dynamicInvoiceKafkaTemplate, never()).send(anyString(), any(DynamicInvoiceRequest.class));
+        verify(technicalErrorService, never()).handleTechnicalError(anyString(), any(Exception.class));
+    }
+
     @Test
     void transactionServiceConsumer_should_skip_when_finalize_request_is_null() {
         transactionServiceConsumer.processFinalizeTransferMoney(null);
@@ -863,5 +1106,147 @@ class TransactionServiceConsumerTest {
         assertEquals(TransactionType.INCOME, savedTransaction.getType());
         assertEquals(TransactionCategory.DEPOSIT, savedTransaction.getCategory());
     }
-}
 
+    // ==================== consumeWithdrawAndDepositBatch Tests ====================
+
+    @Test
+    void transactionServiceConsumer_should_resolve_account_once_and_insert_rows_per_item_for_batch() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        when(accountServiceClient.getAccountById(withdrawDepositRequest.getAccountId())).thenReturn(accountByIdResponse);
+        when(transactionRepository.findRecentWithdrawDeposits(anyList(), anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WithdrawAndDepositMoneyRequest depositRequest = new WithdrawAndDepositMoneyRequest();
+        depositRequest.setAccountId("test-account-id");
+        depositRequest.setAmount(50.0);
+        depositRequest.setUserId("test-user-id");
+
+        transactionServiceConsumer.consumeWithdrawAndDepositBatch(List.of(
+                new ConsumerRecord<>("withdraw-money", 0, 0L, "test-account-id", withdrawDepositRequest),
+                new ConsumerRecord<>("deposit-money", 0, 1L, "test-account-id", depositRequest)));
+
+        verify(accountServiceClient, times(1)).getAccountById("test-account-id");
+        verify(transactionRepository, never()).saveAll(anyList());
+        verify(accountServiceClient).updateBalance(accountDTO.getIban(), -200.0);
+        verify(accountServiceClient).updateBalance(accountDTO.getIban(), 50.0);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    void transactionServiceConsumer_should_insert_batch_row_inside_item_transaction() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        when(accountServiceClient.getAccountById(withdrawDepositRequest.getAccountId())).thenReturn(accountByIdResponse);
+        when(transactionRepository.findRecentWithdrawDeposits(anyList(), anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        // Satır transaction dışında yazılırsa rollback sonrası yetim kalır
+        AtomicBoolean inItemTransaction = new AtomicBoolean();
+        doAnswer(invocation -> {
+            inItemTransaction.set(true);
+            try {
+                invocation.<Consumer<org.springframework.transaction.TransactionStatus>>getArgument(0).accept(null);
+            } finally {
+                inItemTransaction.set(false);
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            assertTrue(inItemTransaction.get());
+            return invocation.getArgument(0);
+        });
+        doThrow(new RuntimeException("Update failed")).when(accountServiceClient).updateBalance(accountDTO.getIban(), -200.0);
+
+        transactionServiceConsumer.consumeWithdrawAndDepositBatch(List.of(
+                new ConsumerRecord<>("withdraw-money", 0, 0L, "test-account-id", withdrawDepositRequest)));
+
+        verify(transactionRepository).save(any(Transaction.class));
+        verify(transactionRepository, never()).saveAll(anyList());
+        verify(technicalErrorService).handleTechnicalError(anyString(), any(Exception.class));
+    }
+
+    @Test
+    void transactionServiceConsumer_should_not_reserve_balance_for_held_withdraw_in_batch() {
+        when(accountServiceClient.getAccountById(withdrawDepositRequest.getAccountId())).thenReturn(accountByIdResponse);
+        when(transactionRepository.findRecentWithdrawDeposits(anyList(), anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(fraudEvaluationService.isAccountBlocked(anyString())).thenReturn(false);
+        when(fraudEvaluationService.evaluateAndDecide(any(Transaction.class), anyString()))
+                .thenReturn(FraudDecision.HOLD)
+                .thenReturn(FraudDecision.APPROVE);
+
+        WithdrawAndDepositMoneyRequest heldRequest = new WithdrawAndDepositMoneyRequest();
+        heldRequest.setAccountId("test-account-id");
+        heldRequest.setAmount(900.0);
+        heldRequest.setUserId("test-user-id");
+
+        transactionServiceConsumer.consumeWithdrawAndDepositBatch(List.of(
+                new ConsumerRecord<>("withdraw-money", 0, 0L, "test-account-id", heldRequest),
+                new ConsumerRecord<>("withdraw-money", 0, 1L, "test-account-id", withdrawDepositRequest)));
+
+        verify(accountServiceClient, never()).updateBalance(accountDTO.getIban(), -900.0);
+        verify(accountServiceClient).updateBalance(accountDTO.getIban(), -200.0);
+    }
+
+    @Test
+    void transactionServiceConsumer_should_skip_duplicates_within_batch() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        when(accountServiceClient.getAccountById(withdrawDepositRequest.getAccountId())).thenReturn(accountByIdResponse);
+        when(transactionRepository.findRecentWithdrawDeposits(anyList(), anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        transactionServiceConsumer.consumeWithdrawAndDepositBatch(List.of(
+                new ConsumerRecord<>("withdraw-money", 0, 0L, "test-account-id", withdrawDepositRequest),
+                new ConsumerRecord<>("withdraw-money", 0, 1L, "test-account-id", withdrawDepositRequest)));
+
+        verify(accountServiceClient, times(1)).updateBalance(accountDTO.getIban(), -200.0);
+    }
+
+    @Test
+    void transactionServiceConsumer_should_report_failed_record_without_failing_batch() {
+        ReflectionTestUtils.setField(transactionServiceConsumer, "fraudDetectionEnabled", false);
+        when(accountServiceClient.getAccountById("test-account-id")).thenReturn(accountByIdResponse);
+        when(accountServiceClient.getAccountById("missing-account-id")).thenThrow(new RuntimeException("Connection error"));
+        when(transactionRepository.findRecentWithdrawDeposits(anyList(), anyList(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        WithdrawAndDepositMoneyRequest missingAccountRequest = new WithdrawAndDepositMoneyRequest();
+        missingAccountRequest.setAccountId("missing-account-id");
+        missingAccountRequest.setAmount(100.0);
+        missingAccountRequest.setUserId("other-user-id");
+
+        transactionServiceConsumer.consumeWithdrawAndDepositBatch(List.of(
+                new ConsumerRecord<>("withdraw-money", 0, 0L, "missing-account-id", missingAccountRequest),
+                new ConsumerRecord<>("withdraw-money", 0, 1L, "test-account-id", withdrawDepositRequest)));
+
+        verify(technicalErrorService).handleTechnicalError(anyString(), any(Exception.class));
+        verify(accountServiceClient).updateBalance(accountDTO.getIban(), -200.0);
+    }
+
+    private TransferMoneyRequest coalescedRequest(String senderTransactionId, String receiverTransactionId, double amount) {
+        TransferMoneyRequest request = TransferMoneyRequest.builder()
+                .fromIBAN("TR" + senderTransactionId)
+                .toIBAN("TR987654321098765432109876")
+                .amount(amount)
+                .build();
+        request.setSenderTransactionId(senderTransactionId);
+        request.setReceiverTransactionId(receiverTransactionId);
+        return request;
+    }
+
+    private Transaction coalescedReceiverTransaction(String id, TransactionStatus status) {
+        return Transaction.builder()
+                .id(id)
+                .accountId("receiver-account-id")
+                .amount(100.0)
+                .status(status)
+                .currency(Currency.TRY)
+                .type(TransactionType.INCOME)
+                .channel(TransactionChannel.ONLINE_BANKING)
+                .category(TransactionCategory.TRANSFER)
+                .date(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.modernbank.transaction_service.service.event.deadline;
+
+import com.modernbank.transaction_service.api.request.WithdrawAndDepositMoneyRequest;
+import com.modernbank.transaction_service.service.TechnicalErrorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.modernbank.transaction_service.constant.ErrorCodeConstants.DYNAMIC_REQUEST_EXPIRED;
+import static com.modernbank.transaction_service.constant.HeaderKey.DEADLINE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredRecordFilterStrategyTest {
+
+    @Mock
+    private ObjectProvider<TechnicalErrorService> technicalErrorServiceProvider;
+
+    @Mock
+    private TechnicalErrorService technicalErrorService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExpiredRecordFilterStrategy expiredRecordFilterStrategy;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiredRecordFilterStrategy = new ExpiredRecordFilterStrategy(technicalErrorServiceProvider, meterRegistry);
+    }
+
+    @Test
+    void expiredRecordFilterStrategy_should_discard_expired_record_and_report_business_error() {
+        when(technicalErrorServiceProvider.getObject()).thenReturn(technicalErrorService);
+
+        boolean discarded = expiredRecordFilterStrategy.filter(record(System.currentTimeMillis() - 60_000));
+
+        assertTrue(discarded);
+        verify(technicalErrorService).handleBusinessError(null, "user-1", DYNAMIC_REQUEST_EXPIRED);
+        assertEquals(1, meterRegistry.get("kafka.records.expired").tag("topic", "withdraw-money").counter().count());
+    }
+
+    @Test
+    void expiredRecordFilterStrategy_should_pass_records_without_or_before_deadline() {
+        assertFalse(expiredRecordFilterStrategy.filter(record(null)));
+        assertFalse(expiredRecordFilterStrategy.filter(record(System.currentTimeMillis() + 60_000)));
+
+        verifyNoInteractions(technicalErrorServiceProvider);
+        assertTrue(meterRegistry.find("kafka.records.expired").counters().isEmpty());
+    }
+
+    private ConsumerRecord<String, Object> record(Long deadline) {
+        WithdrawAndDepositMoneyRequest request = new WithdrawAndDepositMoneyRequest();
+        request.setUserId("user-1");
+        ConsumerRecord<String, Object> record = new ConsumerRecord<>("withdraw-money", 0, 42L, "account-1", request);
+        if (deadline != null) {
+            record.headers().add(DEADLINE, String.valueOf(deadline).getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,78 @@
+package com.modernbank.transaction_service.service.event.dispatcher;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher keyOrderedDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        keyOrderedDispatcher = new KeyOrderedDispatcher();
+        ReflectionTestUtils.setField(keyOrderedDispatcher, "poolSize", 4);
+        ReflectionTestUtils.setField(keyOrderedDispatcher, "queueCapacity", 100);
+        keyOrderedDispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyOrderedDispatcher.shutdown();
+    }
+
+    @Test
+    void keyOrderedDispatcher_should_keep_records_with_same_key_in_offset_order() {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            records.add(new ConsumerRecord<>("start-transfer-money", 0, i, "TR" + (i % 4), "value-" + i));
+        }
+        Map<String, List<Long>> processed = new ConcurrentHashMap<>();
+
+        keyOrderedDispatcher.dispatch(records, record -> processed
+                .computeIfAbsent(record.key(), key -> Collections.synchronizedList(new ArrayList<>()))
+                .add(record.offset()));
+
+        assertEquals(4, processed.size());
+        processed.values().forEach(offsets -> {
+            List<Long> sorted = new ArrayList<>(offsets);
+            Collections.sort(sorted);
+            assertEquals(sorted, offsets);
+            assertEquals(10, offsets.size());
+        });
+    }
+
+    @Test
+    void keyOrderedDispatcher_should_report_lowest_failed_index_and_stop_failed_lane() {
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>("start-transfer-money", 0, 0L, "TR1", "ok"),
+                new ConsumerRecord<>("start-transfer-money", 0, 1L, "TR2", "fail"),
+                new ConsumerRecord<>("start-transfer-money", 0, 2L, "TR1", "ok"),
+                new ConsumerRecord<>("start-transfer-money", 0, 3L, "TR2", "ok"),
+                new ConsumerRecord<>("start-transfer-money", 0, 4L, "TR3", "fail"));
+        List<Long> processed = Collections.synchronizedList(new ArrayList<>());
+
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> keyOrderedDispatcher.dispatch(records, record -> {
+                    if ("fail".equals(record.value())) {
+                        throw new IllegalStateException("account-service timeout");
+                    }
+                    processed.add(record.offset());
+                }));
+
+        assertEquals(1, exception.getIndex());
+        assertFalse(processed.contains(3L));
+        assertTrue(processed.containsAll(List.of(0L, 2L)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.modernbank.transaction_service.service.event.dispatcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.api.request.ChatNotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiplexedHandlerRegistryTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MultiplexedHandlerRegistry multiplexedHandlerRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        multiplexedHandlerRegistry = new MultiplexedHandlerRegistry(new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    void multiplexedHandlerRegistry_should_bind_payload_to_handler_type_and_time_it_per_topic() {
+        List<ChatNotificationRequest> received = new ArrayList<>();
+        multiplexedHandlerRegistry.register("chat-notification-service", ChatNotificationRequest.class, received::add);
+
+        multiplexedHandlerRegistry.dispatch(record("chat-notification-service", "{\"userId\":\"user-1\"}"));
+
+        assertEquals(1, received.size());
+        assertEquals("user-1", received.get(0).getUserId());
+        assertEquals(1, meterRegistry.get("kafka.multiplexed.dispatch")
+                .tag("topic", "chat-notification-service").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void multiplexedHandlerRegistry_should_reject_unregistered_topics_and_duplicate_handlers() {
+        multiplexedHandlerRegistry.register("chat-notification-service", ChatNotificationRequest.class, request -> { });
+
+        assertThrows(IllegalStateException.class,
+                () -> multiplexedHandlerRegistry.dispatch(record("send-invoice-service", "{}")));
+        assertThrows(IllegalStateException.class,
+                () -> multiplexedHandlerRegistry.register("chat-notification-service", ChatNotificationRequest.class, request -> { }));
+    }
+
+    private ConsumerRecord<String, byte[]> record(String topic, String json) {
+        return new ConsumerRecord<>(topic, 0, 0L, null, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package com.modernbank.transaction_service.service.event.pipeline;
+
+import com.modernbank.transaction_service.api.client.InvoiceServiceClient;
+import com.modernbank.transaction_service.api.request.DynamicInvoiceRequest;
+import com.modernbank.transaction_service.api.request.UpdateTransactionInvoiceStatus;
+import com.modernbank.transaction_service.api.response.CreateInvoicePDFResponse;
+import com.modernbank.transaction_service.model.enums.InvoiceStatus;
+import com.modernbank.transaction_service.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceGenerationPipelineTest {
+
+    @Mock
+    private InvoiceServiceClient invoiceServiceClient;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private InvoiceGenerationPipeline invoiceGenerationPipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        invoiceGenerationPipeline = new InvoiceGenerationPipeline(invoiceServiceClient, transactionService, meterRegistry);
+        ReflectionTestUtils.setField(invoiceGenerationPipeline, "parallelism", 4);
+        ReflectionTestUtils.setField(invoiceGenerationPipeline, "callTimeoutSeconds", 5L);
+        invoiceGenerationPipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceGenerationPipeline.shutdown();
+    }
+
+    @Test
+    void invoiceGenerationPipeline_should_write_back_invoice_ids_and_failures_in_one_bulk_update() {
+        CreateInvoicePDFResponse response = new CreateInvoicePDFResponse();
+        response.setRequestId("invoice-1");
+        response.setInvoiceStatus(InvoiceStatus.PROCESSING);
+        when(invoiceServiceClient.generateInvoice(any(DynamicInvoiceRequest.class))).thenAnswer(invocation -> {
+            DynamicInvoiceRequest request = invocation.getArgument(0);
+            if ("user-2".equals(request.getUserId())) {
+                throw new RuntimeException("invoice-service timeout");
+            }
+            return response;
+        });
+        when(transactionService.updateTransactionInvoiceStatuses(anyList())).thenReturn(2);
+
+        invoiceGenerationPipeline.process(List.of(
+                invoiceRequest("user-1", "tx-1"),
+                invoiceRequest("user-2", "tx-2"),
+                invoiceRequest("user-3", null)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UpdateTransactionInvoiceStatus>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionService, times(1)).updateTransactionInvoiceStatuses(captor.capture());
+        Map<String, UpdateTransactionInvoiceStatus> updates = captor.getValue().stream()
+                .collect(Collectors.toMap(UpdateTransactionInvoiceStatus::getTransactionId, Function.identity()));
+
+        assertEquals(2, updates.size());
+        assertEquals("invoice-1", updates.get("tx-1").getInvoiceId());
+        assertEquals(InvoiceStatus.PROCESSING, updates.get("tx-1").getStatus());
+        assertEquals(InvoiceStatus.FAILED, updates.get("tx-2").getStatus());
+        assertEquals(1, meterRegistry.get("invoice.pipeline.processed").tag("result", "failure").counter().count());
+        assertEquals(0, meterRegistry.get("invoice.pipeline.backlog").gauge().value());
+    }
+
+    @Test
+    void invoiceGenerationPipeline_should_not_fail_the_batch_when_write_back_fails() {
+        CreateInvoicePDFResponse response = new CreateInvoicePDFResponse();
+        response.setRequestId("invoice-1");
+        when(invoiceServiceClient.generateInvoice(any(DynamicInvoiceRequest.class))).thenReturn(response);
+        when(transactionService.updateTransactionInvoiceStatuses(anyList()))
+                .thenThrow(new RuntimeException("deadlock detected"));
+
+        assertDoesNotThrow(() -> invoiceGenerationPipeline.process(List.of(
+                invoiceRequest("user-1", "tx-1"),
+                invoiceRequest("user-2", "tx-2"))));
+
+        verify(invoiceServiceClient, times(2)).generateInvoice(any(DynamicInvoiceRequest.class));
+        assertEquals(2, meterRegistry.get("invoice.pipeline.writeback.failures").counter().count());
+    }
+
+    private DynamicInvoiceRequest invoiceRequest(String userId, String transactionId) {
+        return DynamicInvoiceRequest.builder()
+                .userId(userId)
+                .invoiceType("TRANSFER")
+                .data(transactionId == null ? Map.of() : Map.of("transactionId", transactionId))
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import com.modernbank.transaction_service.api.request.SendNotificationRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDigestAggregatorTest {
+
+    @Mock
+    private KafkaTemplate<String, SendNotificationRequest> notificationKafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private NotificationDigestAggregator notificationDigestAggregator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        notificationDigestAggregator = new NotificationDigestAggregator(notificationKafkaTemplate, meterRegistry);
+        ReflectionTestUtils.setField(notificationDigestAggregator, "enabled", true);
+        ReflectionTestUtils.setField(notificationDigestAggregator, "maxPendingUsers", 100);
+    }
+
+    @Test
+    void notificationDigestAggregator_should_merge_notifications_of_same_user_into_one_message() {
+        assertTrue(notificationDigestAggregator.offer(notification("user-1", "Para Transferi Geldi", "100 TL geldi"), "trace-1"));
+        assertTrue(notificationDigestAggregator.offer(notification("user-1", "Para Transferi Gönderildi", "50 TL gönderildi"), "trace-2"));
+        assertTrue(notificationDigestAggregator.offer(notification("user-2", "Para Transferi Geldi", "10 TL geldi"), "trace-3"));
+
+        notificationDigestAggregator.flushDigests();
+
+        ArgumentCaptor<ProducerRecord<String, SendNotificationRequest>> captor = ArgumentCaptor.captor();
+        verify(notificationKafkaTemplate, times(2)).send(captor.capture());
+        SendNotificationRequest digest = captor.getAllValues().stream()
+                .map(ProducerRecord::value)
+                .filter(notification -> "user-1".equals(notification.getUserId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(NotificationDigestAggregator.DIGEST_TITLE, digest.getTitle());
+        assertEquals("100 TL geldi\n50 TL gönderildi", digest.getMessage());
+        assertEquals(2, digest.getArguments().get("digestCount"));
+        assertEquals(1, meterRegistry.get("notification.digest.published").tag("kind", "digest").counter().count());
+        assertEquals(3, meterRegistry.get("notification.digest.merged").counter().count());
+    }
+
+    @Test
+    void notificationDigestAggregator_should_leave_sending_to_caller_when_disabled_or_critical() {
+        SendNotificationRequest critical = notification("user-1", "İşlem Reddedildi", "Reddedildi");
+        critical.setType("CRITICAL");
+
+        assertFalse(notificationDigestAggregator.offer(critical, "trace-1"));
+        ReflectionTestUtils.setField(notificationDigestAggregator, "enabled", false);
+        assertFalse(notificationDigestAggregator.offer(notification("user-1", "Para Çekme İşlemi", "Çekildi"), "trace-2"));
+
+        notificationDigestAggregator.flushDigests();
+
+        verify(notificationKafkaTemplate, never()).send(ArgumentMatchers.<ProducerRecord<String, SendNotificationRequest>>any());
+    }
+
+    private SendNotificationRequest notification(String userId, String title, String message) {
+        return SendNotificationRequest.builder()
+                .userId(userId)
+                .title(title)
+                .type("INFO")
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProducerMetricsListenerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProducerMetricsListener producerMetricsListener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        producerMetricsListener = new ProducerMetricsListener(meterRegistry);
+    }
+
+    @Test
+    void producerMetricsListener_should_keep_record_fields_when_stamping_send_start() {
+        ProducerRecord<String, Object> record = new ProducerRecord<>("notification-service", 2, 1_000L, "key", "value");
+        record.headers().add("traceId", "trace-1".getBytes(StandardCharsets.UTF_8));
+
+        ProducerRecord<String, Object> sent = producerMetricsListener.onSend(record);
+
+        assertEquals("notification-service", sent.topic());
+        assertEquals(2, sent.partition());
+        assertEquals(1_000L, sent.timestamp());
+        assertEquals("key", sent.key());
+        assertEquals("value", sent.value());
+        assertEquals("trace-1", new String(sent.headers().lastHeader("traceId").value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void producerMetricsListener_should_measure_latency_from_send_not_from_record_timestamp() {
+        // Bir gün önceye ait timestamp gecikmeyi etkilememeli
+        long dayAgo = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+        ProducerRecord<String, Object> sent = producerMetricsListener.onSend(
+                new ProducerRecord<>("notification-service", null, dayAgo, "key", "value"));
+
+        producerMetricsListener.onSuccess(sent, new RecordMetadata(
+                new TopicPartition("notification-service", 0), 0L, 0, dayAgo, 3, 5));
+
+        Timer timer = meterRegistry.get("kafka.producer.send.latency").tag("topic", "notification-service").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MINUTES) < 1);
+    }
+}
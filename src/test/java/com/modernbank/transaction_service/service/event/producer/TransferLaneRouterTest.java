@@ -0,0 +1,89 @@
+package com.modernbank.transaction_service.service.event.producer;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferLaneRouterTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TransferLaneRouter transferLaneRouter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transferLaneRouter = new TransferLaneRouter(meterRegistry, redisTemplate);
+        ReflectionTestUtils.setField(transferLaneRouter, "enabled", true);
+        ReflectionTestUtils.setField(transferLaneRouter, "highValueThreshold", 50_000.0);
+        ReflectionTestUtils.setField(transferLaneRouter, "stickyTtlSeconds", 300L);
+    }
+
+    @Test
+    void transferLaneRouter_should_route_by_amount_then_origin() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertEquals("start-transfer-money-priority", transferLaneRouter.startTopic(request(75_000, "TRUE"), true));
+        assertEquals("start-transfer-money-recovery", transferLaneRouter.startTopic(request(100, "TRUE"), true));
+        assertEquals("start-transfer-money-ai", transferLaneRouter.startTopic(request(100, "TRUE"), false));
+        assertEquals("start-transfer-money", transferLaneRouter.startTopic(request(100, "FALSE"), false));
+        assertEquals(1, meterRegistry.get("transfer.lane.routed").tag("lane", "PRIORITY").counter().count());
+    }
+
+    @Test
+    void transferLaneRouter_should_keep_sender_in_its_pinned_lane() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq("transfer-lane:TR123456789012345678901234"), eq("PRIORITY"), any(Duration.class)))
+                .thenReturn(false);
+        when(valueOperations.get("transfer-lane:TR123456789012345678901234")).thenReturn("STANDARD");
+
+        // Aynı göndericinin önceki transferi STANDARD'da: yüksek tutarlı transfer de arkasında sıraya girer
+        assertEquals("start-transfer-money", transferLaneRouter.startTopic(request(75_000, "FALSE"), false));
+        verify(redisTemplate).expire("transfer-lane:TR123456789012345678901234", Duration.ofSeconds(300));
+    }
+
+    @Test
+    void transferLaneRouter_should_fall_back_to_standard_when_redis_is_unavailable() {
+        when(redisTemplate.opsForValue()).thenThrow(new RuntimeException("connection refused"));
+
+        assertEquals("start-transfer-money", transferLaneRouter.startTopic(request(75_000, "TRUE"), true));
+    }
+
+    @Test
+    void transferLaneRouter_should_keep_single_topic_when_lanes_disabled() {
+        ReflectionTestUtils.setField(transferLaneRouter, "enabled", false);
+
+        assertEquals("start-transfer-money", transferLaneRouter.startTopic(request(75_000, "TRUE"), true));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    private TransferMoneyRequest request(double amount, String byAi) {
+        return TransferMoneyRequest.builder()
+                .fromIBAN("TR123456789012345678901234")
+                .toIBAN("TR987654321098765432109876")
+                .amount(amount)
+                .byAi(byAi)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.modernbank.transaction_service.service.event.quarantine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PoisonPillQuarantineTest {
+
+    @Mock
+    private ObjectProvider<KafkaTemplate<byte[], byte[]>> kafkaTemplateProvider;
+
+    @Mock
+    private KafkaTemplate<byte[], byte[]> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PoisonPillQuarantine poisonPillQuarantine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        poisonPillQuarantine = new PoisonPillQuarantine(kafkaTemplateProvider, new ObjectMapper(), meterRegistry, 100);
+        ReflectionTestUtils.setField(poisonPillQuarantine, "enabled", true);
+        ReflectionTestUtils.setField(poisonPillQuarantine, "quarantineTopic", "transaction-service.quarantine");
+    }
+
+    @Test
+    void poisonPillQuarantine_should_park_failed_record_and_skip_its_offset_only() {
+        stubSend();
+        ConsumerRecord<String, Object> failed = record("finalize-transfer-money", 10, finalizeRequest(), new RecordHeaders());
+
+        poisonPillQuarantine.accept(failed, new IllegalStateException("boom"));
+
+        ArgumentCaptor<ProducerRecord<byte[], byte[]>> captor = ArgumentCaptor.captor();
+        verify(kafkaTemplate).send(captor.capture());
+        ProducerRecord<byte[], byte[]> parked = captor.getValue();
+        assertEquals("transaction-service.quarantine", parked.topic());
+        assertEquals("IllegalStateException", header(parked, PoisonPillQuarantine.REASON_HEADER));
+        assertEquals("finalize-transfer-money-0@10", header(parked, PoisonPillQuarantine.SOURCE_HEADER));
+        assertNotNull(header(parked, PoisonPillQuarantine.FINGERPRINT_HEADER));
+
+        // Aynı offset atlanır; yeni offset ile gelen aynı içerik meşru bir tekrar olabilir, listener'a ulaşır
+        assertTrue(poisonPillQuarantine.filter(failed));
+        assertFalse(poisonPillQuarantine.filter(record("finalize-transfer-money", 42, finalizeRequest(), new RecordHeaders())));
+        assertEquals(1, meterRegistry.get("kafka.quarantine.records").tag("outcome", "quarantined").counter().count());
+        assertEquals(1, meterRegistry.get("kafka.quarantine.records").tag("outcome", "skipped").counter().count());
+        assertEquals(0, meterRegistry.get("kafka.quarantine.entries").tag("kind", "fingerprint").gauge().value());
+    }
+
+    @Test
+    void poisonPillQuarantine_should_skip_replayed_undeserializable_bytes_by_fingerprint() {
+        stubSend();
+
+        assertTrue(poisonPillQuarantine.filter(record("withdraw-money", 1, null, undeserializableHeaders())));
+        // DLT'den yeni offset ile tekrar gelen aynı byte'lar tekrar karantinaya yazılmaz
+        assertTrue(poisonPillQuarantine.filter(record("withdraw-money", 9, null, undeserializableHeaders())));
+
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertEquals(1, meterRegistry.get("kafka.quarantine.records").tag("outcome", "skipped").counter().count());
+        assertEquals(1, meterRegistry.get("kafka.quarantine.entries").tag("kind", "fingerprint").gauge().value());
+    }
+
+    @Test
+    void poisonPillQuarantine_should_quarantine_undeserializable_and_malformed_records_in_filter() {
+        stubSend();
+        RecordHeaders headers = undeserializableHeaders();
+        TransferMoneyRequest malformed = finalizeRequest();
+        malformed.setReceiverTransactionId(null);
+
+        assertTrue(poisonPillQuarantine.filter(record("withdraw-money", 1, null, headers)));
+        assertTrue(poisonPillQuarantine.filter(record("finalize-transfer-money", 2, malformed, new RecordHeaders())));
+        assertFalse(poisonPillQuarantine.filter(record("finalize-transfer-money", 3, finalizeRequest(), new RecordHeaders())));
+
+        verify(kafkaTemplate, times(2)).send(any(ProducerRecord.class));
+        assertEquals(1, meterRegistry.get("kafka.quarantine.records")
+                .tag("topic", "withdraw-money").tag("reason", "DeserializationException").counter().count());
+    }
+
+    @Test
+    void poisonPillQuarantine_should_only_log_when_disabled() {
+        ReflectionTestUtils.setField(poisonPillQuarantine, "enabled", false);
+        ConsumerRecord<String, Object> failed = record("deposit-money", 5, finalizeRequest(), new RecordHeaders());
+
+        poisonPillQuarantine.accept(failed, new IllegalStateException("boom"));
+
+        verifyNoInteractions(kafkaTemplateProvider);
+        assertFalse(poisonPillQuarantine.isQuarantined(failed));
+        assertEquals(1, meterRegistry.get("kafka.quarantine.records").tag("outcome", "logged").counter().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubSend() {
+        when(kafkaTemplateProvider.getObject()).thenReturn(kafkaTemplate);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    private RecordHeaders undeserializableHeaders() {
+        RecordHeaders headers = new RecordHeaders();
+        SerializationUtils.deserializationException(headers, "{not-json".getBytes(StandardCharsets.UTF_8),
+                new IllegalArgumentException("bad json"), false);
+        return headers;
+    }
+
+    private TransferMoneyRequest finalizeRequest() {
+        return TransferMoneyRequest.builder()
+                .fromIBAN("TR123456789012345678901234")
+                .toIBAN("TR987654321098765432109876")
+                .amount(100.0)
+                .senderTransactionId("sender-transaction-id")
+                .receiverTransactionId("receiver-transaction-id")
+                .build();
+    }
+
+    private ConsumerRecord<String, Object> record(String topic, long offset, Object value, RecordHeaders headers) {
+        return new ConsumerRecord<>(topic, 0, offset, System.currentTimeMillis(), TimestampType.CREATE_TIME,
+                0, 0, "TR123456789012345678901234", value, headers, Optional.empty());
+    }
+
+    private String header(ProducerRecord<byte[], byte[]> record, String key) {
+        return new String(record.headers().lastHeader(key).value(), StandardCharsets.UTF_8);
+    }
+}
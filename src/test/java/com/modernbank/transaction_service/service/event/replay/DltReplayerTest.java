@@ -0,0 +1,85 @@
+package com.modernbank.transaction_service.service.event.replay;
+
+import com.modernbank.transaction_service.model.DltReplayCriteria;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DltReplayerTest {
+
+    @Test
+    void dltReplayer_should_resolve_main_topic_from_first_original_topic_header() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes("update-transfer-money"));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes("update-transfer-money-retry-60000"));
+
+        assertEquals("update-transfer-money", DltReplayer.originalTopic(headers));
+
+        RecordHeaders retryOnly = new RecordHeaders();
+        retryOnly.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes("withdraw-money-retry-1000"));
+        assertEquals("withdraw-money", DltReplayer.originalTopic(retryOnly));
+
+        assertNull(DltReplayer.originalTopic(new RecordHeaders()));
+    }
+
+    @Test
+    void dltReplayer_should_filter_by_error_type_topic_and_time_range() {
+        LocalDateTime failedAt = LocalDateTime.of(2024, 5, 1, 10, 30);
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaHeaders.DLT_EXCEPTION_FQCN, bytes("org.springframework.kafka.listener.ListenerExecutionFailedException"));
+        headers.add(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN, bytes("com.modernbank.transaction_service.exception.RemoteDirectException"));
+        ConsumerRecord<byte[], byte[]> record = dltRecord(failedAt, headers);
+
+        assertTrue(DltReplayer.matches(record, "start-transfer-money", DltReplayCriteria.builder()
+                .errorType("RemoteDirectException")
+                .from(failedAt.minusHours(1))
+                .to(failedAt.plusHours(1))
+                .build()));
+        assertFalse(DltReplayer.matches(record, "start-transfer-money", DltReplayCriteria.builder()
+                .errorType("NotFoundException")
+                .build()));
+        assertFalse(DltReplayer.matches(record, "start-transfer-money", DltReplayCriteria.builder()
+                .originalTopic("withdraw-money")
+                .build()));
+        assertFalse(DltReplayer.matches(record, "start-transfer-money", DltReplayCriteria.builder()
+                .from(failedAt.plusMinutes(1))
+                .build()));
+    }
+
+    @Test
+    void dltReplayer_should_drop_dlt_and_retry_headers_when_replaying() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("X-Correlation-Id", bytes("trace-1"));
+        headers.add("__TypeId__", bytes("com.modernbank.transaction_service.api.request.TransferMoneyRequest"));
+        headers.add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes("start-transfer-money"));
+        headers.add("retry_topic-attempts", new byte[]{4});
+
+        Headers replayHeaders = DltReplayer.replayHeaders(headers);
+
+        assertNotNull(replayHeaders.lastHeader("X-Correlation-Id"));
+        assertNotNull(replayHeaders.lastHeader("__TypeId__"));
+        assertNotNull(replayHeaders.lastHeader(DltReplayer.REPLAYED_AT_HEADER));
+        assertNull(replayHeaders.lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC));
+        assertNull(replayHeaders.lastHeader("retry_topic-attempts"));
+    }
+
+    private ConsumerRecord<byte[], byte[]> dltRecord(LocalDateTime failedAt, Headers headers) {
+        long timestamp = failedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ConsumerRecord<>("transaction-service.DLT", 0, 0L, timestamp, TimestampType.CREATE_TIME,
+                0, 0, bytes("key"), bytes("value"), headers, Optional.empty());
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
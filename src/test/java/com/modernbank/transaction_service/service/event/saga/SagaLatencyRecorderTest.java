@@ -0,0 +1,58 @@
+package com.modernbank.transaction_service.service.event.saga;
+
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaLatencyRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SagaLatencyRecorder sagaLatencyRecorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sagaLatencyRecorder = new SagaLatencyRecorder(meterRegistry);
+        ReflectionTestUtils.setField(sagaLatencyRecorder, "sloMs", List.of(1000L, 5000L));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SagaTimingContext.clear();
+    }
+
+    @Test
+    void sagaLatencyRecorder_should_record_stage_and_end_to_end_latency_from_headers() {
+        long now = System.currentTimeMillis();
+        RecordHeaders headers = new RecordHeaders();
+        SagaTimingContext.write(headers, SagaTimingContext.ACCEPTED, now - 3000);
+        SagaTimingContext.write(headers, "start", now - 2000);
+        SagaTimingContext.bind("finalize-transfer-money", headers);
+
+        sagaLatencyRecorder.recordExit(TransferMoneyRequest.builder().byAi("TRUE").build(), "COMPLETED");
+
+        assertEquals(1, meterRegistry.get("transfer.saga.latency")
+                .tag("outcome", "COMPLETED").tag("channel", "AI_CHAT").timer().count());
+        assertTrue(meterRegistry.get("transfer.saga.latency").timer().totalTime(TimeUnit.MILLISECONDS) >= 3000);
+        assertEquals(1, meterRegistry.get("transfer.saga.stage.latency").tag("stage", "start").timer().count());
+        assertEquals(1, meterRegistry.get("transfer.saga.stage.latency").tag("stage", "finalize").timer().count());
+        assertTrue(meterRegistry.find("transfer.saga.stage.latency").tag("stage", "update").timers().isEmpty());
+    }
+
+    @Test
+    void sagaLatencyRecorder_should_skip_when_no_checkpoints_bound() {
+        sagaLatencyRecorder.recordExit(TransferMoneyRequest.builder().build(), "FAILED");
+
+        assertNull(meterRegistry.find("transfer.saga.latency").timer());
+    }
+}
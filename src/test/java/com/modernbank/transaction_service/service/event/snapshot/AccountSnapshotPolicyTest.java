@@ -0,0 +1,118 @@
+package com.modernbank.transaction_service.service.event.snapshot;
+
+import com.modernbank.transaction_service.api.dto.AccountDTO;
+import com.modernbank.transaction_service.api.response.GetAccountByIban;
+import com.modernbank.transaction_service.api.response.GetAccountByIdResponse;
+import com.modernbank.transaction_service.model.AccountSnapshot;
+import com.modernbank.transaction_service.model.enums.Currency;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountSnapshotPolicyTest {
+
+    private static final String IBAN = "TR123456789012345678901234";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private AccountSnapshotPolicy accountSnapshotPolicy;
+
+    private GetAccountByIban account;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        accountSnapshotPolicy = policy("test-secret");
+
+        account = new GetAccountByIban();
+        account.setAccountId("account-1");
+        account.setUserId("user-1");
+        account.setAccountName("Vadesiz");
+        account.setFirstName("Ayşe");
+        account.setLastName("Yılmaz");
+        account.setCurrency(Currency.TRY);
+        account.setBalance(1500.0);
+    }
+
+    @Test
+    void accountSnapshotPolicy_should_reuse_signed_snapshot_bound_to_same_iban() {
+        AccountSnapshot snapshot = accountSnapshotPolicy.capture(IBAN, account);
+
+        GetAccountByIban reused = accountSnapshotPolicy.reuseByIban(snapshot, IBAN);
+
+        assertNotNull(reused);
+        assertEquals("account-1", reused.getAccountId());
+        assertEquals("user-1", reused.getUserId());
+        assertEquals("Ayşe", reused.getFirstName());
+        assertEquals(Currency.TRY, reused.getCurrency());
+        assertEquals(1500.0, reused.getBalance());
+        assertEquals(1.0, meterRegistry.counter("account.snapshot.reuse", "outcome", "hit").count());
+    }
+
+    @Test
+    void accountSnapshotPolicy_should_reject_tampered_or_foreign_snapshots() {
+        AccountSnapshot snapshot = accountSnapshotPolicy.capture(IBAN, account);
+        snapshot.setUserId("attacker");
+
+        assertNull(accountSnapshotPolicy.reuseByIban(snapshot, IBAN));
+
+        AccountSnapshot otherInstance = policy("other-secret").capture(IBAN, account);
+        assertNull(accountSnapshotPolicy.reuseByIban(otherInstance, IBAN));
+
+        AccountSnapshot valid = accountSnapshotPolicy.capture(IBAN, account);
+        assertNull(accountSnapshotPolicy.reuseByIban(valid, "TR987654321098765432109876"));
+
+        assertEquals(3.0, meterRegistry.counter("account.snapshot.reuse", "outcome", "invalid").count());
+    }
+
+    @Test
+    void accountSnapshotPolicy_should_reject_stale_snapshot() throws InterruptedException {
+        ReflectionTestUtils.setField(accountSnapshotPolicy, "maxAgeMs", 1L);
+        AccountSnapshot snapshot = accountSnapshotPolicy.capture(IBAN, account);
+        Thread.sleep(20);
+
+        assertNull(accountSnapshotPolicy.reuseByIban(snapshot, IBAN));
+        assertEquals(1.0, meterRegistry.counter("account.snapshot.reuse", "outcome", "stale").count());
+    }
+
+    @Test
+    void accountSnapshotPolicy_should_reuse_by_account_id_for_deposits() {
+        AccountDTO dto = new AccountDTO();
+        dto.setId("account-1");
+        dto.setIban(IBAN);
+        dto.setUserId("user-1");
+        dto.setCurrency(Currency.USD);
+
+        AccountSnapshot snapshot = accountSnapshotPolicy.capture(dto);
+        GetAccountByIdResponse reused = accountSnapshotPolicy.reuseById(snapshot, "account-1");
+
+        assertNotNull(reused);
+        assertEquals(IBAN, reused.getAccount().getIban());
+        assertEquals(Currency.USD, reused.getAccount().getCurrency());
+        assertNull(accountSnapshotPolicy.reuseById(snapshot, "account-2"));
+        assertNull(accountSnapshotPolicy.reuseById(null, "account-1"));
+        assertEquals(1.0, meterRegistry.counter("account.snapshot.reuse", "outcome", "missing").count());
+    }
+
+    @Test
+    void accountSnapshotPolicy_should_do_nothing_when_disabled() {
+        AccountSnapshot snapshot = accountSnapshotPolicy.capture(IBAN, account);
+        ReflectionTestUtils.setField(accountSnapshotPolicy, "enabled", false);
+
+        assertNull(accountSnapshotPolicy.capture(IBAN, account));
+        assertNull(accountSnapshotPolicy.reuseByIban(snapshot, IBAN));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private AccountSnapshotPolicy policy(String secret) {
+        AccountSnapshotPolicy policy = new AccountSnapshotPolicy(meterRegistry);
+        ReflectionTestUtils.setField(policy, "enabled", true);
+        ReflectionTestUtils.setField(policy, "secret", secret);
+        ReflectionTestUtils.setField(policy, "maxAgeMs", 60_000L);
+        policy.init();
+        return policy;
+    }
+}
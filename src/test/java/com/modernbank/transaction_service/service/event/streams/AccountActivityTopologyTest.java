@@ -0,0 +1,127 @@
+package com.modernbank.transaction_service.service.event.streams;
+
+import com.modernbank.transaction_service.model.AccountActivity;
+import com.modernbank.transaction_service.model.TransactionCompletedEvent;
+import com.modernbank.transaction_service.model.enums.TransactionCategory;
+import com.modernbank.transaction_service.model.enums.TransactionType;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountActivityTopologyTest {
+
+    private static final Instant START = Instant.parse("2026-01-15T10:00:00Z");
+
+    private AccountActivityTopology accountActivityTopology;
+
+    private TopologyTestDriver driver;
+
+    private TestInputTopic<String, TransactionCompletedEvent> transactionCompleted;
+
+    private WindowStore<String, AccountActivity> store;
+
+    @BeforeEach
+    void setUp() {
+        accountActivityTopology = new AccountActivityTopology();
+        ReflectionTestUtils.setField(accountActivityTopology, "topic", "transaction-completed");
+        ReflectionTestUtils.setField(accountActivityTopology, "bucketMs", 60_000L);
+        ReflectionTestUtils.setField(accountActivityTopology, "lookbackHours", 24L);
+        ReflectionTestUtils.setField(accountActivityTopology, "graceMs", 60_000L);
+
+        StreamsBuilder builder = new StreamsBuilder();
+        accountActivityTopology.build(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "account-activity-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        driver = new TopologyTestDriver(builder.build(), props, START);
+
+        // Producer tarafındaki gibi JsonSerializer: type header'ları eklenir, topology bunları yok sayar
+        transactionCompleted = driver.createInputTopic("transaction-completed",
+                new StringSerializer(), new JsonSerializer<>());
+        store = driver.getWindowStore(AccountActivityTopology.STORE_NAME);
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    void accountActivityTopology_should_keep_windowed_sums_and_counts_per_account() {
+        pipe("account-1", TransactionCategory.DEPOSIT, 100.0, START);
+        pipe("account-1", TransactionCategory.DEPOSIT, 250.0, START.plus(Duration.ofMinutes(5)));
+        pipe("account-1", TransactionCategory.WITHDRAWAL, 40.0, START.plus(Duration.ofHours(3)));
+        pipe("account-2", TransactionCategory.DEPOSIT, 999.0, START.plus(Duration.ofHours(3)));
+
+        Instant now = START.plus(Duration.ofHours(4));
+        AccountActivity activity = accountActivityTopology.activityBetween(store, "account-1",
+                now.minus(Duration.ofHours(24)), now);
+
+        assertEquals(3, activity.getCount());
+        assertEquals(350.0, activity.sumOf(TransactionCategory.DEPOSIT));
+        assertEquals(40.0, activity.sumOf(TransactionCategory.WITHDRAWAL));
+        assertEquals(0.0, activity.sumOf(TransactionCategory.ATM_DEPOSIT));
+
+        AccountActivity other = accountActivityTopology.activityBetween(store, "account-2",
+                now.minus(Duration.ofHours(24)), now);
+        assertEquals(1, other.getCount());
+        assertEquals(999.0, other.sumOf(TransactionCategory.DEPOSIT));
+    }
+
+    @Test
+    void accountActivityTopology_should_only_count_activity_inside_the_rolling_window() {
+        pipe("account-1", TransactionCategory.DEPOSIT, 100.0, START);
+        pipe("account-1", TransactionCategory.DEPOSIT, 50.0, START.plus(Duration.ofHours(20)));
+        pipe("account-1", TransactionCategory.DEPOSIT, 25.0, START.plus(Duration.ofHours(26)));
+
+        Instant now = START.plus(Duration.ofHours(26));
+        AccountActivity last24Hours = accountActivityTopology.activityBetween(store, "account-1",
+                now.minus(Duration.ofHours(24)), now);
+        AccountActivity lastHour = accountActivityTopology.activityBetween(store, "account-1",
+                now.minus(Duration.ofHours(1)), now);
+
+        assertEquals(2, last24Hours.getCount());
+        assertEquals(75.0, last24Hours.sumOf(TransactionCategory.DEPOSIT));
+        assertEquals(1, lastHour.getCount());
+        assertEquals(25.0, lastHour.sumOf(TransactionCategory.DEPOSIT));
+        assertTrue(accountActivityTopology.covers(now.minus(Duration.ofHours(24)), now));
+        assertFalse(accountActivityTopology.covers(now.minus(Duration.ofDays(7)), now));
+    }
+
+    @Test
+    void accountActivityTopology_should_drop_records_without_account_key() {
+        pipe(null, TransactionCategory.DEPOSIT, 100.0, START);
+        pipe("account-1", TransactionCategory.DEPOSIT, 10.0, START);
+
+        AccountActivity activity = accountActivityTopology.activityBetween(store, "account-1",
+                START.minus(Duration.ofHours(1)), START.plus(Duration.ofHours(1)));
+
+        assertEquals(1, activity.getCount());
+        assertEquals(10.0, activity.sumOf(TransactionCategory.DEPOSIT));
+    }
+
+    private void pipe(String accountId, TransactionCategory category, double amount, Instant timestamp) {
+        transactionCompleted.pipeInput(accountId, TransactionCompletedEvent.builder()
+                .transactionId("tx-" + timestamp.toEpochMilli())
+                .accountId(accountId)
+                .category(category)
+                .type(category == TransactionCategory.WITHDRAWAL ? TransactionType.EXPENSE : TransactionType.INCOME)
+                .amount(amount)
+                .build(), timestamp);
+    }
+}
@@ -0,0 +1,137 @@
+package com.modernbank.transaction_service.service.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.modernbank.transaction_service.api.request.TransferMoneyRequest;
+import com.modernbank.transaction_service.entity.OutboxEvent;
+import com.modernbank.transaction_service.model.enums.OutboxStatus;
+import com.modernbank.transaction_service.repository.OutboxEventRepository;
+import com.modernbank.transaction_service.service.TechnicalErrorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.modernbank.transaction_service.constant.ErrorCodeConstants.TECH_UPDATE_TRANSFER_MONEY_ERROR;
+import static com.modernbank.transaction_service.constant.HeaderKey.SAGA_CHECKPOINT_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayJobTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> outboxKafkaTemplate;
+
+    @Mock
+    private TechnicalErrorService technicalErrorService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private OutboxRelayJob outboxRelayJob;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelayJob = new OutboxRelayJob(outboxEventRepository, outboxKafkaTemplate, objectMapper,
+                new SimpleMeterRegistry(), technicalErrorService);
+        ReflectionTestUtils.setField(outboxRelayJob, "batchSize", 500);
+        ReflectionTestUtils.setField(outboxRelayJob, "sendTimeoutSeconds", 1);
+        ReflectionTestUtils.setField(outboxRelayJob, "maxAttempts", 10);
+        outboxRelayJob.initMetrics();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void outboxRelayJob_should_hold_back_later_rows_of_a_failed_key() throws Exception {
+        OutboxEvent broken = event(1L, "update-transfer-money", "TR-1", "{not-json", 0);
+        OutboxEvent sameKey = event(2L, "finalize-transfer-money", "TR-1", payload(), 0);
+        OutboxEvent brokenAgain = event(3L, "update-transfer-money", "TR-1", payload(), 0);
+        OutboxEvent otherKey = event(4L, "update-transfer-money", "TR-2", payload(), 0);
+        when(outboxEventRepository.findNextBatchForPublish(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(broken, sameKey, brokenAgain, otherKey));
+        when(outboxKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        outboxRelayJob.relayPendingEvents();
+
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.captor();
+        verify(outboxKafkaTemplate, times(2)).send(captor.capture());
+        assertEquals(List.of("finalize-transfer-money", "update-transfer-money"),
+                captor.getAllValues().stream().map(ProducerRecord::topic).toList());
+        assertEquals("TR-2", captor.getAllValues().get(1).key());
+        verify(outboxEventRepository).markPublished(eq(List.of(2L, 4L)), eq(OutboxStatus.PUBLISHED), any(LocalDateTime.class));
+        assertEquals(1, broken.getAttempts());
+        assertEquals(0, brokenAgain.getAttempts());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void outboxRelayJob_should_restore_saga_checkpoint_headers() throws Exception {
+        OutboxEvent event = event(1L, "finalize-transfer-money", "TR-1", payload(), 0);
+        event.setSagaCheckpoints("accepted=1700000000000,update=1700000000250,unknown=1");
+        when(outboxEventRepository.findNextBatchForPublish(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        when(outboxKafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        outboxRelayJob.relayPendingEvents();
+
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.captor();
+        verify(outboxKafkaTemplate).send(captor.capture());
+        Headers headers = captor.getValue().headers();
+        assertEquals("1700000000000", new String(headers.lastHeader(SAGA_CHECKPOINT_PREFIX + "accepted").value(),
+                StandardCharsets.UTF_8));
+        assertEquals("1700000000250", new String(headers.lastHeader(SAGA_CHECKPOINT_PREFIX + "update").value(),
+                StandardCharsets.UTF_8));
+        assertNull(headers.lastHeader(SAGA_CHECKPOINT_PREFIX + "unknown"));
+    }
+
+    @Test
+    void outboxRelayJob_should_raise_technical_error_when_saga_row_gives_up() {
+        OutboxEvent broken = event(1L, "update-transfer-money", "TR-1", "{not-json", 9);
+        when(outboxEventRepository.findNextBatchForPublish(eq(OutboxStatus.PENDING), any(Pageable.class)))
+                .thenReturn(List.of(broken));
+
+        outboxRelayJob.relayPendingEvents();
+
+        assertEquals(OutboxStatus.FAILED, broken.getStatus());
+        verify(technicalErrorService).handleTechnicalError(eq(TECH_UPDATE_TRANSFER_MONEY_ERROR), any(Exception.class));
+    }
+
+    private OutboxEvent event(Long id, String topic, String key, String payload, int attempts) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(topic)
+                .messageKey(key)
+                .payloadType(TransferMoneyRequest.class.getName())
+                .payload(payload)
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .build();
+    }
+
+    private String payload() throws Exception {
+        return objectMapper.writeValueAsString(TransferMoneyRequest.builder()
+                .fromIBAN("TR-1")
+                .toIBAN("TR-9")
+                .amount(10.0)
+                .build());
+    }
+}